@@ -19,6 +19,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Appointment {
     
+    // Longest bookable appointment; bounds how far back interval queries have to look
+    public static final int MAX_DURATION_MINUTES = 24 * 60;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,6 +42,10 @@ public class Appointment {
     @Column(name = "date_time", nullable = false)
     private LocalDateTime dateTime;
     
+    // Denormalized dateTime + service duration at booking time
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private AppointmentStatus status = AppointmentStatus.PENDING;
@@ -46,4 +53,13 @@ public class Appointment {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+    
+    // Maintained by MySQL (ON UPDATE CURRENT_TIMESTAMP), so bulk updates move it as well
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+    
+    // Optimistic lock: an update based on a stale read fails instead of overwriting a concurrent change
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
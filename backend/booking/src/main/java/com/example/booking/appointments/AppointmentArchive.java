@@ -0,0 +1,106 @@
+package com.example.booking.appointments;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tells read paths whether a window can reach the appointments_archive table.
+ * Every archived row starts no later than the watermark: the latest archived date_time seen by this instance, or the
+ * archive horizon once anything has been archived, since any instance only archives rows older than the horizon.
+ * Windows that start after it are answered from the live table alone. While the archive looks empty, the watermark is
+ * re-read every empty-recheck-seconds, so rows another instance archives are found without waiting for this instance's
+ * own archiving run.
+ */
+@Component
+public class AppointmentArchive {
+    
+    // Only finished appointments are archived
+    public static final Set<AppointmentStatus> ARCHIVED_STATUSES = Set.of(AppointmentStatus.DONE, AppointmentStatus.CANCELLED);
+    
+    // (dateTime, id) order shared by every listing and the cursor
+    public static final Comparator<AppointmentDto> LISTING_ORDER =
+        Comparator.comparing(AppointmentDto::getDateTime).thenComparing(AppointmentDto::getId);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int horizonDays;
+    private final long emptyRecheckNanos;
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+    private volatile LocalDateTime latestArchived;
+    
+    public AppointmentArchive(JdbcTemplate jdbcTemplate,
+                              @Value("${booking.archive.horizon-days:180}") int horizonDays,
+                              @Value("${booking.archive.empty-recheck-seconds:30}") long emptyRecheckSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.horizonDays = horizonDays;
+        this.emptyRecheckNanos = Duration.ofSeconds(emptyRecheckSeconds).toNanos();
+    }
+    
+    // Appointments starting before this are eligible for archiving
+    public LocalDateTime horizon() {
+        return LocalDateTime.now().minusDays(horizonDays);
+    }
+    
+    // True when rows starting at or after 'from' may sit in the archive
+    public boolean reaches(LocalDateTime from) {
+        // Once anything is archived the horizon bounds every instance's archive, so only an empty one needs re-reading
+        if (!loaded || (latestArchived == null && System.nanoTime() - loadedAt >= emptyRecheckNanos)) {
+            refresh();
+        }
+        LocalDateTime latest = latestArchived;
+        if (latest == null) {
+            return false;
+        }
+        LocalDateTime horizon = horizon();
+        return !from.isAfter(latest.isAfter(horizon) ? latest : horizon);
+    }
+    
+    // True when a listing of this status starting at 'from' may need archived rows
+    public boolean reaches(AppointmentStatus status, LocalDateTime from) {
+        return ARCHIVED_STATUSES.contains(status) && reaches(from);
+    }
+    
+    // Re-read the watermark, e.g. after another instance archived rows
+    public void refresh() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(date_time) FROM appointments_archive", Timestamp.class);
+        latestArchived = latest != null ? latest.toLocalDateTime() : null;
+        loadedAt = System.nanoTime();
+        loaded = true;
+    }
+    
+    // Called by the archiver after a batch commits
+    synchronized void recordArchived(LocalDateTime dateTime) {
+        if (latestArchived == null || dateTime.isAfter(latestArchived)) {
+            latestArchived = dateTime;
+        }
+        loadedAt = System.nanoTime();
+        loaded = true;
+    }
+    
+    // Merge two pages already sorted in listing order and keep the first 'limit' rows
+    public static List<AppointmentDto> merge(List<AppointmentDto> live, List<AppointmentDto> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<AppointmentDto> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (j == archived.size() || (i < live.size() && LISTING_ORDER.compare(live.get(i), archived.get(j)) < 0)) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.booking.appointments;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves DONE and CANCELLED appointments older than the archive horizon from appointments to appointments_archive,
+ * so the live table and its indexes stay small. Each batch is copied and deleted in its own short transaction;
+ * the rows are locked with FOR UPDATE SKIP LOCKED so instances running side by side take disjoint batches.
+ */
+@Slf4j
+@Component
+public class AppointmentArchiver {
+    
+    private static final String COLUMNS = "id, customer_id, business_id, service_id, date_time, end_time, status, created_at";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentArchive appointmentArchive;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    
+    public AppointmentArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               AppointmentArchive appointmentArchive,
+                               @Value("${booking.archive.batch-size:500}") int batchSize,
+                               @Value("${booking.archive.batch-pause-ms:100}") long batchPauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.appointmentArchive = appointmentArchive;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+    
+    // Archive batches until nothing past the horizon is left
+    @Scheduled(fixedDelayString = "${booking.archive.interval-ms:3600000}", initialDelayString = "${booking.archive.initial-delay-ms:60000}")
+    public void archiveExpired() {
+        try {
+            appointmentArchive.refresh();
+            LocalDateTime horizon = appointmentArchive.horizon();
+            long archived = 0;
+            Integer moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(horizon));
+                archived += moved != null ? moved : 0;
+                // Leave room for other writers between batches
+                if (moved != null && moved == batchSize && batchPauseMillis > 0) {
+                    Thread.sleep(batchPauseMillis);
+                }
+            } while (moved != null && moved == batchSize);
+            if (archived > 0) {
+                log.info("Archived {} appointments that started before {}", archived, horizon);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Appointment archiving failed", e);
+        }
+    }
+    
+    // Copy one batch into the archive, delete it from the live table and return its size
+    private int archiveBatch(LocalDateTime horizon) {
+        MapSqlParameterSource select = new MapSqlParameterSource()
+            .addValue("statuses", AppointmentArchive.ARCHIVED_STATUSES.stream().map(Enum::name).toList())
+            .addValue("horizon", Timestamp.valueOf(horizon))
+            .addValue("limit", batchSize);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT id, date_time FROM appointments WHERE status IN (:statuses) AND date_time < :horizon " +
+            "ORDER BY date_time, id LIMIT :limit FOR UPDATE SKIP LOCKED", select);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> ids = rows.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        
+        MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update("INSERT INTO appointments_archive (" + COLUMNS + ") " +
+            "SELECT " + COLUMNS + " FROM appointments WHERE id IN (:ids)", batch);
+        jdbcTemplate.update("DELETE FROM appointments WHERE id IN (:ids)", batch);
+        
+        // Rows come in date order, so the last one is the latest archived
+        Object latest = rows.get(rows.size() - 1).get("date_time");
+        appointmentArchive.recordArchived(latest instanceof LocalDateTime dateTime
+            ? dateTime : ((Timestamp) latest).toLocalDateTime());
+        return ids.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.booking.appointments;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An appointment as returned by delta sync, with the change time its sync position is based on
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class AppointmentChange extends AppointmentDto {
+    private LocalDateTime updatedAt;
+    
+    public AppointmentChange(LocalDateTime updatedAt, Long id, Long customerId, String customerName, String customerEmail,
+                             Long businessId, String businessName, Long serviceId, String serviceName,
+                             Integer serviceDuration, LocalDateTime dateTime, LocalDateTime endTime,
+                             AppointmentStatus status, LocalDateTime createdAt) {
+        super(id, customerId, customerName, customerEmail, businessId, businessName, serviceId, serviceName,
+            serviceDuration, dateTime, endTime, status, createdAt);
+        this.updatedAt = updatedAt;
+    }
+}
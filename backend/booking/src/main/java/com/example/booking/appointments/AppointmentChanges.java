@@ -0,0 +1,23 @@
+package com.example.booking.appointments;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChanges {
+    // Appointments created or modified since the token, in change order
+    private List<AppointmentChange> updated;
+    // IDs of appointments deleted since the token
+    private List<Long> deleted;
+    // Token to send as 'since' on the next sync
+    private String next;
+    // More changes are waiting; fetch again right away with 'next'
+    private boolean hasMore;
+    // The token was too old to be served incrementally: drop local state and apply this response as a full sync
+    private boolean reset;
+}
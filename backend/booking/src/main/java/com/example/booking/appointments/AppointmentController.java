@@ -1,14 +1,21 @@
 package com.example.booking.appointments;
 
+import com.example.booking.events.AppointmentStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,9 +24,21 @@ import java.util.List;
 public class AppointmentController {
     
     private final AppointmentService appointmentService;
+    private final AppointmentExportService appointmentExportService;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentSyncService appointmentSyncService;
+    private final AppointmentStreamHub appointmentStreamHub;
     
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService,
+                                 AppointmentExportService appointmentExportService,
+                                 SlotHoldService slotHoldService,
+                                 AppointmentSyncService appointmentSyncService,
+                                 AppointmentStreamHub appointmentStreamHub) {
         this.appointmentService = appointmentService;
+        this.appointmentExportService = appointmentExportService;
+        this.slotHoldService = slotHoldService;
+        this.appointmentSyncService = appointmentSyncService;
+        this.appointmentStreamHub = appointmentStreamHub;
     }
     
     @PostMapping
@@ -31,6 +50,25 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(appointment);
     }
     
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @Operation(summary = "Hold a slot", 
+               description = "Reserves the interval of a service at a business for the current customer for a few minutes, so it can be booked with the returned hold ID. Only users with CUSTOMER role can hold slots.")
+    public ResponseEntity<SlotHoldDto> createHold(@Valid @RequestBody CreateSlotHoldRequest request) {
+        SlotHoldDto hold = slotHoldService.createHold(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+    
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @Operation(summary = "Release a slot hold", 
+               description = "Releases a hold of the current customer before it expires.")
+    public ResponseEntity<Void> releaseHold(
+            @Parameter(description = "Hold ID", required = true) @PathVariable String holdId) {
+        slotHoldService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get appointment by ID", 
                description = "Retrieves an appointment by its unique identifier. Accessible to the customer who booked it and the business owner.")
@@ -43,48 +81,107 @@ public class AppointmentController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all appointments", 
-               description = "Retrieves a list of all appointments. Admin only.")
-    public ResponseEntity<List<AppointmentDto>> getAllAppointments() {
-        List<AppointmentDto> appointments = appointmentService.getAllAppointments();
+               description = "Retrieves a page of all appointments ordered by date and time. Admin only.")
+    public ResponseEntity<AppointmentPage> getAllAppointments(
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        AppointmentPage appointments = appointmentService.getAllAppointments(cursor, limit);
         return ResponseEntity.ok(appointments);
     }
     
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'BUSINESS')")
+    @Operation(summary = "Export appointments", 
+               description = "Streams appointments as NDJSON or CSV in date order. Admins export all appointments, business owners the appointments of their businesses.")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Earliest appointment date and time (inclusive)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Latest appointment date and time (exclusive)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        StreamingResponseBody body = appointmentExportService.exportAppointments(exportFormat, from, to);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments." + exportFormat.getExtension() + "\"")
+            .body(body);
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get appointment changes", 
+               description = "Delta sync: returns the caller's appointments created or modified since a sync token, and the IDs of appointments deleted since then. Omit the token for a full sync and send back 'next' on the following call.")
+    public ResponseEntity<AppointmentChanges> getAppointmentChanges(
+            @Parameter(description = "Token returned as 'next' by the previous sync") @RequestParam(required = false) String since,
+            @Parameter(description = "Maximum number of changed appointments (max 500)") @RequestParam(defaultValue = "500") int limit) {
+        AppointmentChanges changes = appointmentSyncService.getChanges(since, limit);
+        return ResponseEntity.ok(changes);
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Stream appointment changes", 
+               description = "Server-Sent Events stream of CREATED, STATUS_CHANGED and DELETED events for the appointments of the caller's businesses. Events are hints to refresh: clients should fetch /changes on each event and after reconnecting.")
+    public SseEmitter streamAppointmentChanges() {
+        return appointmentStreamHub.subscribe();
+    }
+    
     @GetMapping("/my")
     @PreAuthorize("hasRole('CUSTOMER')")
     @Operation(summary = "Get my appointments", 
-               description = "Retrieves all appointments for the authenticated customer")
-    public ResponseEntity<List<AppointmentDto>> getMyAppointments() {
-        List<AppointmentDto> appointments = appointmentService.getMyAppointments();
+               description = "Retrieves a page of appointments for the authenticated customer")
+    public ResponseEntity<AppointmentPage> getMyAppointments(
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        AppointmentPage appointments = appointmentService.getMyAppointments(cursor, limit);
         return ResponseEntity.ok(appointments);
     }
     
     @GetMapping("/my-business")
     @PreAuthorize("hasRole('BUSINESS')")
     @Operation(summary = "Get my business appointments", 
-               description = "Retrieves all appointments for the authenticated business owner's businesses")
-    public ResponseEntity<List<AppointmentDto>> getMyBusinessAppointments() {
-        List<AppointmentDto> appointments = appointmentService.getMyBusinessAppointments();
+               description = "Retrieves a page of appointments for the authenticated business owner's businesses")
+    public ResponseEntity<AppointmentPage> getMyBusinessAppointments(
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        AppointmentPage appointments = appointmentService.getMyBusinessAppointments(cursor, limit);
         return ResponseEntity.ok(appointments);
     }
     
     @GetMapping("/business/{businessId}")
     @Operation(summary = "Get appointments by business", 
-               description = "Retrieves all appointments for a specific business. Accessible to all authenticated users.")
-    public ResponseEntity<List<AppointmentDto>> getAppointmentsByBusinessId(
-            @Parameter(description = "Business ID", required = true) @PathVariable Long businessId) {
-        List<AppointmentDto> appointments = appointmentService.getAppointmentsByBusinessId(businessId);
+               description = "Retrieves a page of appointments for a specific business. Accessible to all authenticated users.")
+    public ResponseEntity<AppointmentPage> getAppointmentsByBusinessId(
+            @Parameter(description = "Business ID", required = true) @PathVariable Long businessId,
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        AppointmentPage appointments = appointmentService.getAppointmentsByBusinessId(businessId, cursor, limit);
         return ResponseEntity.ok(appointments);
     }
     
     @GetMapping("/status/{status}")
     @Operation(summary = "Get appointments by status", 
-               description = "Retrieves appointments filtered by status. Customers see their own, business owners see their business appointments.")
-    public ResponseEntity<List<AppointmentDto>> getAppointmentsByStatus(
-            @Parameter(description = "Appointment status", required = true) @PathVariable AppointmentStatus status) {
-        List<AppointmentDto> appointments = appointmentService.getAppointmentsByStatus(status);
+               description = "Retrieves a page of appointments filtered by status, optionally within a date window. Customers see their own, business owners see their business appointments.")
+    public ResponseEntity<AppointmentPage> getAppointmentsByStatus(
+            @Parameter(description = "Appointment status", required = true) @PathVariable AppointmentStatus status,
+            @Parameter(description = "Earliest appointment date and time (inclusive)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Latest appointment date and time (exclusive)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor returned as 'next' by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        AppointmentPage appointments = appointmentService.getAppointmentsByStatus(status, from, to, cursor, limit);
         return ResponseEntity.ok(appointments);
     }
     
+    @GetMapping("/lock-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get booking lock metrics", 
+               description = "Returns wait time and queue depth for every booking lock stripe. Admin only.")
+    public ResponseEntity<List<BookingLockStripeStats>> getBookingLockStats() {
+        List<BookingLockStripeStats> stats = appointmentService.getBookingLockStats();
+        return ResponseEntity.ok(stats);
+    }
+    
     @PatchMapping("/{id}/status")
     @Operation(summary = "Update appointment status", 
                description = "Updates appointment status. Business owners can confirm/cancel/mark as done. Customers can only cancel their own appointments.")
@@ -95,6 +192,16 @@ public class AppointmentController {
         return ResponseEntity.ok(appointment);
     }
     
+    @PatchMapping("/status:bulk")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Update the status of many appointments", 
+               description = "Applies one status to up to 100 appointments of the business owner's businesses in a single transaction and returns a result per appointment ID.")
+    public ResponseEntity<List<BulkStatusResult>> bulkUpdateAppointmentStatus(
+            @Valid @RequestBody BulkUpdateAppointmentStatusRequest request) {
+        List<BulkStatusResult> results = appointmentService.bulkUpdateAppointmentStatus(request);
+        return ResponseEntity.ok(results);
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete appointment", 
                description = "Deletes an appointment. Customers can delete their own appointments. Business owners can delete appointments for their businesses.")
@@ -0,0 +1,59 @@
+package com.example.booking.appointments;
+
+import com.example.booking.exceptions.BadRequestException;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in an appointment listing ordered by (dateTime, id).
+ * Clients receive it as an opaque base64 token and send it back to get the next page.
+ */
+@Data
+public class AppointmentCursor {
+    
+    // Position before every appointment; TIMESTAMP columns cannot hold earlier values
+    public static final AppointmentCursor START = new AppointmentCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    
+    // Upper bound used when a listing has no end date
+    public static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
+    private final LocalDateTime dateTime;
+    private final Long id;
+    
+    public static AppointmentCursor after(AppointmentDto appointment) {
+        return new AppointmentCursor(appointment.getDateTime(), appointment.getId());
+    }
+    
+    // Move the cursor up to the start of a date window; a cursor already inside the window is kept
+    public AppointmentCursor notBefore(LocalDateTime from) {
+        if (from == null || !dateTime.isBefore(from)) {
+            return this;
+        }
+        return new AppointmentCursor(from, 0L);
+    }
+    
+    // Decode a client cursor; a missing cursor means the first page
+    public static AppointmentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new AppointmentCursor(
+                LocalDateTime.parse(decoded.substring(0, separator)),
+                Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = dateTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.booking.appointments;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class AppointmentDto {
     private Long id;
     private Long customerId;
@@ -16,6 +20,7 @@ public class AppointmentDto {
     private String serviceName;
     private Integer serviceDuration;
     private LocalDateTime dateTime;
+    private LocalDateTime endTime;
     private AppointmentStatus status;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,98 @@
+package com.example.booking.appointments;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.users.UserRole;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+public class AppointmentExportService {
+    
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final AppointmentArchive appointmentArchive;
+    private final AppointmentExportWriter appointmentExportWriter;
+    private final AuthenticationHelper authenticationHelper;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public AppointmentExportService(AppointmentRepository appointmentRepository,
+                                    ArchivedAppointmentRepository archivedAppointmentRepository,
+                                    AppointmentArchive appointmentArchive,
+                                    AppointmentExportWriter appointmentExportWriter,
+                                    AuthenticationHelper authenticationHelper,
+                                    PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.appointmentArchive = appointmentArchive;
+        this.appointmentExportWriter = appointmentExportWriter;
+        this.authenticationHelper = authenticationHelper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    // Export appointments in [from, to) - Admins export everything, business owners their own businesses
+    public StreamingResponseBody exportAppointments(ExportFormat format, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        
+        // Resolve the caller on the request thread; the body is written later on an async thread
+        UserRole role = authenticationHelper.getCurrentUserRole();
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        if (role != UserRole.ADMIN && role != UserRole.BUSINESS) {
+            throw new ForbiddenException("Only admins and business owners can export appointments");
+        }
+        
+        LocalDateTime start = from != null ? from : AppointmentCursor.START.getDateTime();
+        LocalDateTime end = to != null ? to : AppointmentCursor.END_OF_TIME;
+        boolean archived = appointmentArchive.reaches(start);
+        
+        // The streams hold open result sets, so they are consumed inside their own read-only transaction.
+        // MySQL allows one streaming result set per connection at a time, so archived rows are written first
+        // and the live table is only queried once the archive stream is exhausted
+        return outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            Supplier<Stream<AppointmentDto>> live = () -> role == UserRole.ADMIN
+                ? appointmentRepository.streamByDateTimeRange(start, end)
+                : appointmentRepository.streamByBusinessOwnerIdAndDateTimeRange(currentUserId, start, end);
+            Supplier<Stream<AppointmentDto>> cold = () -> role == UserRole.ADMIN
+                ? archivedAppointmentRepository.streamByDateTimeRange(start, end)
+                : archivedAppointmentRepository.streamByBusinessOwnerIdAndDateTimeRange(currentUserId, start, end);
+            try (Stream<AppointmentDto> rows = archived
+                    ? Stream.concat(cold.get(), deferred(live))
+                    : live.get()) {
+                appointmentExportWriter.write(rows, format, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    // A stream whose query only runs when the first row is pulled; flatMap would buffer the whole inner stream
+    private static <T> Stream<T> deferred(Supplier<Stream<T>> query) {
+        AtomicReference<Stream<T>> opened = new AtomicReference<>();
+        Supplier<Spliterator<T>> open = () -> {
+            Stream<T> stream = query.get();
+            opened.set(stream);
+            return stream.spliterator();
+        };
+        return StreamSupport.stream(open, Spliterator.ORDERED, false).onClose(() -> {
+            Stream<T> stream = opened.get();
+            if (stream != null) {
+                stream.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.booking.appointments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes appointments to an output stream one row at a time.
+ * Only the current row and a fixed-size write buffer are held in memory.
+ */
+@Component
+public class AppointmentExportWriter {
+    
+    // Push rows to the client in chunks instead of only when the buffer happens to fill
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+    
+    private static final String CSV_HEADER = "id,customerId,customerName,customerEmail,businessId,businessName," +
+        "serviceId,serviceName,serviceDuration,dateTime,endTime,status,createdAt";
+    
+    private final ObjectMapper objectMapper;
+    
+    public AppointmentExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    // Write every row of the stream and return how many were written
+    public long write(Stream<AppointmentDto> rows, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        long count = 0;
+        Iterator<AppointmentDto> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            AppointmentDto row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(writer, row);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+    
+    private void writeCsvRow(Writer writer, AppointmentDto row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getCustomerId()));
+        writer.write(',');
+        writeCsvText(writer, row.getCustomerName());
+        writer.write(',');
+        writeCsvText(writer, row.getCustomerEmail());
+        writer.write(',');
+        writer.write(String.valueOf(row.getBusinessId()));
+        writer.write(',');
+        writeCsvText(writer, row.getBusinessName());
+        writer.write(',');
+        writer.write(String.valueOf(row.getServiceId()));
+        writer.write(',');
+        writeCsvText(writer, row.getServiceName());
+        writer.write(',');
+        writeCsvValue(writer, row.getServiceDuration());
+        writer.write(',');
+        writeCsvValue(writer, row.getDateTime());
+        writer.write(',');
+        writeCsvValue(writer, row.getEndTime());
+        writer.write(',');
+        writeCsvValue(writer, row.getStatus());
+        writer.write(',');
+        writeCsvValue(writer, row.getCreatedAt());
+        writer.write('\n');
+    }
+    
+    private void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+    
+    // Quote text fields that contain separators, quotes or line breaks (RFC 4180)
+    private void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -20,7 +20,10 @@ public interface AppointmentMapper {
     @Mapping(target = "customer", ignore = true)
     @Mapping(target = "business", ignore = true)
     @Mapping(target = "service", ignore = true)
+    @Mapping(target = "endTime", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Appointment toEntity(CreateAppointmentRequest request);
 }
@@ -0,0 +1,16 @@
+package com.example.booking.appointments;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPage {
+    private List<AppointmentDto> items;
+    // Cursor of the next page, null on the last page
+    private String next;
+}
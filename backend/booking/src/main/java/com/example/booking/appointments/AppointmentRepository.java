@@ -1,49 +1,240 @@
 package com.example.booking.appointments;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
-    // Get appointments by customer
-    List<Appointment> findByCustomerId(Long customerId);
+    // Read-only listings select exactly the AppointmentDto columns in one joined query instead of
+    // hydrating appointments and lazily loading customer, business and service for each row
+    String DTO_SELECT = "SELECT new com.example.booking.appointments.AppointmentDto(" +
+        "a.id, c.id, c.name, c.email, b.id, b.name, s.id, s.name, s.durationMinutes, " +
+        "a.dateTime, a.endTime, a.status, a.createdAt) " +
+        "FROM Appointment a JOIN a.customer c JOIN a.business b JOIN a.service s ";
     
-    // Get appointments by business
-    List<Appointment> findByBusinessId(Long businessId);
+    // Keyset condition: strictly after the cursor position in (dateTime, id) order
+    String AFTER_CURSOR = "(a.dateTime > :afterDateTime OR (a.dateTime = :afterDateTime AND a.id > :afterId))";
+    String CURSOR_ORDER = " ORDER BY a.dateTime, a.id";
     
-    // Get appointments by business owner
-    @Query("SELECT a FROM Appointment a WHERE a.business.owner.id = :ownerId")
-    List<Appointment> findByBusinessOwnerId(@Param("ownerId") Long ownerId);
+    // Delta sync reads appointments in (updatedAt, id) order, after the client's last sync position
+    String CHANGE_SELECT = "SELECT new com.example.booking.appointments.AppointmentChange(a.updatedAt, " +
+        "a.id, c.id, c.name, c.email, b.id, b.name, s.id, s.name, s.durationMinutes, " +
+        "a.dateTime, a.endTime, a.status, a.createdAt) " +
+        "FROM Appointment a JOIN a.customer c JOIN a.business b JOIN a.service s ";
+    String CHANGED_AFTER = "(a.updatedAt > :sinceTime OR (a.updatedAt = :sinceTime AND a.id > :sinceId))";
+    String CHANGE_ORDER = " ORDER BY a.updatedAt, a.id";
     
-    // Get appointments by status
-    List<Appointment> findByStatus(AppointmentStatus status);
+    // Page of all appointments
+    @Query(DTO_SELECT + "WHERE " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPage(
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of appointments by customer
+    @Query(DTO_SELECT + "WHERE c.id = :customerId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByCustomerId(
+        @Param("customerId") Long customerId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of appointments by business
+    @Query(DTO_SELECT + "WHERE b.id = :businessId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByBusinessId(
+        @Param("businessId") Long businessId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of appointments by business owner
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByBusinessOwnerId(
+        @Param("ownerId") Long ownerId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of appointments by status before a date
+    @Query(DTO_SELECT + "WHERE a.status = :status AND a.dateTime < :before AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByStatus(
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
     
-    // Get appointments by customer and status
-    List<Appointment> findByCustomerIdAndStatus(Long customerId, AppointmentStatus status);
+    // Page of appointments by customer and status before a date
+    @Query(DTO_SELECT + "WHERE c.id = :customerId AND a.status = :status AND a.dateTime < :before AND " 
+           + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByCustomerIdAndStatus(
+        @Param("customerId") Long customerId,
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
+    
+    // Page of appointments by business owner and status before a date, served by the (business_id, status, date_time) index
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND a.status = :status AND a.dateTime < :before AND " 
+           + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findByBusinessOwnerIdAndStatus(
+        @Param("ownerId") Long ownerId,
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
+    
+    // Appointments changed after a sync position
+    @Query(CHANGE_SELECT + "WHERE " + CHANGED_AFTER + CHANGE_ORDER)
+    List<AppointmentChange> findChanges(
+        @Param("sinceTime") LocalDateTime sinceTime,
+        @Param("sinceId") Long sinceId,
+        Limit limit
+    );
+    
+    // Appointments of a customer changed after a sync position, served by the (customer_id, updated_at) index
+    @Query(CHANGE_SELECT + "WHERE c.id = :customerId AND " + CHANGED_AFTER + CHANGE_ORDER)
+    List<AppointmentChange> findChangesByCustomerId(
+        @Param("customerId") Long customerId,
+        @Param("sinceTime") LocalDateTime sinceTime,
+        @Param("sinceId") Long sinceId,
+        Limit limit
+    );
+    
+    // Appointments of an owner's businesses changed after a sync position, served by the (business_id, updated_at) index
+    @Query(CHANGE_SELECT + "WHERE b.owner.id = :ownerId AND " + CHANGED_AFTER + CHANGE_ORDER)
+    List<AppointmentChange> findChangesByBusinessOwnerId(
+        @Param("ownerId") Long ownerId,
+        @Param("sinceTime") LocalDateTime sinceTime,
+        @Param("sinceId") Long sinceId,
+        Limit limit
+    );
     
     // Get appointments by business and status
     List<Appointment> findByBusinessIdAndStatus(Long businessId, AppointmentStatus status);
     
-    // Get appointments within a date range for a business
-    @Query("SELECT a FROM Appointment a WHERE a.business.id = :businessId AND a.dateTime BETWEEN :startDate AND :endDate")
-    List<Appointment> findByBusinessIdAndDateTimeBetween(
+    // Get appointments of a business that overlap [startDate, endDate)
+    // earliestStart (startDate minus the longest appointment) bounds the (business_id, date_time, end_time) index range
+    @Query(DTO_SELECT + "WHERE b.id = :businessId " +
+           "AND a.dateTime >= :earliestStart AND a.dateTime < :endDate AND a.endTime > :startDate")
+    List<AppointmentDto> findByBusinessIdAndDateTimeBetween(
         @Param("businessId") Long businessId, 
+        @Param("earliestStart") LocalDateTime earliestStart,
         @Param("startDate") LocalDateTime startDate, 
         @Param("endDate") LocalDateTime endDate
     );
     
-    // Check if appointment time slot is available
-    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.business.id = :businessId AND a.dateTime = :dateTime AND a.status NOT IN ('CANCELLED')")
-    boolean existsByBusinessIdAndDateTimeAndStatusNotCancelled(
-        @Param("businessId") Long businessId, 
-        @Param("dateTime") LocalDateTime dateTime
+    // Non-cancelled booked intervals of a business that overlap [startDate, endDate), without hydrating the entities
+    @Query("SELECT new com.example.booking.appointments.BookedInterval(a.dateTime, a.endTime) FROM Appointment a " +
+           "WHERE a.business.id = :businessId AND a.dateTime >= :earliestStart AND a.dateTime < :endDate " +
+           "AND a.endTime > :startDate AND a.status <> 'CANCELLED'")
+    List<BookedInterval> findBookedIntervals(
+        @Param("businessId") Long businessId,
+        @Param("earliestStart") LocalDateTime earliestStart,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // ID of a non-cancelled appointment of a business overlapping [startDate, endDate), if any. A locking read
+    // (FOR SHARE) sees bookings committed after the transaction's snapshot was taken, such as one that committed
+    // while the caller waited for the business lock
+    @Query(value = "SELECT id FROM appointments " +
+                   "WHERE business_id = :businessId AND date_time >= :earliestStart AND date_time < :endDate " +
+                   "AND end_time > :startDate AND status <> 'CANCELLED' LIMIT 1 FOR SHARE",
+           nativeQuery = true)
+    List<Long> findOverlappingAppointmentIdForShare(
+        @Param("businessId") Long businessId,
+        @Param("earliestStart") LocalDateTime earliestStart,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Check if a non-cancelled appointment of a business overlaps [startDate, endDate), with a locking read
+    default boolean existsOverlappingAppointment(Long businessId, LocalDateTime earliestStart,
+                                                 LocalDateTime startDate, LocalDateTime endDate) {
+        return !findOverlappingAppointmentIdForShare(businessId, earliestStart, startDate, endDate).isEmpty();
+    }
+    
+    // Stream appointments in [from, before) for export; MySQL only streams row by row with fetch size Integer.MIN_VALUE
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE a.dateTime >= :from AND a.dateTime < :before" + CURSOR_ORDER)
+    Stream<AppointmentDto> streamByDateTimeRange(
+        @Param("from") LocalDateTime from,
+        @Param("before") LocalDateTime before
+    );
+    
+    // Stream the appointments of an owner's businesses in [from, before) for export
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND a.dateTime >= :from AND a.dateTime < :before" + CURSOR_ORDER)
+    Stream<AppointmentDto> streamByBusinessOwnerIdAndDateTimeRange(
+        @Param("ownerId") Long ownerId,
+        @Param("from") LocalDateTime from,
+        @Param("before") LocalDateTime before
+    );
+    
+    // Appointments with a status starting in [from, before), served by the (status, date_time) index
+    @Query(DTO_SELECT + "WHERE a.status = :status AND a.dateTime >= :from AND a.dateTime < :before" + CURSOR_ORDER)
+    List<AppointmentDto> findByStatusAndDateTimeRange(
+        @Param("status") AppointmentStatus status,
+        @Param("from") LocalDateTime from,
+        @Param("before") LocalDateTime before
     );
     
+    // Get one appointment as a DTO
+    @Query(DTO_SELECT + "WHERE a.id = :id")
+    Optional<AppointmentDto> findDtoById(@Param("id") Long id);
+    
+    // Check whether an appointment belongs to one of the owner's businesses
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.id = :id AND a.business.owner.id = :ownerId")
+    boolean existsByIdAndBusinessOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+    
+    // Appointments among the given IDs that belong to one of the owner's businesses
+    @Query(DTO_SELECT + "WHERE a.id IN :ids AND b.owner.id = :ownerId")
+    List<AppointmentDto> findDtosByIdInAndBusinessOwnerId(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId);
+    
+    // Set the status of the given appointments still in one of fromStatuses, bumping their versions like an entity update
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.version = a.version + 1 " +
+           "WHERE a.id IN :ids AND a.status IN :fromStatuses")
+    int updateStatusByIdInAndStatusIn(
+        @Param("ids") Collection<Long> ids,
+        @Param("fromStatuses") Collection<AppointmentStatus> fromStatuses,
+        @Param("status") AppointmentStatus status
+    );
+    
+    // Lock the given appointments that are currently in one of the statuses (names) and return their IDs; rows are
+    // locked in ID order and read as committed, not from the transaction's snapshot
+    @Query(value = "SELECT id FROM appointments WHERE id IN :ids AND status IN :statuses ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockIdsByIdInAndStatusIn(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<String> statuses);
+    
     // Find appointment by ID and customer ID (for customer ownership validation)
     Optional<Appointment> findByIdAndCustomerId(Long id, Long customerId);
     
@@ -1,42 +1,96 @@
 package com.example.booking.appointments;
 
 import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.availability.DayCapacityStore;
+import com.example.booking.availability.OccupancyCalendarCache;
 import com.example.booking.businesses.Business;
 import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.events.AppointmentEventType;
+import com.example.booking.events.AppointmentOutbox;
 import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ConflictException;
 import com.example.booking.exceptions.ForbiddenException;
 import com.example.booking.exceptions.ResourceNotFoundException;
 import com.example.booking.services.ServiceEntity;
 import com.example.booking.services.ServiceRepository;
 import com.example.booking.users.User;
 import com.example.booking.users.UserRole;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class AppointmentService {
     
+    public static final int MAX_PAGE_SIZE = 200;
+    
+    // Statuses a business owner can move an appointment to
+    private static final Set<AppointmentStatus> TRANSITION_TARGETS =
+        Set.of(AppointmentStatus.CONFIRMED, AppointmentStatus.CANCELLED, AppointmentStatus.DONE);
+    
+    // Most appointments one bulk status update may touch
+    public static final int MAX_BULK_STATUS_IDS = 100;
+    
+    // Attempts of a status update that keeps losing version checks before the client gets a 409
+    public static final int STATUS_UPDATE_ATTEMPTS = 3;
+    
     private final AppointmentRepository appointmentRepository;
     private final BusinessRepository businessRepository;
     private final ServiceRepository serviceRepository;
     private final AppointmentMapper appointmentMapper;
     private final AuthenticationHelper authenticationHelper;
+    private final BookingCoordinator bookingCoordinator;
+    private final OccupancyCalendarCache calendarCache;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentOutbox appointmentOutbox;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final AppointmentArchive appointmentArchive;
+    private final AppointmentTombstoneRepository appointmentTombstoneRepository;
+    private final DayCapacityStore dayCapacityStore;
+    private final TransactionTemplate transactionTemplate;
     
     public AppointmentService(AppointmentRepository appointmentRepository,
                              BusinessRepository businessRepository,
                              ServiceRepository serviceRepository,
                              AppointmentMapper appointmentMapper,
-                             AuthenticationHelper authenticationHelper) {
+                             AuthenticationHelper authenticationHelper,
+                             BookingCoordinator bookingCoordinator,
+                             OccupancyCalendarCache calendarCache,
+                             SlotHoldService slotHoldService,
+                             AppointmentOutbox appointmentOutbox,
+                             ArchivedAppointmentRepository archivedAppointmentRepository,
+                             AppointmentArchive appointmentArchive,
+                             AppointmentTombstoneRepository appointmentTombstoneRepository,
+                             DayCapacityStore dayCapacityStore,
+                             PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
         this.businessRepository = businessRepository;
         this.serviceRepository = serviceRepository;
         this.appointmentMapper = appointmentMapper;
         this.authenticationHelper = authenticationHelper;
+        this.bookingCoordinator = bookingCoordinator;
+        this.calendarCache = calendarCache;
+        this.slotHoldService = slotHoldService;
+        this.appointmentOutbox = appointmentOutbox;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.appointmentArchive = appointmentArchive;
+        this.appointmentTombstoneRepository = appointmentTombstoneRepository;
+        this.dayCapacityStore = dayCapacityStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     // Create a new appointment - Only CUSTOMER role can book appointments
@@ -48,8 +102,11 @@ public class AppointmentService {
             throw new ForbiddenException("Only users with CUSTOMER role can book appointments");
         }
         
-        // Get and validate business
-        Business business = businessRepository.findById(request.getBusinessId())
+        // Queue behind other bookings for the same business until this transaction completes
+        bookingCoordinator.lockBusiness(request.getBusinessId());
+        
+        // Get and lock the business so concurrent bookings for it are checked one at a time
+        Business business = businessRepository.findByIdForUpdate(request.getBusinessId())
             .orElseThrow(() -> new ResourceNotFoundException("Business", "id", request.getBusinessId()));
         
         // Get and validate service
@@ -66,110 +123,203 @@ public class AppointmentService {
             throw new BadRequestException("Appointment date and time must be in the future");
         }
         
-        // Check if time slot is already booked
-        if (appointmentRepository.existsByBusinessIdAndDateTimeAndStatusNotCancelled(
-                request.getBusinessId(), request.getDateTime())) {
+        // A hold being converted must be the customer's own and cover exactly this booking
+        SlotHold hold = null;
+        if (request.getHoldId() != null) {
+            hold = slotHoldService.getHold(request.getHoldId(), currentUser.getId());
+            if (!hold.getBusinessId().equals(business.getId()) || !hold.getServiceId().equals(service.getId())
+                    || !hold.getDateTime().equals(request.getDateTime())) {
+                throw new BadRequestException("The slot hold does not match this appointment");
+            }
+        }
+        
+        // Check if the requested interval overlaps an existing booking. This is a locking read: the current user
+        // was read before the lock, so the transaction's snapshot may predate a booking committed while it waited
+        LocalDateTime endTime = request.getDateTime().plusMinutes(service.getDurationMinutes());
+        if (appointmentRepository.existsOverlappingAppointment(business.getId(),
+                request.getDateTime().minusMinutes(Appointment.MAX_DURATION_MINUTES), request.getDateTime(), endTime)) {
             throw new BadRequestException("This time slot is already booked");
         }
         
+        // Check if another customer is holding the interval
+        if (slotHoldService.isHeldByOthers(business.getId(), request.getDateTime(), endTime, currentUser.getId())) {
+            throw new BadRequestException("This time slot is currently held by another customer");
+        }
+        
         Appointment appointment = appointmentMapper.toEntity(request);
         appointment.setCustomer(currentUser);
         appointment.setBusiness(business);
         appointment.setService(service);
+        appointment.setEndTime(endTime);
         appointment.setStatus(AppointmentStatus.PENDING);
         
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        appointmentOutbox.append(AppointmentEventType.CREATED, savedAppointment);
+        dayCapacityStore.book(business.getId(), savedAppointment.getDateTime(), endTime);
+        calendarCache.evict(business.getId());
+        if (hold != null) {
+            slotHoldService.remove(hold);
+        }
         return appointmentMapper.toDto(savedAppointment);
     }
     
     // Get appointment by ID - Accessible to customer and business owner
+    @Transactional(readOnly = true)
     public AppointmentDto getAppointmentById(Long id) {
-        User currentUser = authenticationHelper.getCurrentUser();
-        Appointment appointment = appointmentRepository.findById(id)
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        AppointmentDto live = appointmentRepository.findDtoById(id).orElse(null);
+        
+        // Fall back to the archive for finished appointments that have been moved out of the live table
+        AppointmentDto appointment = live != null ? live : archivedAppointmentRepository.findDtoById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Appointment", "id", id));
         
         // Check if user has access to this appointment
-        boolean isCustomer = appointment.getCustomer().getId().equals(currentUser.getId());
-        boolean isBusinessOwner = appointment.getBusiness().getOwner().getId().equals(currentUser.getId());
+        boolean isCustomer = appointment.getCustomerId().equals(currentUserId);
+        boolean isBusinessOwner = live != null
+            ? appointmentRepository.existsByIdAndBusinessOwnerId(id, currentUserId)
+            : archivedAppointmentRepository.existsByIdAndBusinessOwnerId(id, currentUserId);
         
-        if (!isCustomer && !isBusinessOwner && currentUser.getRole() != UserRole.ADMIN) {
+        if (!isCustomer && authenticationHelper.getCurrentUserRole() != UserRole.ADMIN && !isBusinessOwner) {
             throw new ForbiddenException("You don't have permission to view this appointment");
         }
         
-        return appointmentMapper.toDto(appointment);
+        return appointment;
     }
     
     // Get all appointments - Admin only
-    public List<AppointmentDto> getAllAppointments() {
-        User currentUser = authenticationHelper.getCurrentUser();
-        
-        if (currentUser.getRole() != UserRole.ADMIN) {
+    @Transactional(readOnly = true)
+    public AppointmentPage getAllAppointments(String cursor, int limit) {
+        if (authenticationHelper.getCurrentUserRole() != UserRole.ADMIN) {
             throw new ForbiddenException("Only admins can view all appointments");
         }
         
-        List<Appointment> appointments = appointmentRepository.findAll();
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        List<AppointmentDto> appointments = appointmentRepository.findPage(
+            after.getDateTime(), after.getId(), Limit.of(pageSize + 1));
+        if (appointmentArchive.reaches(after.getDateTime())) {
+            appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPage(
+                after.getDateTime(), after.getId(), Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(appointments, pageSize);
     }
     
     // Get appointments for current user (customer's appointments)
-    public List<AppointmentDto> getMyAppointments() {
+    @Transactional(readOnly = true)
+    public AppointmentPage getMyAppointments(String cursor, int limit) {
         Long currentUserId = authenticationHelper.getCurrentUserId();
-        List<Appointment> appointments = appointmentRepository.findByCustomerId(currentUserId);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        List<AppointmentDto> appointments = appointmentRepository.findPageByCustomerId(
+            currentUserId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1));
+        if (appointmentArchive.reaches(after.getDateTime())) {
+            appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPageByCustomerId(
+                currentUserId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(appointments, pageSize);
     }
     
     // Get appointments for current user's businesses (business owner's appointments)
-    public List<AppointmentDto> getMyBusinessAppointments() {
-        User currentUser = authenticationHelper.getCurrentUser();
-        
-        if (currentUser.getRole() != UserRole.BUSINESS) {
+    @Transactional(readOnly = true)
+    public AppointmentPage getMyBusinessAppointments(String cursor, int limit) {
+        if (authenticationHelper.getCurrentUserRole() != UserRole.BUSINESS) {
             throw new ForbiddenException("Only business owners can view business appointments");
         }
         
         Long currentUserId = authenticationHelper.getCurrentUserId();
-        List<Appointment> appointments = appointmentRepository.findByBusinessOwnerId(currentUserId);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        List<AppointmentDto> appointments = appointmentRepository.findPageByBusinessOwnerId(
+            currentUserId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1));
+        if (appointmentArchive.reaches(after.getDateTime())) {
+            appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPageByBusinessOwnerId(
+                currentUserId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(appointments, pageSize);
     }
     
     // Get appointments by business ID - Accessible to all authenticated users
-    public List<AppointmentDto> getAppointmentsByBusinessId(Long businessId) {
-        List<Appointment> appointments = appointmentRepository.findByBusinessId(businessId);
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public AppointmentPage getAppointmentsByBusinessId(Long businessId, String cursor, int limit) {
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        List<AppointmentDto> appointments = appointmentRepository.findPageByBusinessId(
+            businessId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1));
+        if (appointmentArchive.reaches(after.getDateTime())) {
+            appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPageByBusinessId(
+                businessId, after.getDateTime(), after.getId(), Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(appointments, pageSize);
     }
     
-    // Get appointments by status
-    public List<AppointmentDto> getAppointmentsByStatus(AppointmentStatus status) {
-        User currentUser = authenticationHelper.getCurrentUser();
-        List<Appointment> appointments;
-        
-        if (currentUser.getRole() == UserRole.CUSTOMER) {
-            appointments = appointmentRepository.findByCustomerIdAndStatus(currentUser.getId(), status);
-        } else if (currentUser.getRole() == UserRole.BUSINESS) {
-            appointments = appointmentRepository.findByBusinessOwnerId(currentUser.getId())
-                .stream()
-                .filter(a -> a.getStatus() == status)
-                .collect(Collectors.toList());
+    // Get appointments by status, optionally within the date window [from, to)
+    @Transactional(readOnly = true)
+    public AppointmentPage getAppointmentsByStatus(AppointmentStatus status, LocalDateTime from, LocalDateTime to,
+                                                   String cursor, int limit) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        UserRole role = authenticationHelper.getCurrentUserRole();
+        AppointmentCursor after = AppointmentCursor.decode(cursor).notBefore(from);
+        LocalDateTime before = to != null ? to : AppointmentCursor.END_OF_TIME;
+        int pageSize = pageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        boolean archived = appointmentArchive.reaches(status, after.getDateTime());
+        List<AppointmentDto> appointments;
+        
+        if (role == UserRole.CUSTOMER) {
+            appointments = appointmentRepository.findPageByCustomerIdAndStatus(
+                currentUserId, status, after.getDateTime(), after.getId(), before, fetch);
+            if (archived) {
+                appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPageByCustomerIdAndStatus(
+                    currentUserId, status, after.getDateTime(), after.getId(), before, fetch), pageSize + 1);
+            }
+        } else if (role == UserRole.BUSINESS) {
+            appointments = appointmentRepository.findByBusinessOwnerIdAndStatus(
+                currentUserId, status, after.getDateTime(), after.getId(), before, fetch);
+            if (archived) {
+                appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findByBusinessOwnerIdAndStatus(
+                    currentUserId, status, after.getDateTime(), after.getId(), before, fetch), pageSize + 1);
+            }
         } else {
-            appointments = appointmentRepository.findByStatus(status);
+            appointments = appointmentRepository.findPageByStatus(
+                status, after.getDateTime(), after.getId(), before, fetch);
+            if (archived) {
+                appointments = AppointmentArchive.merge(appointments, archivedAppointmentRepository.findPageByStatus(
+                    status, after.getDateTime(), after.getId(), before, fetch), pageSize + 1);
+            }
         }
         
-        return appointments.stream()
-            .map(appointmentMapper::toDto)
-            .collect(Collectors.toList());
+        return toPage(appointments, pageSize);
     }
     
-    // Update appointment status - Business owner can confirm/cancel, customer can cancel
+    // Update appointment status - Business owner can confirm/cancel, customer can cancel.
+    // Each attempt runs in its own transaction, so a version conflict is retried against the state that won
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AppointmentDto updateAppointmentStatus(Long id, UpdateAppointmentStatusRequest request) {
         User currentUser = authenticationHelper.getCurrentUser();
         
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyStatus(id, request.getStatus(), currentUser));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= STATUS_UPDATE_ATTEMPTS) {
+                    throw new ConflictException("Appointment " + id + " is being updated concurrently, please try again");
+                }
+            } catch (BadRequestException e) {
+                // The transition was valid when first tried; the concurrent change that won made it invalid
+                if (attempt > 1) {
+                    throw new ConflictException(e.getMessage());
+                }
+                throw e;
+            }
+        }
+    }
+    
+    // One attempt of a status transition; the version check on flush rejects it if the appointment changed since it was read
+    private AppointmentDto applyStatus(Long id, AppointmentStatus newStatus, User currentUser) {
         Appointment appointment = appointmentRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Appointment", "id", id));
         
@@ -179,20 +329,25 @@ public class AppointmentService {
         // Validate permissions based on role and requested status
         if (isCustomer) {
             // Customer can only cancel their own appointments
-            if (request.getStatus() != AppointmentStatus.CANCELLED) {
+            if (newStatus != AppointmentStatus.CANCELLED) {
                 throw new ForbiddenException("Customers can only cancel appointments");
             }
         } else if (isBusinessOwner) {
             // Business owner can confirm, cancel, or mark as done
-            if (request.getStatus() != AppointmentStatus.CONFIRMED && 
-                request.getStatus() != AppointmentStatus.CANCELLED && 
-                request.getStatus() != AppointmentStatus.DONE) {
+            if (newStatus != AppointmentStatus.CONFIRMED && 
+                newStatus != AppointmentStatus.CANCELLED && 
+                newStatus != AppointmentStatus.DONE) {
                 throw new BadRequestException("Invalid status update");
             }
         } else {
             throw new ForbiddenException("You don't have permission to update this appointment");
         }
         
+        // Repeating a transition that already happened is a no-op, which keeps retries and double submits harmless
+        if (appointment.getStatus() == newStatus) {
+            return appointmentMapper.toDto(appointment);
+        }
+        
         // Validate status transitions
         if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
             throw new BadRequestException("Cannot update a cancelled appointment");
@@ -202,11 +357,95 @@ public class AppointmentService {
             throw new BadRequestException("Cannot update a completed appointment");
         }
         
-        appointment.setStatus(request.getStatus());
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
+        // A cancellation hands capacity back, so it waits for in-flight bookings of the business like any other write
+        // to its calendar; confirming or completing frees nothing and stays off the booking lock
+        if (newStatus == AppointmentStatus.CANCELLED) {
+            bookingCoordinator.lockBusiness(appointment.getBusiness().getId());
+        }
+        appointment.setStatus(newStatus);
+        Appointment updatedAppointment = appointmentRepository.saveAndFlush(appointment);
+        appointmentOutbox.append(AppointmentEventType.STATUS_CHANGED, updatedAppointment);
+        if (newStatus == AppointmentStatus.CANCELLED) {
+            dayCapacityStore.release(updatedAppointment.getBusiness().getId(), updatedAppointment.getDateTime(),
+                updatedAppointment.getEndTime());
+        }
+        calendarCache.evict(updatedAppointment.getBusiness().getId());
         return appointmentMapper.toDto(updatedAppointment);
     }
     
+    // Apply one status to many appointments of the current owner's businesses in a single transaction:
+    // one query checks ownership and reads current statuses, one locks the rows that can move and one UPDATE
+    // applies every valid transition
+    public List<BulkStatusResult> bulkUpdateAppointmentStatus(BulkUpdateAppointmentStatusRequest request) {
+        if (authenticationHelper.getCurrentUserRole() != UserRole.BUSINESS) {
+            throw new ForbiddenException("Only business owners can update appointments in bulk");
+        }
+        
+        AppointmentStatus target = request.getStatus();
+        if (!TRANSITION_TARGETS.contains(target)) {
+            throw new BadRequestException("Invalid status update");
+        }
+        
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        List<Long> ids = request.getIds().stream().distinct().toList();
+        Map<Long, AppointmentDto> owned = new HashMap<>();
+        for (AppointmentDto appointment : appointmentRepository.findDtosByIdInAndBusinessOwnerId(ids, currentUserId)) {
+            owned.put(appointment.getId(), appointment);
+        }
+        
+        List<Long> candidates = new ArrayList<>();
+        for (AppointmentDto appointment : owned.values()) {
+            if (appointment.getStatus() != target && !appointment.getStatus().isFinal()) {
+                candidates.add(appointment.getId());
+            }
+        }
+        
+        // Lock the candidates still in a status the transition is valid from, so a concurrent change that finished
+        // an appointment in the meantime is left alone and reported as a conflict. The UPDATE then changes exactly
+        // the locked rows, and only they are announced and give their minutes back
+        Set<Long> applied = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            List<AppointmentStatus> fromStatuses = Stream.of(AppointmentStatus.values())
+                .filter(status -> status != target && !status.isFinal())
+                .toList();
+            applied.addAll(appointmentRepository.lockIdsByIdInAndStatusIn(candidates,
+                fromStatuses.stream().map(AppointmentStatus::name).toList()));
+            if (!applied.isEmpty()) {
+                appointmentRepository.updateStatusByIdInAndStatusIn(applied, fromStatuses, target);
+            }
+        }
+        
+        List<BulkStatusResult> results = new ArrayList<>(ids.size());
+        List<AppointmentDto> changed = new ArrayList<>(applied.size());
+        for (Long id : ids) {
+            AppointmentDto appointment = owned.get(id);
+            if (appointment == null) {
+                results.add(new BulkStatusResult(id, BulkStatusOutcome.NOT_FOUND, null,
+                    "Appointment not found for your businesses"));
+            } else if (applied.contains(id)) {
+                appointment.setStatus(target);
+                changed.add(appointment);
+                results.add(new BulkStatusResult(id, BulkStatusOutcome.UPDATED, target, null));
+            } else if (appointment.getStatus() == target) {
+                results.add(new BulkStatusResult(id, BulkStatusOutcome.UNCHANGED, target, null));
+            } else if (appointment.getStatus().isFinal()) {
+                results.add(new BulkStatusResult(id, BulkStatusOutcome.INVALID_TRANSITION, appointment.getStatus(),
+                    appointment.getStatus() == AppointmentStatus.CANCELLED
+                        ? "Cannot update a cancelled appointment" : "Cannot update a completed appointment"));
+            } else {
+                results.add(new BulkStatusResult(id, BulkStatusOutcome.CONFLICT, null,
+                    "Appointment was updated concurrently"));
+            }
+        }
+        
+        appointmentOutbox.appendAll(AppointmentEventType.STATUS_CHANGED, changed);
+        if (target == AppointmentStatus.CANCELLED) {
+            dayCapacityStore.releaseAll(changed);
+        }
+        changed.stream().map(AppointmentDto::getBusinessId).distinct().forEach(calendarCache::evict);
+        return results;
+    }
+    
     // Delete appointment - Customer can delete their own, business owner can delete for their business
     public void deleteAppointment(Long id) {
         User currentUser = authenticationHelper.getCurrentUser();
@@ -222,5 +461,35 @@ public class AppointmentService {
         }
         
         appointmentRepository.delete(appointment);
+        appointmentTombstoneRepository.insert(appointment.getId(), appointment.getCustomer().getId(),
+            appointment.getBusiness().getId());
+        appointmentOutbox.append(AppointmentEventType.DELETED, appointment);
+        if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+            dayCapacityStore.release(appointment.getBusiness().getId(), appointment.getDateTime(), appointment.getEndTime());
+        }
+        calendarCache.evict(appointment.getBusiness().getId());
+    }
+    
+    // Clamp a requested page size to [1, MAX_PAGE_SIZE]
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+    }
+    
+    // Rows were fetched with one extra element; its presence means there is a next page
+    private AppointmentPage toPage(List<AppointmentDto> rows, int pageSize) {
+        List<AppointmentDto> items = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String next = rows.size() > pageSize ? AppointmentCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new AppointmentPage(items, next);
+    }
+    
+    // Get wait time and queue depth of the booking lock stripes - Admin only
+    public List<BookingLockStripeStats> getBookingLockStats() {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        if (currentUser.getRole() != UserRole.ADMIN) {
+            throw new ForbiddenException("Only admins can view booking lock metrics");
+        }
+        
+        return bookingCoordinator.getStripeStats();
     }
 }
@@ -4,5 +4,10 @@ public enum AppointmentStatus {
     PENDING,
     CONFIRMED,
     CANCELLED,
-    DONE
+    DONE;
+    
+    // Cancelled and completed appointments never change status again
+    public boolean isFinal() {
+        return this == CANCELLED || this == DONE;
+    }
 }
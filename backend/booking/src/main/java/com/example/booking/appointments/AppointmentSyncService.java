@@ -0,0 +1,109 @@
+package com.example.booking.appointments;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.users.UserRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Delta sync of appointment dashboards. The sync token is a position in (updated_at, id) order; a client sends back
+ * the token of its last response and gets only the appointments changed after it, plus tombstones of deleted ones.
+ * updated_at is set when a statement runs but only becomes visible when its transaction commits, so the token
+ * handed out never passes the database clock minus a safety window: the last few seconds of changes are sent again
+ * on the next sync instead of being skipped when a slower transaction commits behind them.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class AppointmentSyncService {
+    
+    public static final int MAX_CHANGES = 500;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentTombstoneRepository appointmentTombstoneRepository;
+    private final AuthenticationHelper authenticationHelper;
+    private final JdbcTemplate jdbcTemplate;
+    private final long safetySeconds;
+    private final int retentionDays;
+    
+    public AppointmentSyncService(AppointmentRepository appointmentRepository,
+                                  AppointmentTombstoneRepository appointmentTombstoneRepository,
+                                  AuthenticationHelper authenticationHelper,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${booking.sync.safety-seconds:30}") long safetySeconds,
+                                  @Value("${booking.sync.tombstone-retention-days:30}") int retentionDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentTombstoneRepository = appointmentTombstoneRepository;
+        this.authenticationHelper = authenticationHelper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.safetySeconds = safetySeconds;
+        this.retentionDays = retentionDays;
+    }
+    
+    // Appointments of the caller changed or deleted since a sync token; no token means a full sync
+    public AppointmentChanges getChanges(String since, int limit) {
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        UserRole role = authenticationHelper.getCurrentUserRole();
+        LocalDateTime dbNow = jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP(6)", Timestamp.class).toLocalDateTime();
+        
+        // Deletes older than the tombstone retention are gone, so an older token has to start over
+        AppointmentCursor position = AppointmentCursor.decode(since);
+        boolean reset = since != null && !since.isBlank() && position.getDateTime().isBefore(dbNow.minusDays(retentionDays));
+        if (reset) {
+            position = AppointmentCursor.START;
+        }
+        
+        int pageSize = Math.max(1, Math.min(MAX_CHANGES, limit));
+        Limit fetch = Limit.of(pageSize + 1);
+        List<AppointmentChange> rows = switch (role) {
+            case CUSTOMER -> appointmentRepository.findChangesByCustomerId(
+                currentUserId, position.getDateTime(), position.getId(), fetch);
+            case BUSINESS -> appointmentRepository.findChangesByBusinessOwnerId(
+                currentUserId, position.getDateTime(), position.getId(), fetch);
+            case ADMIN -> appointmentRepository.findChanges(position.getDateTime(), position.getId(), fetch);
+        };
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentChange> updated = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        // A partial page covers changes up to its last row; a complete one covers everything up to now
+        AppointmentChange last = updated.isEmpty() ? null : updated.get(updated.size() - 1);
+        LocalDateTime until = hasMore ? last.getUpdatedAt() : dbNow;
+        List<Long> deleted = switch (role) {
+            case CUSTOMER -> appointmentTombstoneRepository.findDeletedByCustomerId(
+                currentUserId, position.getDateTime(), until);
+            case BUSINESS -> appointmentTombstoneRepository.findDeletedByBusinessOwnerId(
+                currentUserId, position.getDateTime(), until);
+            case ADMIN -> appointmentTombstoneRepository.findDeleted(position.getDateTime(), until);
+        };
+        
+        // Within a sync the client pages forward row by row; a finished sync resumes from the safety horizon
+        AppointmentCursor next = hasMore
+            ? new AppointmentCursor(last.getUpdatedAt(), last.getId())
+            : new AppointmentCursor(dbNow.minusSeconds(safetySeconds), 0L);
+        return new AppointmentChanges(updated, deleted, next.encode(), hasMore, reset);
+    }
+    
+    // Tombstones only need to outlive the oldest token that is still served incrementally
+    @Scheduled(cron = "${booking.sync.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        try {
+            int purged = appointmentTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                log.info("Purged {} appointment tombstones", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Appointment tombstone purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.booking.appointments;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marker left behind by a deleted appointment so delta sync can report the delete
+@Entity
+@Table(name = "appointment_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentTombstone {
+    
+    @Id
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+    
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,49 @@
+package com.example.booking.appointments;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AppointmentTombstoneRepository extends JpaRepository<AppointmentTombstone, Long> {
+    
+    // Insert directly; save() would first select the row because the ID is assigned
+    @Modifying
+    @Query(value = "INSERT INTO appointment_tombstones (appointment_id, customer_id, business_id) " +
+                   "VALUES (:appointmentId, :customerId, :businessId)", nativeQuery = true)
+    void insert(
+        @Param("appointmentId") Long appointmentId,
+        @Param("customerId") Long customerId,
+        @Param("businessId") Long businessId
+    );
+    
+    // Deleted appointment IDs in (since, until]
+    @Query("SELECT t.appointmentId FROM AppointmentTombstone t WHERE t.deletedAt > :since AND t.deletedAt <= :until")
+    List<Long> findDeleted(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+    
+    // Deleted appointment IDs of a customer in (since, until]
+    @Query("SELECT t.appointmentId FROM AppointmentTombstone t " +
+           "WHERE t.customerId = :customerId AND t.deletedAt > :since AND t.deletedAt <= :until")
+    List<Long> findDeletedByCustomerId(
+        @Param("customerId") Long customerId,
+        @Param("since") LocalDateTime since,
+        @Param("until") LocalDateTime until
+    );
+    
+    // Deleted appointment IDs of an owner's businesses in (since, until]
+    @Query("SELECT t.appointmentId FROM AppointmentTombstone t, Business b " +
+           "WHERE b.id = t.businessId AND b.owner.id = :ownerId AND t.deletedAt > :since AND t.deletedAt <= :until")
+    List<Long> findDeletedByBusinessOwnerId(
+        @Param("ownerId") Long ownerId,
+        @Param("since") LocalDateTime since,
+        @Param("until") LocalDateTime until
+    );
+    
+    // Drop tombstones older than the sync retention period
+    @Modifying
+    @Query("DELETE FROM AppointmentTombstone t WHERE t.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") LocalDateTime before);
+}
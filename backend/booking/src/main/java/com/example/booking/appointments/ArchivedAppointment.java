@@ -0,0 +1,54 @@
+package com.example.booking.appointments;
+
+import com.example.booking.businesses.Business;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.users.User;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DONE or CANCELLED appointment moved out of the live table by the AppointmentArchiver.
+ * Rows are written with plain SQL and only ever read through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "appointments_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedAppointment {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private User customer;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_id", nullable = false)
+    private ServiceEntity service;
+    
+    @Column(name = "date_time", nullable = false)
+    private LocalDateTime dateTime;
+    
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private AppointmentStatus status;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,137 @@
+package com.example.booking.appointments;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.example.booking.appointments.AppointmentRepository.AFTER_CURSOR;
+import static com.example.booking.appointments.AppointmentRepository.CURSOR_ORDER;
+
+// Read paths of AppointmentRepository that can reach archived appointments, with the same projections and ordering
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+    
+    String DTO_SELECT = "SELECT new com.example.booking.appointments.AppointmentDto(" +
+        "a.id, c.id, c.name, c.email, b.id, b.name, s.id, s.name, s.durationMinutes, " +
+        "a.dateTime, a.endTime, a.status, a.createdAt) " +
+        "FROM ArchivedAppointment a JOIN a.customer c JOIN a.business b JOIN a.service s ";
+    
+    // Page of all archived appointments
+    @Query(DTO_SELECT + "WHERE " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPage(
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of archived appointments by customer
+    @Query(DTO_SELECT + "WHERE c.id = :customerId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByCustomerId(
+        @Param("customerId") Long customerId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of archived appointments by business
+    @Query(DTO_SELECT + "WHERE b.id = :businessId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByBusinessId(
+        @Param("businessId") Long businessId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of archived appointments by business owner
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByBusinessOwnerId(
+        @Param("ownerId") Long ownerId,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Page of archived appointments by status before a date
+    @Query(DTO_SELECT + "WHERE a.status = :status AND a.dateTime < :before AND " + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByStatus(
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
+    
+    // Page of archived appointments by customer and status before a date
+    @Query(DTO_SELECT + "WHERE c.id = :customerId AND a.status = :status AND a.dateTime < :before AND "
+           + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findPageByCustomerIdAndStatus(
+        @Param("customerId") Long customerId,
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
+    
+    // Page of archived appointments by business owner and status before a date
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND a.status = :status AND a.dateTime < :before AND "
+           + AFTER_CURSOR + CURSOR_ORDER)
+    List<AppointmentDto> findByBusinessOwnerIdAndStatus(
+        @Param("ownerId") Long ownerId,
+        @Param("status") AppointmentStatus status,
+        @Param("afterDateTime") LocalDateTime afterDateTime,
+        @Param("afterId") Long afterId,
+        @Param("before") LocalDateTime before,
+        Limit limit
+    );
+    
+    // Non-cancelled archived intervals of a business that overlap [startDate, endDate)
+    @Query("SELECT new com.example.booking.appointments.BookedInterval(a.dateTime, a.endTime) FROM ArchivedAppointment a " +
+           "WHERE a.business.id = :businessId AND a.dateTime >= :earliestStart AND a.dateTime < :endDate " +
+           "AND a.endTime > :startDate AND a.status <> 'CANCELLED'")
+    List<BookedInterval> findBookedIntervals(
+        @Param("businessId") Long businessId,
+        @Param("earliestStart") LocalDateTime earliestStart,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Stream archived appointments in [from, before) for export
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE a.dateTime >= :from AND a.dateTime < :before" + CURSOR_ORDER)
+    Stream<AppointmentDto> streamByDateTimeRange(
+        @Param("from") LocalDateTime from,
+        @Param("before") LocalDateTime before
+    );
+    
+    // Stream the archived appointments of an owner's businesses in [from, before) for export
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE b.owner.id = :ownerId AND a.dateTime >= :from AND a.dateTime < :before" + CURSOR_ORDER)
+    Stream<AppointmentDto> streamByBusinessOwnerIdAndDateTimeRange(
+        @Param("ownerId") Long ownerId,
+        @Param("from") LocalDateTime from,
+        @Param("before") LocalDateTime before
+    );
+    
+    // Get one archived appointment as a DTO
+    @Query(DTO_SELECT + "WHERE a.id = :id")
+    Optional<AppointmentDto> findDtoById(@Param("id") Long id);
+    
+    // Check whether an archived appointment belongs to one of the owner's businesses
+    @Query("SELECT COUNT(a) > 0 FROM ArchivedAppointment a WHERE a.id = :id AND a.business.owner.id = :ownerId")
+    boolean existsByIdAndBusinessOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,15 @@
+package com.example.booking.appointments;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookedInterval {
+    private LocalDateTime dateTime;
+    private LocalDateTime endTime;
+}
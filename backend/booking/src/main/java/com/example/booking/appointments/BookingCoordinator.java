@@ -0,0 +1,140 @@
+package com.example.booking.appointments;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serializes the write path (conflict check plus insert/update) of each business.
+ * The lock is taken inside the caller's transaction and held until it commits or rolls back,
+ * so the next booking for the same business only runs its conflict check against committed data.
+ */
+@Component
+public class BookingCoordinator {
+    
+    private static final Object LOCKED_BUSINESSES_KEY = new Object();
+    
+    private final BookingLockProvider lockProvider;
+    private final Duration timeout;
+    private final StripeMetrics[] metrics;
+    
+    public BookingCoordinator(BookingLockProvider lockProvider,
+                              @Value("${booking.locks.stripes:64}") int stripeCount,
+                              @Value("${booking.locks.timeout-seconds:10}") long timeoutSeconds) {
+        this.lockProvider = lockProvider;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.metrics = new StripeMetrics[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            metrics[i] = new StripeMetrics();
+        }
+    }
+    
+    // Hold the booking lock of a business until the current transaction completes
+    public void lockBusiness(Long businessId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks can only be taken inside a transaction");
+        }
+        
+        Set<Long> lockedBusinesses = lockedBusinesses();
+        if (!lockedBusinesses.add(businessId)) {
+            return;
+        }
+        
+        StripeMetrics stripe = metrics[stripeIndex(businessId, metrics.length)];
+        stripe.enterQueue();
+        long startedAt = System.nanoTime();
+        BookingLockProvider.Handle handle;
+        try {
+            handle = lockProvider.acquire(businessId, timeout);
+        } catch (RuntimeException e) {
+            lockedBusinesses.remove(businessId);
+            throw e;
+        } finally {
+            stripe.leaveQueue();
+        }
+        stripe.recordWait(System.nanoTime() - startedAt);
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                handle.release();
+            }
+        });
+    }
+    
+    // Wait time and queue depth of every stripe
+    public List<BookingLockStripeStats> getStripeStats() {
+        List<BookingLockStripeStats> stats = new ArrayList<>(metrics.length);
+        for (int i = 0; i < metrics.length; i++) {
+            stats.add(metrics[i].snapshot(i));
+        }
+        return stats;
+    }
+    
+    public static int stripeIndex(Long businessId, int stripeCount) {
+        // Spread sequential ids so neighbouring businesses land on different stripes
+        long mixed = businessId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), stripeCount);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Set<Long> lockedBusinesses() {
+        Set<Long> locked = (Set<Long>) TransactionSynchronizationManager.getResource(LOCKED_BUSINESSES_KEY);
+        if (locked == null) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(LOCKED_BUSINESSES_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_BUSINESSES_KEY);
+                }
+            });
+            locked = created;
+        }
+        return locked;
+    }
+    
+    private static class StripeMetrics {
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        
+        void enterQueue() {
+            int depth = queueDepth.incrementAndGet();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+        
+        void leaveQueue() {
+            queueDepth.decrementAndGet();
+        }
+        
+        void recordWait(long nanos) {
+            acquisitions.incrementAndGet();
+            totalWaitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+        
+        BookingLockStripeStats snapshot(int index) {
+            long count = acquisitions.get();
+            BookingLockStripeStats stats = new BookingLockStripeStats();
+            stats.setStripe(index);
+            stats.setAcquisitions(count);
+            stats.setQueueDepth(queueDepth.get());
+            stats.setMaxQueueDepth(maxQueueDepth.get());
+            stats.setAverageWaitMicros(count == 0 ? 0 : totalWaitNanos.get() / count / 1_000);
+            stats.setMaxWaitMicros(maxWaitNanos.get() / 1_000);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.booking.appointments;
+
+import java.time.Duration;
+
+/**
+ * Mutual exclusion for the booking path of a single business.
+ * The in-process implementation is enough for one instance; the MySQL one extends it across instances.
+ */
+public interface BookingLockProvider {
+    
+    /**
+     * Blocks until the booking lock of the business is held by the caller; a timeout or an interrupt fails with a
+     * ConflictException, so the client sees a 409 it can retry
+     */
+    Handle acquire(Long businessId, Duration timeout);
+    
+    interface Handle {
+        void release();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.booking.appointments;
+
+import lombok.Data;
+
+@Data
+public class BookingLockStripeStats {
+    private int stripe;
+    private long acquisitions;
+    private int queueDepth;
+    private int maxQueueDepth;
+    private long averageWaitMicros;
+    private long maxWaitMicros;
+}
@@ -0,0 +1,13 @@
+package com.example.booking.appointments;
+
+public enum BulkStatusOutcome {
+    UPDATED,
+    // The appointment already had the requested status
+    UNCHANGED,
+    // No such appointment among the current owner's businesses
+    NOT_FOUND,
+    // Cancelled and completed appointments cannot change status
+    INVALID_TRANSITION,
+    // Another request changed the appointment between the check and the update
+    CONFLICT
+}
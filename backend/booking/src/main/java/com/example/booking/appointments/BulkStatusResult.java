@@ -0,0 +1,16 @@
+package com.example.booking.appointments;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResult {
+    private Long id;
+    private BulkStatusOutcome outcome;
+    // Status after the request, when known
+    private AppointmentStatus status;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.example.booking.appointments;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkUpdateAppointmentStatusRequest {
+    
+    @NotEmpty(message = "At least one appointment ID is required")
+    @Size(max = AppointmentService.MAX_BULK_STATUS_IDS, message = "At most " + AppointmentService.MAX_BULK_STATUS_IDS + " appointments can be updated at once")
+    private List<@NotNull Long> ids;
+    
+    @NotNull(message = "Status is required")
+    private AppointmentStatus status;
+}
@@ -18,4 +18,7 @@ public class CreateAppointmentRequest {
     @NotNull(message = "Appointment date and time is required")
     @Future(message = "Appointment date and time must be in the future")
     private LocalDateTime dateTime;
+    
+    // Optional hold on exactly this business, service and time, created with POST /api/appointments/holds
+    private String holdId;
 }
@@ -0,0 +1,26 @@
+package com.example.booking.appointments;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class CreateSlotHoldRequest {
+    
+    @NotNull(message = "Business ID is required")
+    private Long businessId;
+    
+    @NotNull(message = "Service ID is required")
+    private Long serviceId;
+    
+    @NotNull(message = "Appointment date and time is required")
+    @Future(message = "Appointment date and time must be in the future")
+    private LocalDateTime dateTime;
+    
+    // Optional; defaults to booking.holds.default-minutes and is capped at booking.holds.max-minutes
+    @Min(value = 1, message = "Hold must last at least 1 minute")
+    private Integer minutes;
+}
@@ -0,0 +1,35 @@
+package com.example.booking.appointments;
+
+import com.example.booking.exceptions.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(contentType);
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    // Parse the format query parameter (ndjson or csv, case-insensitive)
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported export format: " + value + " (use ndjson or csv)");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.booking.appointments;
+
+import com.example.booking.exceptions.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Cross-instance booking locks built on MySQL named locks (GET_LOCK / RELEASE_LOCK).
+ * Named locks belong to a session, so the lock is taken on the caller's transactional connection rather than a second
+ * pooled one, and released in the transaction's completion callback before that connection goes back to the pool.
+ * Callers first queue on the local stripes, so an instance sends at most one waiter per stripe to MySQL.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.locks.provider", havingValue = "mysql")
+public class MySqlBookingLockProvider implements BookingLockProvider {
+    
+    private final DataSource dataSource;
+    private final StripedBookingLockProvider localLocks;
+    
+    public MySqlBookingLockProvider(DataSource dataSource,
+                                    @Value("${booking.locks.stripes:64}") int stripeCount) {
+        this.dataSource = dataSource;
+        this.localLocks = new StripedBookingLockProvider(stripeCount);
+    }
+    
+    @Override
+    public Handle acquire(Long businessId, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Handle local = localLocks.acquire(businessId, timeout);
+        String lockName = "booking:business:" + businessId;
+        Connection connection = null;
+        try {
+            connection = DataSourceUtils.getConnection(dataSource);
+            long remainingSeconds = Math.max(0, Duration.ofNanos(deadline - System.nanoTime()).toSeconds());
+            if (!getLock(connection, lockName, remainingSeconds)) {
+                throw new ConflictException("The business is busy handling other bookings, please try again");
+            }
+            Connection lockConnection = connection;
+            return () -> {
+                try {
+                    releaseLock(lockConnection, lockName);
+                } finally {
+                    close(lockConnection);
+                    local.release();
+                }
+            };
+        } catch (SQLException | CannotGetJdbcConnectionException e) {
+            // A database hiccup is as retryable for the client as a lock timeout
+            close(connection);
+            local.release();
+            throw new ConflictException("The booking lock of the business could not be taken, please try again", e);
+        } catch (RuntimeException e) {
+            close(connection);
+            local.release();
+            throw e;
+        }
+    }
+    
+    private boolean getLock(Connection connection, String lockName, long timeoutSeconds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, lockName);
+            statement.setLong(2, timeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        }
+    }
+    
+    private void releaseLock(Connection connection, String lockName) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not release booking lock " + lockName, e);
+        }
+    }
+    
+    // Hands the connection back to the transaction that owns it; only closes one opened outside a transaction
+    private void close(Connection connection) {
+        DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+}
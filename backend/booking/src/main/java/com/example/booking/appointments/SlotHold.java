@@ -0,0 +1,44 @@
+package com.example.booking.appointments;
+
+import com.example.booking.scheduling.HashedTimingWheel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory reservation of a business interval for one customer. Compared by identity.
+ */
+@Getter
+public class SlotHold {
+    
+    private final String id;
+    private final Long customerId;
+    private final Long businessId;
+    private final Long serviceId;
+    private final LocalDateTime dateTime;
+    private final LocalDateTime endTime;
+    private final LocalDateTime expiresAt;
+    
+    @Setter
+    private HashedTimingWheel.Timeout expiry;
+    
+    public SlotHold(String id, Long customerId, Long businessId, Long serviceId,
+                    LocalDateTime dateTime, LocalDateTime endTime, LocalDateTime expiresAt) {
+        this.id = id;
+        this.customerId = customerId;
+        this.businessId = businessId;
+        this.serviceId = serviceId;
+        this.dateTime = dateTime;
+        this.endTime = endTime;
+        this.expiresAt = expiresAt;
+    }
+    
+    public boolean isActive(LocalDateTime now) {
+        return expiresAt.isAfter(now);
+    }
+    
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return dateTime.isBefore(end) && endTime.isAfter(start);
+    }
+}
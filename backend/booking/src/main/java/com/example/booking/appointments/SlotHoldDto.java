@@ -0,0 +1,15 @@
+package com.example.booking.appointments;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SlotHoldDto {
+    private String id;
+    private Long businessId;
+    private Long serviceId;
+    private LocalDateTime dateTime;
+    private LocalDateTime endTime;
+    private LocalDateTime expiresAt;
+}
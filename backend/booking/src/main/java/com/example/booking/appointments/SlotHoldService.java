@@ -0,0 +1,256 @@
+package com.example.booking.appointments;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.scheduling.HashedTimingWheel;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.UserRole;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived reservations that keep an interval free for one customer while they confirm a booking.
+ * A hold blocks other customers from booking or holding an overlapping interval until it is converted into an
+ * appointment, released or expires. Expiry runs on a hashed timing wheel, so a hold costs O(1) to schedule and
+ * cancel. Holds live in this instance's memory and do not survive a restart.
+ */
+@Service
+@Transactional
+public class SlotHoldService {
+    
+    private final ServiceRepository serviceRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AuthenticationHelper authenticationHelper;
+    private final BookingCoordinator bookingCoordinator;
+    private final int defaultMinutes;
+    private final int maxMinutes;
+    private final int maxHoldsPerCustomer;
+    
+    private final Map<String, SlotHold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SlotHold>> holdsByBusiness = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SlotHold>> holdsByCustomer = new ConcurrentHashMap<>();
+    private final HashedTimingWheel expiryWheel = new HashedTimingWheel("slot-hold-expiry", Duration.ofSeconds(1), 512);
+    
+    public SlotHoldService(ServiceRepository serviceRepository,
+                           AppointmentRepository appointmentRepository,
+                           AuthenticationHelper authenticationHelper,
+                           BookingCoordinator bookingCoordinator,
+                           @Value("${booking.holds.default-minutes:5}") int defaultMinutes,
+                           @Value("${booking.holds.max-minutes:15}") int maxMinutes,
+                           @Value("${booking.holds.max-per-customer:3}") int maxHoldsPerCustomer) {
+        this.serviceRepository = serviceRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.authenticationHelper = authenticationHelper;
+        this.bookingCoordinator = bookingCoordinator;
+        this.defaultMinutes = defaultMinutes;
+        this.maxMinutes = maxMinutes;
+        this.maxHoldsPerCustomer = maxHoldsPerCustomer;
+    }
+    
+    // Hold an interval for the current customer - Only CUSTOMER role can hold slots
+    public SlotHoldDto createHold(CreateSlotHoldRequest request) {
+        if (authenticationHelper.getCurrentUserRole() != UserRole.CUSTOMER) {
+            throw new ForbiddenException("Only users with CUSTOMER role can hold slots");
+        }
+        Long customerId = authenticationHelper.getCurrentUserId();
+        
+        int minutes = request.getMinutes() != null ? request.getMinutes() : defaultMinutes;
+        if (minutes > maxMinutes) {
+            throw new BadRequestException("A slot can be held for at most " + maxMinutes + " minutes");
+        }
+        
+        // Fails fast without the booking lock; the limit itself is enforced when the hold is registered
+        Set<SlotHold> customerHolds = holdsByCustomer.get(customerId);
+        if (customerHolds != null && customerHolds.size() >= maxHoldsPerCustomer) {
+            throw tooManyHolds();
+        }
+        
+        ServiceEntity service = serviceRepository.findByIdAndBusinessId(request.getServiceId(), request.getBusinessId())
+            .orElseThrow(() -> new ResourceNotFoundException("Service", "id", request.getServiceId()));
+        
+        SlotHold hold = placeHold(customerId, request.getBusinessId(), service, request.getDateTime(), minutes,
+            maxHoldsPerCustomer);
+        return toDto(hold);
+    }
+    
+    // Hold the interval of a service starting at dateTime for a customer, if nobody booked or holds any of it
+    public SlotHold placeHold(Long customerId, Long businessId, ServiceEntity service, LocalDateTime dateTime, int minutes) {
+        return placeHold(customerId, businessId, service, dateTime, minutes, Integer.MAX_VALUE);
+    }
+    
+    // Like placeHold, but empty instead of throwing when the interval is not free, so the caller's transaction
+    // is not marked rollback-only by a miss it expects
+    public Optional<SlotHold> tryPlaceHold(Long customerId, Long businessId, ServiceEntity service, LocalDateTime dateTime,
+                                           int minutes) {
+        bookingCoordinator.lockBusiness(businessId);
+        
+        if (unavailableReason(customerId, businessId, service, dateTime) != null) {
+            return Optional.empty();
+        }
+        return Optional.of(hold(customerId, businessId, service, dateTime, minutes, Integer.MAX_VALUE));
+    }
+    
+    // Release a hold before it expires - Only the customer who holds it
+    public void releaseHold(String holdId) {
+        SlotHold hold = getHold(holdId, authenticationHelper.getCurrentUserId());
+        remove(hold);
+    }
+    
+    // Get an active hold of the customer
+    public SlotHold getHold(String holdId, Long customerId) {
+        SlotHold hold = holds.get(holdId);
+        if (hold == null || !hold.isActive(LocalDateTime.now())) {
+            throw new ResourceNotFoundException("SlotHold", "id", holdId);
+        }
+        if (!hold.getCustomerId().equals(customerId)) {
+            throw new ForbiddenException("You can only use your own slot holds");
+        }
+        return hold;
+    }
+    
+    // Check if another customer holds an interval overlapping [start, end) of the business
+    public boolean isHeldByOthers(Long businessId, LocalDateTime start, LocalDateTime end, Long customerId) {
+        Set<SlotHold> businessHolds = holdsByBusiness.get(businessId);
+        if (businessHolds == null) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return businessHolds.stream().anyMatch(hold -> !hold.getCustomerId().equals(customerId)
+            && hold.isActive(now) && hold.overlaps(start, end));
+    }
+    
+    // Intervals of [start, end) held by customers other than the given one
+    public List<BookedInterval> findHeldIntervals(Long businessId, LocalDateTime start, LocalDateTime end, Long customerId) {
+        Set<SlotHold> businessHolds = holdsByBusiness.get(businessId);
+        if (businessHolds == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return businessHolds.stream()
+            .filter(hold -> !hold.getCustomerId().equals(customerId) && hold.isActive(now) && hold.overlaps(start, end))
+            .map(hold -> new BookedInterval(hold.getDateTime(), hold.getEndTime()))
+            .toList();
+    }
+    
+    // Drop a hold and cancel its expiry
+    public void remove(SlotHold hold) {
+        if (hold.getExpiry() != null) {
+            hold.getExpiry().cancel();
+        }
+        unregister(hold);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.stop();
+    }
+    
+    private SlotHold placeHold(Long customerId, Long businessId, ServiceEntity service, LocalDateTime dateTime, int minutes,
+                               int maxHolds) {
+        // Same lock as booking, so a hold and a booking for the same business never both pass their checks
+        bookingCoordinator.lockBusiness(businessId);
+        
+        String unavailable = unavailableReason(customerId, businessId, service, dateTime);
+        if (unavailable != null) {
+            throw new BadRequestException(unavailable);
+        }
+        return hold(customerId, businessId, service, dateTime, minutes, maxHolds);
+    }
+    
+    // Why the interval cannot be held, or null when it is free
+    private String unavailableReason(Long customerId, Long businessId, ServiceEntity service, LocalDateTime dateTime) {
+        if (dateTime.isBefore(LocalDateTime.now())) {
+            return "Appointment date and time must be in the future";
+        }
+        LocalDateTime endTime = dateTime.plusMinutes(service.getDurationMinutes());
+        if (appointmentRepository.existsOverlappingAppointment(businessId,
+                dateTime.minusMinutes(Appointment.MAX_DURATION_MINUTES), dateTime, endTime)) {
+            return "This time slot is already booked";
+        }
+        if (isHeldByOthers(businessId, dateTime, endTime, customerId)) {
+            return "This time slot is currently held by another customer";
+        }
+        return null;
+    }
+    
+    private SlotHold hold(Long customerId, Long businessId, ServiceEntity service, LocalDateTime dateTime, int minutes,
+                          int maxHolds) {
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), customerId, businessId, service.getId(), dateTime,
+            dateTime.plusMinutes(service.getDurationMinutes()), LocalDateTime.now().plusMinutes(minutes));
+        register(hold, maxHolds);
+        hold.setExpiry(expiryWheel.schedule(() -> unregister(hold), Duration.ofMinutes(minutes)));
+        return hold;
+    }
+    
+    // The customer's holds are counted and added to under one compute on their entry, so concurrent requests of a
+    // customer cannot pass the limit together, whichever businesses their booking locks belong to
+    private void register(SlotHold hold, int maxHolds) {
+        boolean[] added = {false};
+        holdsByCustomer.compute(hold.getCustomerId(), (id, set) -> {
+            Set<SlotHold> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (result.size() < maxHolds) {
+                added[0] = result.add(hold);
+            }
+            return result.isEmpty() ? null : result;
+        });
+        if (!added[0]) {
+            throw tooManyHolds();
+        }
+        holds.put(hold.getId(), hold);
+        addToIndex(holdsByBusiness, hold.getBusinessId(), hold);
+    }
+    
+    private void unregister(SlotHold hold) {
+        if (!holds.remove(hold.getId(), hold)) {
+            return;
+        }
+        removeFromIndex(holdsByBusiness, hold.getBusinessId(), hold);
+        removeFromIndex(holdsByCustomer, hold.getCustomerId(), hold);
+    }
+    
+    // Add inside compute so a concurrent removal cannot drop the set this hold is being added to
+    private static void addToIndex(Map<Long, Set<SlotHold>> index, Long key, SlotHold hold) {
+        index.compute(key, (id, set) -> {
+            Set<SlotHold> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(hold);
+            return result;
+        });
+    }
+    
+    // Remove the hold and drop the index entry once it is empty
+    private static void removeFromIndex(Map<Long, Set<SlotHold>> index, Long key, SlotHold hold) {
+        index.computeIfPresent(key, (id, set) -> {
+            set.remove(hold);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    private BadRequestException tooManyHolds() {
+        return new BadRequestException("You cannot hold more than " + maxHoldsPerCustomer + " slots at a time");
+    }
+    
+    private SlotHoldDto toDto(SlotHold hold) {
+        SlotHoldDto dto = new SlotHoldDto();
+        dto.setId(hold.getId());
+        dto.setBusinessId(hold.getBusinessId());
+        dto.setServiceId(hold.getServiceId());
+        dto.setDateTime(hold.getDateTime());
+        dto.setEndTime(hold.getEndTime());
+        dto.setExpiresAt(hold.getExpiresAt());
+        return dto;
+    }
+}
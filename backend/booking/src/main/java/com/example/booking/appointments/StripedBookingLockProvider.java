@@ -0,0 +1,42 @@
+package com.example.booking.appointments;
+
+import com.example.booking.exceptions.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process booking locks: business ids are hashed onto a fixed array of fair locks,
+ * so bookings for one business queue up while other businesses proceed in parallel.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.locks.provider", havingValue = "local", matchIfMissing = true)
+public class StripedBookingLockProvider implements BookingLockProvider {
+    
+    private final ReentrantLock[] stripes;
+    
+    public StripedBookingLockProvider(@Value("${booking.locks.stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+    
+    @Override
+    public Handle acquire(Long businessId, Duration timeout) {
+        ReentrantLock lock = stripes[BookingCoordinator.stripeIndex(businessId, stripes.length)];
+        try {
+            if (!lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConflictException("The business is busy handling other bookings, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Booking was interrupted, please try again");
+        }
+        return lock::unlock;
+    }
+}
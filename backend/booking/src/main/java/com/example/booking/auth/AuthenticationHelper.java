@@ -4,7 +4,9 @@ import com.example.booking.exceptions.ResourceNotFoundException;
 import com.example.booking.exceptions.UnauthorizedException;
 import com.example.booking.users.User;
 import com.example.booking.users.UserRepository;
+import com.example.booking.users.UserRole;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -28,6 +30,22 @@ public class AuthenticationHelper {
         throw new UnauthorizedException("No authenticated user found");
     }
     
+    /**
+     * Gets the role of the currently authenticated user from the token, without loading the user
+     */
+    public UserRole getCurrentUserRole() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                String name = authority.getAuthority();
+                if (name.startsWith("ROLE_")) {
+                    return UserRole.valueOf(name.substring("ROLE_".length()));
+                }
+            }
+        }
+        throw new UnauthorizedException("No authenticated user found");
+    }
+    
     /**
      * Gets the currently authenticated user entity
      */
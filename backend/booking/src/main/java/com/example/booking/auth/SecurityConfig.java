@@ -1,5 +1,6 @@
 package com.example.booking.auth;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -51,6 +52,8 @@ public class SecurityConfig {
        http.csrf(csrf -> csrf.disable())
            .cors(cors -> cors.configurationSource(corsConfigurationSource()))
            .authorizeHttpRequests(auth -> auth
+                   // Async dispatches of streamed responses belong to a request that was already authorized
+                   .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                    .requestMatchers("/api/auth/**", "/api/users/register").permitAll()
                    .requestMatchers("/swagger-ui/**").permitAll()
                    .requestMatchers("/swagger-ui.html").permitAll()
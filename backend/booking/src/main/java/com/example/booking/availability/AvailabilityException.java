@@ -0,0 +1,63 @@
+package com.example.booking.availability;
+
+import com.example.booking.businesses.Business;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "availability_exceptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityException {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private AvailabilityExceptionType type;
+    
+    @NotNull(message = "Start date is required")
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+    
+    @NotNull(message = "End date is required")
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+    
+    // Null together with endTime when the exception covers whole days
+    @Column(name = "start_time")
+    private LocalTime startTime;
+    
+    @Column(name = "end_time")
+    private LocalTime endTime;
+    
+    @Column(name = "reason")
+    private String reason;
+    
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    public boolean isWholeDay() {
+        return startTime == null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.booking.availability;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The availability exceptions of a business, expanded into a map from date to that day's changes when loaded.
+ * Applying the exceptions of a day is one hash lookup, whatever the number of exceptions the business has.
+ * Immutable, so it can be shared between readers.
+ */
+public final class AvailabilityExceptionCalendar {
+    
+    public static final AvailabilityExceptionCalendar EMPTY = new AvailabilityExceptionCalendar(Map.of());
+    
+    private final Map<Long, DayExceptions> days;
+    
+    private AvailabilityExceptionCalendar(Map<Long, DayExceptions> days) {
+        this.days = days;
+    }
+    
+    public static AvailabilityExceptionCalendar of(Collection<AvailabilityException> exceptions) {
+        Map<Long, DayExceptions> days = new HashMap<>();
+        for (AvailabilityException exception : exceptions) {
+            int start = exception.isWholeDay() ? 0 : DayOccupancy.toMinute(exception.getStartTime());
+            int end = exception.isWholeDay() ? DayOccupancy.MINUTES_PER_DAY : DayOccupancy.toMinute(exception.getEndTime());
+            for (long day = exception.getStartDate().toEpochDay(); day <= exception.getEndDate().toEpochDay(); day++) {
+                DayExceptions changes = days.computeIfAbsent(day, d -> new DayExceptions());
+                (exception.getType() == AvailabilityExceptionType.OPEN ? changes.opened : changes.closed).add(new int[]{start, end});
+            }
+        }
+        return new AvailabilityExceptionCalendar(days);
+    }
+    
+    // Add the extra hours of the date, then take out its closures
+    public void applyTo(DayOccupancy occupancy, LocalDate date) {
+        DayExceptions changes = days.get(date.toEpochDay());
+        if (changes == null) {
+            return;
+        }
+        for (int[] range : changes.opened) {
+            occupancy.open(range[0], range[1]);
+        }
+        for (int[] range : changes.closed) {
+            occupancy.occupy(range[0], range[1]);
+        }
+    }
+    
+    private static final class DayExceptions {
+        private final List<int[]> opened = new ArrayList<>(1);
+        private final List<int[]> closed = new ArrayList<>(1);
+    }
+}
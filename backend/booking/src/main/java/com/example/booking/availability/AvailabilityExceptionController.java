@@ -0,0 +1,62 @@
+package com.example.booking.availability;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/availability-exceptions")
+@Tag(name = "Availability Exception Management", description = "APIs for closures and extra opening hours on specific dates")
+public class AvailabilityExceptionController {
+    
+    private final AvailabilityExceptionService availabilityExceptionService;
+    
+    public AvailabilityExceptionController(AvailabilityExceptionService availabilityExceptionService) {
+        this.availabilityExceptionService = availabilityExceptionService;
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Create an availability exception", 
+               description = "Closes a business for whole days or part of a day (CLOSED), or adds extra opening hours (OPEN), on a date or a date range. Only the business owner can create exceptions for their own businesses.")
+    public ResponseEntity<AvailabilityExceptionDto> createAvailabilityException(
+            @Valid @RequestBody CreateAvailabilityExceptionRequest request) {
+        AvailabilityExceptionDto exception = availabilityExceptionService.createAvailabilityException(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(exception);
+    }
+    
+    @GetMapping("/business/{businessId}")
+    @Operation(summary = "Get availability exceptions by business", 
+               description = "Retrieves all availability exceptions of a business. Accessible to all authenticated users.")
+    public ResponseEntity<List<AvailabilityExceptionDto>> getAvailabilityExceptionsByBusinessId(
+            @Parameter(description = "Business ID", required = true) @PathVariable Long businessId) {
+        List<AvailabilityExceptionDto> exceptions = availabilityExceptionService.getAvailabilityExceptionsByBusinessId(businessId);
+        return ResponseEntity.ok(exceptions);
+    }
+    
+    @GetMapping("/my")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Get my availability exceptions", 
+               description = "Retrieves all availability exceptions of the authenticated business owner's businesses")
+    public ResponseEntity<List<AvailabilityExceptionDto>> getMyAvailabilityExceptions() {
+        List<AvailabilityExceptionDto> exceptions = availabilityExceptionService.getMyAvailabilityExceptions();
+        return ResponseEntity.ok(exceptions);
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Delete availability exception", 
+               description = "Deletes an availability exception, restoring the regular hours on its dates. Only the business owner can delete exceptions for their own businesses.")
+    public ResponseEntity<Void> deleteAvailabilityException(
+            @Parameter(description = "Availability Exception ID", required = true) @PathVariable Long id) {
+        availabilityExceptionService.deleteAvailabilityException(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.booking.availability;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class AvailabilityExceptionDto {
+    private Long id;
+    private Long businessId;
+    private String businessName;
+    private AvailabilityExceptionType type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String reason;
+}
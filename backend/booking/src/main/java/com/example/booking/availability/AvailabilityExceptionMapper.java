@@ -0,0 +1,18 @@
+package com.example.booking.availability;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface AvailabilityExceptionMapper {
+    
+    @Mapping(source = "business.id", target = "businessId")
+    @Mapping(source = "business.name", target = "businessName")
+    AvailabilityExceptionDto toDto(AvailabilityException availabilityException);
+    
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "business", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    AvailabilityException toEntity(CreateAvailabilityExceptionRequest request);
+}
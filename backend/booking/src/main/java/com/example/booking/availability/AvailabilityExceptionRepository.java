@@ -0,0 +1,24 @@
+package com.example.booking.availability;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AvailabilityExceptionRepository extends JpaRepository<AvailabilityException, Long> {
+    
+    // Get all availability exceptions of a business in date order
+    List<AvailabilityException> findByBusinessIdOrderByStartDateAscIdAsc(Long businessId);
+    
+    // The same with a locking read (FOR SHARE), which sees the latest committed rows instead of the transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT e FROM AvailabilityException e WHERE e.business.id = :businessId ORDER BY e.startDate, e.id")
+    List<AvailabilityException> findByBusinessIdForShare(@Param("businessId") Long businessId);
+    
+    // Get availability exceptions by business owner
+    @Query("SELECT e FROM AvailabilityException e WHERE e.business.owner.id = :ownerId ORDER BY e.business.id, e.startDate, e.id")
+    List<AvailabilityException> findByBusinessOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,131 @@
+package com.example.booking.availability;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRole;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class AvailabilityExceptionService {
+    
+    // Exceptions are expanded per day in memory, so one exception may not span more than a year
+    public static final int MAX_EXCEPTION_DAYS = 366;
+    
+    private final AvailabilityExceptionRepository availabilityExceptionRepository;
+    private final BusinessRepository businessRepository;
+    private final AvailabilityExceptionMapper availabilityExceptionMapper;
+    private final AuthenticationHelper authenticationHelper;
+    private final OccupancyCalendarCache calendarCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final DayCapacityStore dayCapacityStore;
+    
+    public AvailabilityExceptionService(AvailabilityExceptionRepository availabilityExceptionRepository,
+                                        BusinessRepository businessRepository,
+                                        AvailabilityExceptionMapper availabilityExceptionMapper,
+                                        AuthenticationHelper authenticationHelper,
+                                        OccupancyCalendarCache calendarCache,
+                                        AvailabilityIndex availabilityIndex,
+                                        DayCapacityStore dayCapacityStore) {
+        this.availabilityExceptionRepository = availabilityExceptionRepository;
+        this.businessRepository = businessRepository;
+        this.availabilityExceptionMapper = availabilityExceptionMapper;
+        this.authenticationHelper = authenticationHelper;
+        this.calendarCache = calendarCache;
+        this.availabilityIndex = availabilityIndex;
+        this.dayCapacityStore = dayCapacityStore;
+    }
+    
+    // Close or open a business on some dates Only the business owner can add exceptions for their business
+    public AvailabilityExceptionDto createAvailabilityException(CreateAvailabilityExceptionRequest request) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        if (currentUser.getRole() != UserRole.BUSINESS) {
+            throw new ForbiddenException("Only users with BUSINESS role can create availability exceptions");
+        }
+        
+        Business business = businessRepository.findById(request.getBusinessId())
+            .orElseThrow(() -> new ResourceNotFoundException("Business", "id", request.getBusinessId()));
+        
+        if (!business.getOwner().getId().equals(currentUser.getId())) {
+            throw new ForbiddenException("You can only create availability exceptions for your own businesses");
+        }
+        
+        AvailabilityException exception = availabilityExceptionMapper.toEntity(request);
+        exception.setBusiness(business);
+        if (exception.getType() == null) {
+            exception.setType(AvailabilityExceptionType.CLOSED);
+        }
+        if (exception.getEndDate() == null) {
+            exception.setEndDate(exception.getStartDate());
+        }
+        validate(exception);
+        
+        AvailabilityException savedException = availabilityExceptionRepository.save(exception);
+        dayCapacityStore.reopen(business.getId(), savedException.getStartDate(), savedException.getEndDate());
+        calendarCache.evict(business.getId());
+        availabilityIndex.invalidate(business.getId());
+        return availabilityExceptionMapper.toDto(savedException);
+    }
+    
+    // Get all availability exceptions for a specific business Accessible to all authenticated users
+    public List<AvailabilityExceptionDto> getAvailabilityExceptionsByBusinessId(Long businessId) {
+        return availabilityExceptionRepository.findByBusinessIdOrderByStartDateAscIdAsc(businessId).stream()
+            .map(availabilityExceptionMapper::toDto)
+            .collect(Collectors.toList());
+    }
+    
+    // Get all availability exceptions of the current user's businesses Only for BUSINESS users
+    public List<AvailabilityExceptionDto> getMyAvailabilityExceptions() {
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        return availabilityExceptionRepository.findByBusinessOwnerId(currentUserId).stream()
+            .map(availabilityExceptionMapper::toDto)
+            .collect(Collectors.toList());
+    }
+    
+    // Delete an availability exception Only the business owner can delete their exceptions
+    public void deleteAvailabilityException(Long id) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        AvailabilityException exception = availabilityExceptionRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("AvailabilityException", "id", id));
+        
+        if (!exception.getBusiness().getOwner().getId().equals(currentUser.getId())) {
+            throw new ForbiddenException("You can only delete availability exceptions for your own businesses");
+        }
+        
+        availabilityExceptionRepository.delete(exception);
+        dayCapacityStore.reopen(exception.getBusiness().getId(), exception.getStartDate(), exception.getEndDate());
+        calendarCache.evict(exception.getBusiness().getId());
+        availabilityIndex.invalidate(exception.getBusiness().getId());
+    }
+    
+    private static void validate(AvailabilityException exception) {
+        if (exception.getEndDate().isBefore(exception.getStartDate())) {
+            throw new BadRequestException("End date must be after or equal to start date");
+        }
+        if (ChronoUnit.DAYS.between(exception.getStartDate(), exception.getEndDate()) >= MAX_EXCEPTION_DAYS) {
+            throw new BadRequestException("An availability exception can cover at most " + MAX_EXCEPTION_DAYS + " days");
+        }
+        if ((exception.getStartTime() == null) != (exception.getEndTime() == null)) {
+            throw new BadRequestException("Give both a start and an end time, or neither for whole days");
+        }
+        if (exception.isWholeDay()) {
+            if (exception.getType() == AvailabilityExceptionType.OPEN) {
+                throw new BadRequestException("Extra opening hours need a start and an end time");
+            }
+        } else if (!exception.getEndTime().isAfter(exception.getStartTime())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.booking.availability;
+
+public enum AvailabilityExceptionType {
+    CLOSED,
+    OPEN
+}
@@ -0,0 +1,15 @@
+package com.example.booking.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityImportError {
+    // Line of the import body, counting from 1 and including a CSV header
+    private long line;
+    private Long businessId;
+    private String error;
+}
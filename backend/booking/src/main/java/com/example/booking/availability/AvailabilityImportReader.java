@@ -0,0 +1,175 @@
+package com.example.booking.availability;
+
+import com.example.booking.exceptions.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads availability slots from an import body one line at a time, as CSV or NDJSON.
+ * Only the current line and a fixed-size read buffer are held in memory; a line longer than MAX_LINE_LENGTH is
+ * skipped and reported instead of being buffered.
+ */
+@Component
+public class AvailabilityImportReader {
+    
+    public static final int MAX_LINE_LENGTH = 4_096;
+    
+    private static final String[] CSV_COLUMNS = {"businessId", "startDate", "endDate", "startTime", "endTime"};
+    
+    private final ObjectMapper objectMapper;
+    
+    public AvailabilityImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    public enum Format {
+        CSV, NDJSON;
+        
+        public static Format of(MediaType contentType) {
+            if (contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                return CSV;
+            }
+            if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return NDJSON;
+            }
+            throw new BadRequestException("Unsupported import content type: " + contentType + " (use text/csv or application/x-ndjson)");
+        }
+    }
+    
+    // A parsed line: the request, or the reason it could not be parsed
+    public record Row(long line, CreateAvailabilitySlotRequest request, String error) {
+    }
+    
+    // Hand every non-blank line to the handler in order and return how many lines were read. A CSV body may start
+    // with a header naming the columns in any order; without one the columns are businessId,startDate,endDate,startTime,endTime
+    public long read(InputStream body, Format format, Consumer<Row> handler) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        StringBuilder buffer = new StringBuilder(256);
+        int[] csvColumns = null;
+        long line = 0;
+        int length;
+        while ((length = readLine(reader, buffer)) >= 0) {
+            line++;
+            if (length > MAX_LINE_LENGTH) {
+                handler.accept(new Row(line, null, "Line is longer than " + MAX_LINE_LENGTH + " characters"));
+                continue;
+            }
+            String text = buffer.toString().strip();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                handler.accept(parseJson(line, text));
+                continue;
+            }
+            if (csvColumns == null) {
+                csvColumns = csvHeader(text);
+                if (csvColumns != null) {
+                    continue;
+                }
+                csvColumns = new int[] {0, 1, 2, 3, 4};
+            }
+            handler.accept(parseCsv(line, text, csvColumns));
+        }
+        return line;
+    }
+    
+    private Row parseJson(long line, String text) {
+        try {
+            return new Row(line, objectMapper.readValue(text, CreateAvailabilitySlotRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+    
+    // Positions of the known columns in a header line, or null when the line is data
+    private static int[] csvHeader(String text) {
+        String[] names = text.split(",", -1);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            positions.put(unquote(names[i]).toLowerCase(Locale.ROOT), i);
+        }
+        if (!positions.containsKey("businessid")) {
+            return null;
+        }
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            Integer position = positions.get(CSV_COLUMNS[i].toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new BadRequestException("CSV header is missing the " + CSV_COLUMNS[i] + " column");
+            }
+            columns[i] = position;
+        }
+        return columns;
+    }
+    
+    private static Row parseCsv(long line, String text, int[] columns) {
+        String[] fields = text.split(",", -1);
+        CreateAvailabilitySlotRequest request = new CreateAvailabilitySlotRequest();
+        try {
+            request.setBusinessId(field(fields, columns[0], CSV_COLUMNS[0], Long::valueOf));
+            request.setStartDate(field(fields, columns[1], CSV_COLUMNS[1], LocalDate::parse));
+            request.setEndDate(field(fields, columns[2], CSV_COLUMNS[2], LocalDate::parse));
+            request.setStartTime(field(fields, columns[3], CSV_COLUMNS[3], LocalTime::parse));
+            request.setEndTime(field(fields, columns[4], CSV_COLUMNS[4], LocalTime::parse));
+        } catch (IllegalArgumentException e) {
+            return new Row(line, null, e.getMessage());
+        }
+        return new Row(line, request, null);
+    }
+    
+    // An empty field is left null for validation to report; a malformed one fails the row
+    private static <T> T field(String[] fields, int index, String name, Function<String, T> parser) {
+        String value = index < fields.length ? unquote(fields[index]) : "";
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+    
+    private static String unquote(String value) {
+        String trimmed = value.strip();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).strip();
+        }
+        return trimmed;
+    }
+    
+    // Read up to the next line break into buffer, keeping at most MAX_LINE_LENGTH + 1 characters;
+    // returns the full line length (which may exceed what was kept), or -1 at the end of the body
+    private static int readLine(Reader reader, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int length = 0;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == '\n') {
+                return length;
+            }
+            if (c != '\r' && length++ <= MAX_LINE_LENGTH) {
+                buffer.append((char) c);
+            }
+        }
+        return length > 0 ? length : -1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.booking.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityImportResult {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<AvailabilityImportError> errors;
+    // True when more rows were rejected than errors lists
+    private boolean errorsTruncated;
+}
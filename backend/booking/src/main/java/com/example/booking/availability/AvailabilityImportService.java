@@ -0,0 +1,293 @@
+package com.example.booking.availability;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+public class AvailabilityImportService {
+    
+    private final AvailabilityImportReader availabilityImportReader;
+    private final AvailabilitySlotRepository availabilitySlotRepository;
+    private final BusinessRepository businessRepository;
+    private final AuthenticationHelper authenticationHelper;
+    private final OccupancyCalendarCache calendarCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final DayCapacityStore dayCapacityStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long maxRows;
+    private final int maxReportedErrors;
+    
+    public AvailabilityImportService(AvailabilityImportReader availabilityImportReader,
+                                     AvailabilitySlotRepository availabilitySlotRepository,
+                                     BusinessRepository businessRepository,
+                                     AuthenticationHelper authenticationHelper,
+                                     OccupancyCalendarCache calendarCache,
+                                     AvailabilityIndex availabilityIndex,
+                                     DayCapacityStore dayCapacityStore,
+                                     JdbcTemplate jdbcTemplate,
+                                     Validator validator,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${booking.import.batch-size:500}") int batchSize,
+                                     @Value("${booking.import.max-rows:200000}") long maxRows,
+                                     @Value("${booking.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.availabilityImportReader = availabilityImportReader;
+        this.availabilitySlotRepository = availabilitySlotRepository;
+        this.businessRepository = businessRepository;
+        this.authenticationHelper = authenticationHelper;
+        this.calendarCache = calendarCache;
+        this.availabilityIndex = availabilityIndex;
+        this.dayCapacityStore = dayCapacityStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+    
+    // Import availability slots from a CSV or NDJSON body. Rows are parsed, validated and ownership-checked as they
+    // stream in, and written batch-size at a time: each business's rows of a batch get a short transaction of their
+    // own, which locks the business only to check them against its stored slots, insert them and refresh its capacity.
+    // Nothing stays locked while the client is sending and memory holds one batch, so batches already written stay
+    // imported if the body later turns out to be unreadable or too long; invalid rows are skipped and reported
+    public AvailabilityImportResult importAvailabilitySlots(InputStream body, AvailabilityImportReader.Format format) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        if (currentUser.getRole() != UserRole.BUSINESS) {
+            throw new ForbiddenException("Only users with BUSINESS role can import availability slots");
+        }
+        
+        Run run = new Run(currentUser.getId());
+        try {
+            availabilityImportReader.read(body, format, run::accept);
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read the import body: " + e.getMessage()
+                + " (" + run.imported + " rows were imported before)");
+        }
+        run.flush();
+        
+        // Overlaps are found when a batch is written, after format errors of later lines
+        run.errors.sort(Comparator.comparingLong(AvailabilityImportError::getLine));
+        return new AvailabilityImportResult(run.rows, run.imported, run.rejected, run.errors,
+            run.rejected > run.errors.size());
+    }
+    
+    // State of one import: the ownership check of every business seen so far, rows waiting for the next batch and
+    // the error report
+    private final class Run {
+        
+        private final Long ownerId;
+        // Null for businesses rows may be imported into, otherwise why they are refused
+        private final Map<Long, String> refusals = new HashMap<>();
+        private final List<PendingSlot> batch = new ArrayList<>(batchSize);
+        private final List<AvailabilityImportError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+        
+        private Run(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+        
+        void accept(AvailabilityImportReader.Row row) {
+            if (++rows > maxRows) {
+                throw new BadRequestException("An import may contain at most " + maxRows + " rows ("
+                    + imported + " rows were imported before)");
+            }
+            CreateAvailabilitySlotRequest request = row.request();
+            if (row.error() != null) {
+                reject(row.line(), null, row.error());
+                return;
+            }
+            
+            String invalid = validate(request);
+            if (invalid != null) {
+                reject(row.line(), request.getBusinessId(), invalid);
+                return;
+            }
+            
+            String refusal = refusal(request.getBusinessId());
+            if (refusal != null) {
+                reject(row.line(), request.getBusinessId(), refusal);
+                return;
+            }
+            
+            batch.add(new PendingSlot(row.line(), request.getBusinessId(), new AvailabilityInterval(null,
+                request.getStartDate(), request.getEndDate(), request.getStartTime(), request.getEndTime())));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        // Write the pending rows, one transaction per business in ID order so concurrent imports lock in the same order
+        void flush() {
+            Map<Long, List<PendingSlot>> byBusiness = new TreeMap<>();
+            for (PendingSlot slot : batch) {
+                byBusiness.computeIfAbsent(slot.businessId(), id -> new ArrayList<>()).add(slot);
+            }
+            batch.clear();
+            
+            for (Map.Entry<Long, List<PendingSlot>> business : byBusiness.entrySet()) {
+                Integer written = transactionTemplate.execute(status -> write(business.getKey(), business.getValue()));
+                imported += written != null ? written : 0;
+            }
+            // With open-in-view the request's persistence context outlives these transactions; drop what they loaded
+            entityManager.clear();
+        }
+        
+        // Under the business lock, skip rows overlapping a stored slot or an earlier row, insert the others and refresh
+        // the business for the dates they cover; returns how many rows were inserted
+        private int write(Long businessId, List<PendingSlot> slots) {
+            // The business may have been deleted or handed over since its first row was checked
+            String refusal = refusalOf(businessRepository.findByIdForUpdate(businessId).orElse(null), businessId);
+            if (refusal != null) {
+                refusals.put(businessId, refusal);
+                slots.forEach(slot -> reject(slot.line(), businessId, refusal));
+                return 0;
+            }
+            
+            // A locking read after the lock is held, so slots other transactions committed until then are included
+            AvailabilityIntervalTree stored = AvailabilityIntervalTree.of(availabilitySlotRepository.findIntervalsOverlappingDatesForShare(
+                businessId, earliestStart(slots), latestEnd(slots)));
+            List<PendingSlot> accepted = new ArrayList<>(slots.size());
+            for (PendingSlot slot : slots) {
+                String overlap = overlap(slot.interval(), stored, accepted);
+                if (overlap != null) {
+                    reject(slot.line(), businessId, overlap);
+                } else {
+                    accepted.add(slot);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return 0;
+            }
+            
+            insert(accepted);
+            dayCapacityStore.reopen(businessId, earliestStart(accepted), latestEnd(accepted));
+            calendarCache.evict(businessId);
+            availabilityIndex.invalidate(businessId);
+            return accepted.size();
+        }
+        
+        // Checked once, on the business's first row; later rows reuse the outcome
+        private String refusal(Long businessId) {
+            if (!refusals.containsKey(businessId)) {
+                refusals.put(businessId, refusalOf(businessRepository.findById(businessId).orElse(null), businessId));
+            }
+            return refusals.get(businessId);
+        }
+        
+        private String refusalOf(Business business, Long businessId) {
+            if (business == null) {
+                return new ResourceNotFoundException("Business", "id", businessId).getMessage();
+            }
+            if (!business.getOwner().getId().equals(ownerId)) {
+                return "You can only import availability slots for your own businesses";
+            }
+            return null;
+        }
+        
+        private void reject(long line, Long businessId, String error) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new AvailabilityImportError(line, businessId, error));
+            }
+        }
+    }
+    
+    // Same checks as a single create, with the first failure as the row's error
+    private String validate(CreateAvailabilitySlotRequest request) {
+        Set<ConstraintViolation<CreateAvailabilitySlotRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (request.isMerge()) {
+            return "Merging is not supported by imports";
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            return "End date must be after or equal to start date";
+        }
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            return "End time must be after start time";
+        }
+        return null;
+    }
+    
+    // Insert the rows with one multi-row statement
+    private void insert(List<PendingSlot> slots) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO availability_slots (business_id, start_date, end_date, start_time, end_time) VALUES (?, ?, ?, ?, ?)",
+            slots, slots.size(), (ps, slot) -> {
+                ps.setLong(1, slot.businessId());
+                ps.setDate(2, Date.valueOf(slot.interval().startDate()));
+                ps.setDate(3, Date.valueOf(slot.interval().endDate()));
+                ps.setTime(4, Time.valueOf(slot.interval().startTime()));
+                ps.setTime(5, Time.valueOf(slot.interval().endTime()));
+            });
+    }
+    
+    // Why the interval cannot be added, or null when it shares no open minute with the stored or accepted slots
+    private static String overlap(AvailabilityInterval interval, AvailabilityIntervalTree stored, List<PendingSlot> accepted) {
+        for (AvailabilityInterval existing : stored.overlapping(interval.startDate(), interval.endDate())) {
+            if (interval.overlaps(existing)) {
+                return describe(existing);
+            }
+        }
+        for (PendingSlot slot : accepted) {
+            if (interval.overlaps(slot.interval())) {
+                return describe(slot.interval());
+            }
+        }
+        return null;
+    }
+    
+    private static String describe(AvailabilityInterval existing) {
+        String what = existing.id() != null ? "slot " + existing.id() : "an earlier row of this import";
+        return String.format("Availability overlaps %s (%s to %s, %s-%s)", what,
+            existing.startDate(), existing.endDate(), existing.startTime(), existing.endTime());
+    }
+    
+    private static LocalDate earliestStart(List<PendingSlot> slots) {
+        return slots.stream().map(slot -> slot.interval().startDate()).min(Comparator.naturalOrder()).orElseThrow();
+    }
+    
+    private static LocalDate latestEnd(List<PendingSlot> slots) {
+        return slots.stream().map(slot -> slot.interval().endDate()).max(Comparator.naturalOrder()).orElseThrow();
+    }
+    
+    private record PendingSlot(long line, Long businessId, AvailabilityInterval interval) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.booking.availability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory availability of recently used businesses, kept least-recently-used: an interval tree of the
+ * business's slots, its weekly schedule of recurring rules, which is expanded only for the dates looked up,
+ * and its exceptions keyed by date. All three are loaded on first use. Writers apply their changes to a loaded tree once their transaction
+ * commits, and every change bumps the business generation, so a tree loaded from data read before the change is
+ * dropped instead of being cached. Trees older than max-age are reloaded to pick up writes made by other instances.
+ */
+@Component
+public class AvailabilityIndex {
+    
+    private final AvailabilitySlotRepository availabilitySlotRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final AvailabilityExceptionRepository availabilityExceptionRepository;
+    private final long maxAgeNanos;
+    private final Map<Long, Entry> trees;
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> changeListeners = new CopyOnWriteArrayList<>();
+    
+    public AvailabilityIndex(AvailabilitySlotRepository availabilitySlotRepository,
+                             AvailabilityRuleRepository availabilityRuleRepository,
+                             AvailabilityExceptionRepository availabilityExceptionRepository,
+                             @Value("${booking.availability-index.max-entries:10000}") int maxEntries,
+                             @Value("${booking.availability-index.max-age-seconds:300}") long maxAgeSeconds) {
+        this.availabilitySlotRepository = availabilitySlotRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.availabilityExceptionRepository = availabilityExceptionRepository;
+        this.maxAgeNanos = Duration.ofSeconds(maxAgeSeconds).toNanos();
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    // Minute map of the hours a business is open on a date: its slots and rules, with that date's exceptions applied
+    public DayOccupancy openHours(Long businessId, LocalDate date) {
+        return openHours(entry(businessId), date);
+    }
+    
+    // Open hours of dayCount days from firstDay read straight from the database with locking reads, bypassing the
+    // cache, so the calling transaction sees its own availability changes before they commit and every change
+    // committed since its snapshot was taken
+    public DayOccupancy[] loadOpenHours(Long businessId, LocalDate firstDay, int dayCount) {
+        Entry entry = entryOf(availabilitySlotRepository.findByBusinessIdForShare(businessId),
+            availabilityRuleRepository.findByBusinessIdForShare(businessId),
+            availabilityExceptionRepository.findByBusinessIdForShare(businessId), System.nanoTime());
+        DayOccupancy[] days = new DayOccupancy[dayCount];
+        for (int i = 0; i < dayCount; i++) {
+            days[i] = openHours(entry, firstDay.plusDays(i));
+        }
+        return days;
+    }
+    
+    private static DayOccupancy openHours(Entry entry, LocalDate date) {
+        DayOccupancy occupancy = new DayOccupancy();
+        for (AvailabilityInterval interval : entry.tree().openOn(date)) {
+            occupancy.open(DayOccupancy.toMinute(interval.startTime()), DayOccupancy.toMinute(interval.endTime()));
+        }
+        for (AvailabilityInterval interval : entry.schedule().openOn(date)) {
+            occupancy.open(DayOccupancy.toMinute(interval.startTime()), DayOccupancy.toMinute(interval.endTime()));
+        }
+        entry.exceptions().applyTo(occupancy, date);
+        return occupancy;
+    }
+    
+    // Apply a change to the business's tree once the current transaction (if any) commits
+    public void update(Long businessId, Set<Long> removedIds, Collection<AvailabilityInterval> added) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updateNow(businessId, removedIds, added);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    updateNow(businessId, removedIds, added);
+                } else if (status == STATUS_UNKNOWN) {
+                    evictNow(businessId);
+                }
+            }
+        });
+    }
+    
+    // Called with the business ID after every committed availability change; listeners must be quick and not throw
+    public void addChangeListener(Consumer<Long> listener) {
+        changeListeners.add(listener);
+    }
+    
+    // Drop the business so its slots, rules and exceptions are loaded again, once the current transaction (if any) commits
+    public void invalidate(Long businessId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(businessId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    evictNow(businessId);
+                }
+            }
+        });
+    }
+    
+    private Entry entry(Long businessId) {
+        synchronized (this) {
+            Entry entry = trees.get(businessId);
+            if (entry != null && System.nanoTime() - entry.loadedAt() < maxAgeNanos) {
+                return entry;
+            }
+        }
+        
+        // Load outside the lock; taken before reading so a change that commits meanwhile keeps this entry out
+        long generation = generations.getOrDefault(businessId, 0L);
+        Entry entry = load(businessId, System.nanoTime());
+        synchronized (this) {
+            if (generations.getOrDefault(businessId, 0L) == generation) {
+                trees.put(businessId, entry);
+            }
+        }
+        return entry;
+    }
+    
+    private Entry load(Long businessId, long loadedAt) {
+        return entryOf(availabilitySlotRepository.findByBusinessId(businessId),
+            availabilityRuleRepository.findByBusinessIdOrderByValidFromAscIdAsc(businessId),
+            availabilityExceptionRepository.findByBusinessIdOrderByStartDateAscIdAsc(businessId), loadedAt);
+    }
+    
+    private static Entry entryOf(List<AvailabilitySlot> slots, List<AvailabilityRule> rules,
+                                 List<AvailabilityException> exceptions, long loadedAt) {
+        AvailabilityIntervalTree tree = AvailabilityIntervalTree.of(slots.stream()
+            .map(AvailabilityInterval::of)
+            .toList());
+        return new Entry(tree, WeeklySchedule.of(rules), AvailabilityExceptionCalendar.of(exceptions), loadedAt);
+    }
+    
+    private void updateNow(Long businessId, Set<Long> removedIds, Collection<AvailabilityInterval> added) {
+        synchronized (this) {
+            generations.merge(businessId, 1L, Long::sum);
+            trees.computeIfPresent(businessId, (id, entry) -> new Entry(entry.tree().with(removedIds, added), entry.schedule(), entry.exceptions(), entry.loadedAt()));
+        }
+        changeListeners.forEach(listener -> listener.accept(businessId));
+    }
+    
+    private void evictNow(Long businessId) {
+        synchronized (this) {
+            generations.merge(businessId, 1L, Long::sum);
+            trees.remove(businessId);
+        }
+        changeListeners.forEach(listener -> listener.accept(businessId));
+    }
+    
+    private record Entry(AvailabilityIntervalTree tree, WeeklySchedule schedule, AvailabilityExceptionCalendar exceptions,
+                         long loadedAt) {
+    }
+}
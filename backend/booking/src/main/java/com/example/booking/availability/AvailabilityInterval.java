@@ -0,0 +1,51 @@
+package com.example.booking.availability;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The open hours of one availability slot: every date of [startDate, endDate], from startTime until endTime.
+ */
+public record AvailabilityInterval(Long id, LocalDate startDate, LocalDate endDate, LocalTime startTime, LocalTime endTime) {
+    
+    public static AvailabilityInterval of(AvailabilitySlot slot) {
+        return new AvailabilityInterval(slot.getId(), slot.getStartDate(), slot.getEndDate(), slot.getStartTime(), slot.getEndTime());
+    }
+    
+    // True when both share at least one date and one minute of the day
+    public boolean overlaps(AvailabilityInterval other) {
+        return datesOverlap(other) && timesOverlap(other);
+    }
+    
+    // True when every open minute of other is also open in this interval
+    public boolean contains(AvailabilityInterval other) {
+        return !startDate.isAfter(other.startDate) && !endDate.isBefore(other.endDate)
+            && !startTime.isAfter(other.startTime) && !endTime.isBefore(other.endTime);
+    }
+    
+    // True when the union of both is itself one interval: same hours on touching dates, or touching hours on the same dates
+    public boolean mergeableWith(AvailabilityInterval other) {
+        boolean sameTimes = startTime.equals(other.startTime) && endTime.equals(other.endTime);
+        boolean sameDates = startDate.equals(other.startDate) && endDate.equals(other.endDate);
+        boolean datesTouch = !startDate.isAfter(other.endDate.plusDays(1)) && !other.startDate.isAfter(endDate.plusDays(1));
+        boolean timesTouch = !startTime.isAfter(other.endTime) && !other.startTime.isAfter(endTime);
+        return (sameTimes && datesTouch) || (sameDates && timesTouch) || contains(other) || other.contains(this);
+    }
+    
+    // Smallest interval covering both, keeping this interval's ID
+    public AvailabilityInterval union(AvailabilityInterval other) {
+        return new AvailabilityInterval(id,
+            startDate.isBefore(other.startDate) ? startDate : other.startDate,
+            endDate.isAfter(other.endDate) ? endDate : other.endDate,
+            startTime.isBefore(other.startTime) ? startTime : other.startTime,
+            endTime.isAfter(other.endTime) ? endTime : other.endTime);
+    }
+    
+    private boolean datesOverlap(AvailabilityInterval other) {
+        return !startDate.isAfter(other.endDate) && !other.startDate.isAfter(endDate);
+    }
+    
+    private boolean timesOverlap(AvailabilityInterval other) {
+        return startTime.isBefore(other.endTime) && other.startTime.isBefore(endTime);
+    }
+}
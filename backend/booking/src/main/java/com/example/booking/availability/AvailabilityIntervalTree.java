@@ -0,0 +1,99 @@
+package com.example.booking.availability;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable interval tree over the date ranges of a business's availability.
+ * Intervals are kept sorted by start date in an array read as an implicit balanced tree: the middle of a range is
+ * its root, and each root stores the latest end date below it. A query skips every subtree that ends before the
+ * requested dates or starts after them, so it costs O(log n + k) for k matches.
+ * Changes return a new tree, so readers never need a lock.
+ */
+public final class AvailabilityIntervalTree {
+    
+    private static final Comparator<AvailabilityInterval> ORDER = Comparator
+        .comparing(AvailabilityInterval::startDate)
+        .thenComparing(AvailabilityInterval::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    public static final AvailabilityIntervalTree EMPTY = new AvailabilityIntervalTree(new AvailabilityInterval[0]);
+    
+    private final AvailabilityInterval[] intervals;
+    private final long[] maxEnd;
+    
+    private AvailabilityIntervalTree(AvailabilityInterval[] sorted) {
+        this.intervals = sorted;
+        this.maxEnd = new long[sorted.length];
+        computeMaxEnd(0, sorted.length);
+    }
+    
+    public static AvailabilityIntervalTree of(Collection<AvailabilityInterval> intervals) {
+        AvailabilityInterval[] sorted = intervals.toArray(new AvailabilityInterval[0]);
+        Arrays.sort(sorted, ORDER);
+        return new AvailabilityIntervalTree(sorted);
+    }
+    
+    // A copy without the intervals whose IDs are given and with the added ones
+    public AvailabilityIntervalTree with(Set<Long> removedIds, Collection<AvailabilityInterval> added) {
+        List<AvailabilityInterval> next = new ArrayList<>(intervals.length + added.size());
+        for (AvailabilityInterval interval : intervals) {
+            if (!removedIds.contains(interval.id())) {
+                next.add(interval);
+            }
+        }
+        next.addAll(added);
+        return of(next);
+    }
+    
+    public int size() {
+        return intervals.length;
+    }
+    
+    // Intervals open on the given date, in start date order
+    public List<AvailabilityInterval> openOn(LocalDate date) {
+        return overlapping(date, date);
+    }
+    
+    // Intervals whose date range shares at least one date with [from, to], in start date order
+    public List<AvailabilityInterval> overlapping(LocalDate from, LocalDate to) {
+        List<AvailabilityInterval> result = new ArrayList<>();
+        collect(0, intervals.length, from.toEpochDay(), to.toEpochDay(), result);
+        return result;
+    }
+    
+    private void collect(int lo, int hi, long from, long to, List<AvailabilityInterval> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        // Nothing below this root lasts until from
+        if (maxEnd[mid] < from) {
+            return;
+        }
+        collect(lo, mid, from, to, result);
+        // This root and everything to its right start after to
+        if (intervals[mid].startDate().toEpochDay() > to) {
+            return;
+        }
+        if (intervals[mid].endDate().toEpochDay() >= from) {
+            result.add(intervals[mid]);
+        }
+        collect(mid + 1, hi, from, to, result);
+    }
+    
+    private long computeMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(intervals[mid].endDate().toEpochDay(),
+            Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.booking.availability;
+
+import com.example.booking.businesses.Business;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "availability_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityRule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+    
+    // Mask of DayOfWeek bits the rule applies to
+    @Column(name = "weekdays", nullable = false)
+    private int weekdays;
+    
+    @NotNull(message = "Start time is required")
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+    
+    @NotNull(message = "End time is required")
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+    
+    @NotNull(message = "Valid from date is required")
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+    
+    // Last date the rule applies to; null when it has no end
+    @Column(name = "valid_until")
+    private LocalDate validUntil;
+    
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,81 @@
+package com.example.booking.availability;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/availability-rules")
+@Tag(name = "Availability Rule Management", description = "APIs for managing recurring weekly business hours")
+public class AvailabilityRuleController {
+    
+    private final AvailabilityRuleService availabilityRuleService;
+    
+    public AvailabilityRuleController(AvailabilityRuleService availabilityRuleService) {
+        this.availabilityRuleService = availabilityRuleService;
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Create a new availability rule", 
+               description = "Creates recurring weekly hours for a business, e.g. MONDAY to FRIDAY 09:00-17:00 from a date on. Only the business owner can create rules for their own businesses.")
+    public ResponseEntity<AvailabilityRuleDto> createAvailabilityRule(@Valid @RequestBody CreateAvailabilityRuleRequest request) {
+        AvailabilityRuleDto rule = availabilityRuleService.createAvailabilityRule(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(rule);
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get availability rule by ID", 
+               description = "Retrieves an availability rule by its unique identifier. Accessible to all authenticated users.")
+    public ResponseEntity<AvailabilityRuleDto> getAvailabilityRuleById(
+            @Parameter(description = "Availability Rule ID", required = true) @PathVariable Long id) {
+        AvailabilityRuleDto rule = availabilityRuleService.getAvailabilityRuleById(id);
+        return ResponseEntity.ok(rule);
+    }
+    
+    @GetMapping("/business/{businessId}")
+    @Operation(summary = "Get availability rules by business", 
+               description = "Retrieves all recurring availability rules of a business. Accessible to all authenticated users.")
+    public ResponseEntity<List<AvailabilityRuleDto>> getAvailabilityRulesByBusinessId(
+            @Parameter(description = "Business ID", required = true) @PathVariable Long businessId) {
+        List<AvailabilityRuleDto> rules = availabilityRuleService.getAvailabilityRulesByBusinessId(businessId);
+        return ResponseEntity.ok(rules);
+    }
+    
+    @GetMapping("/my")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Get my availability rules", 
+               description = "Retrieves all availability rules of the authenticated business owner's businesses")
+    public ResponseEntity<List<AvailabilityRuleDto>> getMyAvailabilityRules() {
+        List<AvailabilityRuleDto> rules = availabilityRuleService.getMyAvailabilityRules();
+        return ResponseEntity.ok(rules);
+    }
+    
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Update availability rule", 
+               description = "Updates an existing availability rule; fields left out keep their value. Only the business owner can update rules for their own businesses.")
+    public ResponseEntity<AvailabilityRuleDto> updateAvailabilityRule(
+            @Parameter(description = "Availability Rule ID", required = true) @PathVariable Long id,
+            @Valid @RequestBody UpdateAvailabilityRuleRequest request) {
+        AvailabilityRuleDto rule = availabilityRuleService.updateAvailabilityRule(id, request);
+        return ResponseEntity.ok(rule);
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Delete availability rule", 
+               description = "Deletes an availability rule. Only the business owner can delete rules for their own businesses.")
+    public ResponseEntity<Void> deleteAvailabilityRule(
+            @Parameter(description = "Availability Rule ID", required = true) @PathVariable Long id) {
+        availabilityRuleService.deleteAvailabilityRule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
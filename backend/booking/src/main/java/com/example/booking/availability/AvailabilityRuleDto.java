@@ -0,0 +1,19 @@
+package com.example.booking.availability;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+public class AvailabilityRuleDto {
+    private Long id;
+    private Long businessId;
+    private String businessName;
+    private Set<DayOfWeek> days;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate validFrom;
+    private LocalDate validUntil;
+}
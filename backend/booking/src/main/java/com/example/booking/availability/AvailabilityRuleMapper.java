@@ -0,0 +1,42 @@
+package com.example.booking.availability;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.Set;
+
+@Mapper(componentModel = "spring")
+public interface AvailabilityRuleMapper {
+    
+    @Mapping(source = "business.id", target = "businessId")
+    @Mapping(source = "business.name", target = "businessName")
+    @Mapping(source = "weekdays", target = "days")
+    AvailabilityRuleDto toDto(AvailabilityRule availabilityRule);
+    
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "business", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(source = "days", target = "weekdays")
+    AvailabilityRule toEntity(CreateAvailabilityRuleRequest request);
+    
+    // Fields left out of the request keep their value
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "business", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(source = "days", target = "weekdays")
+    void updateEntity(UpdateAvailabilityRuleRequest request, @MappingTarget AvailabilityRule availabilityRule);
+    
+    default int toMask(Set<DayOfWeek> days) {
+        return days == null ? 0 : DayOfWeek.toMask(days);
+    }
+    
+    default Set<DayOfWeek> fromMask(int weekdays) {
+        return DayOfWeek.fromMask(weekdays);
+    }
+}
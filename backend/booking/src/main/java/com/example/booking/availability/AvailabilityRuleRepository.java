@@ -0,0 +1,24 @@
+package com.example.booking.availability;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRule, Long> {
+    
+    // Get all availability rules of a business in the order they start
+    List<AvailabilityRule> findByBusinessIdOrderByValidFromAscIdAsc(Long businessId);
+    
+    // The same with a locking read (FOR SHARE), which sees the latest committed rows instead of the transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT r FROM AvailabilityRule r WHERE r.business.id = :businessId ORDER BY r.validFrom, r.id")
+    List<AvailabilityRule> findByBusinessIdForShare(@Param("businessId") Long businessId);
+    
+    // Get availability rules by business owner
+    @Query("SELECT r FROM AvailabilityRule r WHERE r.business.owner.id = :ownerId ORDER BY r.business.id, r.validFrom, r.id")
+    List<AvailabilityRule> findByBusinessOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,179 @@
+package com.example.booking.availability;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRole;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class AvailabilityRuleService {
+    
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final BusinessRepository businessRepository;
+    private final AvailabilityRuleMapper availabilityRuleMapper;
+    private final AuthenticationHelper authenticationHelper;
+    private final OccupancyCalendarCache calendarCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final DayCapacityStore dayCapacityStore;
+    
+    public AvailabilityRuleService(AvailabilityRuleRepository availabilityRuleRepository,
+                                   BusinessRepository businessRepository,
+                                   AvailabilityRuleMapper availabilityRuleMapper,
+                                   AuthenticationHelper authenticationHelper,
+                                   OccupancyCalendarCache calendarCache,
+                                   AvailabilityIndex availabilityIndex,
+                                   DayCapacityStore dayCapacityStore) {
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.businessRepository = businessRepository;
+        this.availabilityRuleMapper = availabilityRuleMapper;
+        this.authenticationHelper = authenticationHelper;
+        this.calendarCache = calendarCache;
+        this.availabilityIndex = availabilityIndex;
+        this.dayCapacityStore = dayCapacityStore;
+    }
+    
+    // Create a recurring availability rule for a business Only the business owner can create rules for their business
+    public AvailabilityRuleDto createAvailabilityRule(CreateAvailabilityRuleRequest request) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        if (currentUser.getRole() != UserRole.BUSINESS) {
+            throw new ForbiddenException("Only users with BUSINESS role can create availability rules");
+        }
+        
+        // The row lock serializes availability writes of the business so overlap checks see each other
+        Business business = businessRepository.findByIdForUpdate(request.getBusinessId())
+            .orElseThrow(() -> new ResourceNotFoundException("Business", "id", request.getBusinessId()));
+        
+        if (!business.getOwner().getId().equals(currentUser.getId())) {
+            throw new ForbiddenException("You can only create availability rules for your own businesses");
+        }
+        
+        AvailabilityRule rule = availabilityRuleMapper.toEntity(request);
+        rule.setBusiness(business);
+        validate(rule);
+        rejectOverlaps(rule);
+        
+        AvailabilityRule savedRule = availabilityRuleRepository.save(rule);
+        dayCapacityStore.reopen(business.getId(), savedRule.getValidFrom(), savedRule.getValidUntil());
+        calendarCache.evict(business.getId());
+        availabilityIndex.invalidate(business.getId());
+        return availabilityRuleMapper.toDto(savedRule);
+    }
+    
+    // Get an availability rule by ID Accessible to all authenticated users
+    public AvailabilityRuleDto getAvailabilityRuleById(Long id) {
+        AvailabilityRule rule = availabilityRuleRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("AvailabilityRule", "id", id));
+        return availabilityRuleMapper.toDto(rule);
+    }
+    
+    // Get all availability rules for a specific business Accessible to all authenticated users
+    public List<AvailabilityRuleDto> getAvailabilityRulesByBusinessId(Long businessId) {
+        return availabilityRuleRepository.findByBusinessIdOrderByValidFromAscIdAsc(businessId).stream()
+            .map(availabilityRuleMapper::toDto)
+            .collect(Collectors.toList());
+    }
+    
+    // Get all availability rules of the current user's businesses Only for BUSINESS users
+    public List<AvailabilityRuleDto> getMyAvailabilityRules() {
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        return availabilityRuleRepository.findByBusinessOwnerId(currentUserId).stream()
+            .map(availabilityRuleMapper::toDto)
+            .collect(Collectors.toList());
+    }
+    
+    // Update an availability rule Only the business owner can update their rules
+    public AvailabilityRuleDto updateAvailabilityRule(Long id, UpdateAvailabilityRuleRequest request) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        AvailabilityRule rule = availabilityRuleRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("AvailabilityRule", "id", id));
+        
+        if (!rule.getBusiness().getOwner().getId().equals(currentUser.getId())) {
+            throw new ForbiddenException("You can only update availability rules for your own businesses");
+        }
+        Long businessId = rule.getBusiness().getId();
+        businessRepository.findByIdForUpdate(businessId);
+        
+        // Check the rule as it will be after the update before touching the managed entity
+        AvailabilityRule updated = new AvailabilityRule();
+        updated.setId(id);
+        updated.setBusiness(rule.getBusiness());
+        updated.setWeekdays(request.getDays() != null ? DayOfWeek.toMask(request.getDays()) : rule.getWeekdays());
+        updated.setStartTime(request.getStartTime() != null ? request.getStartTime() : rule.getStartTime());
+        updated.setEndTime(request.getEndTime() != null ? request.getEndTime() : rule.getEndTime());
+        updated.setValidFrom(request.getValidFrom() != null ? request.getValidFrom() : rule.getValidFrom());
+        updated.setValidUntil(request.getValidUntil() != null ? request.getValidUntil() : rule.getValidUntil());
+        validate(updated);
+        rejectOverlaps(updated);
+        
+        availabilityRuleMapper.updateEntity(request, rule);
+        AvailabilityRule savedRule = availabilityRuleRepository.save(rule);
+        // Both the old and the new validity changed, so the whole window is recomputed
+        dayCapacityStore.reopen(businessId, null, null);
+        calendarCache.evict(businessId);
+        availabilityIndex.invalidate(businessId);
+        return availabilityRuleMapper.toDto(savedRule);
+    }
+    
+    // Delete an availability rule Only the business owner can delete their rules
+    public void deleteAvailabilityRule(Long id) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        AvailabilityRule rule = availabilityRuleRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("AvailabilityRule", "id", id));
+        
+        if (!rule.getBusiness().getOwner().getId().equals(currentUser.getId())) {
+            throw new ForbiddenException("You can only delete availability rules for your own businesses");
+        }
+        
+        availabilityRuleRepository.delete(rule);
+        dayCapacityStore.reopen(rule.getBusiness().getId(), rule.getValidFrom(), rule.getValidUntil());
+        calendarCache.evict(rule.getBusiness().getId());
+        availabilityIndex.invalidate(rule.getBusiness().getId());
+    }
+    
+    private static void validate(AvailabilityRule rule) {
+        if (rule.getWeekdays() == 0) {
+            throw new BadRequestException("At least one day is required");
+        }
+        if (!rule.getEndTime().isAfter(rule.getStartTime())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        if (rule.getValidUntil() != null && rule.getValidUntil().isBefore(rule.getValidFrom())) {
+            throw new BadRequestException("Valid until date must be after or equal to valid from date");
+        }
+    }
+    
+    // Two rules overlap when they share a weekday, a date of their validity and a minute of their hours
+    private void rejectOverlaps(AvailabilityRule rule) {
+        for (AvailabilityRule other : availabilityRuleRepository.findByBusinessIdOrderByValidFromAscIdAsc(rule.getBusiness().getId())) {
+            if (other.getId().equals(rule.getId()) || (other.getWeekdays() & rule.getWeekdays()) == 0) {
+                continue;
+            }
+            boolean datesOverlap = startsBeforeEnd(rule.getValidFrom(), other.getValidUntil())
+                && startsBeforeEnd(other.getValidFrom(), rule.getValidUntil());
+            boolean timesOverlap = rule.getStartTime().isBefore(other.getEndTime()) && other.getStartTime().isBefore(rule.getEndTime());
+            if (datesOverlap && timesOverlap) {
+                throw new BadRequestException(String.format("Availability rule overlaps rule %d (%s %s-%s from %s%s)",
+                    other.getId(), DayOfWeek.fromMask(other.getWeekdays()), other.getStartTime(), other.getEndTime(),
+                    other.getValidFrom(), other.getValidUntil() != null ? " until " + other.getValidUntil() : ""));
+            }
+        }
+    }
+    
+    private static boolean startsBeforeEnd(LocalDate start, LocalDate end) {
+        return end == null || !start.isAfter(end);
+    }
+}
@@ -11,7 +11,12 @@ import com.example.booking.users.UserRole;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,15 +27,24 @@ public class AvailabilityService {
     private final BusinessRepository businessRepository;
     private final AvailabilitySlotMapper availabilitySlotMapper;
     private final AuthenticationHelper authenticationHelper;
+    private final OccupancyCalendarCache calendarCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final DayCapacityStore dayCapacityStore;
     
     public AvailabilityService(AvailabilitySlotRepository availabilitySlotRepository,
                               BusinessRepository businessRepository,
                               AvailabilitySlotMapper availabilitySlotMapper,
-                              AuthenticationHelper authenticationHelper) {
+                              AuthenticationHelper authenticationHelper,
+                              OccupancyCalendarCache calendarCache,
+                              AvailabilityIndex availabilityIndex,
+                              DayCapacityStore dayCapacityStore) {
         this.availabilitySlotRepository = availabilitySlotRepository;
         this.businessRepository = businessRepository;
         this.availabilitySlotMapper = availabilitySlotMapper;
         this.authenticationHelper = authenticationHelper;
+        this.calendarCache = calendarCache;
+        this.availabilityIndex = availabilityIndex;
+        this.dayCapacityStore = dayCapacityStore;
     }
     
     // Create a new availability slot for a business Only the business owner can create slots for their business
@@ -42,8 +56,8 @@ public class AvailabilityService {
             throw new ForbiddenException("Only users with BUSINESS role can create availability slots");
         }
         
-        // Get the business and verify ownership
-        Business business = businessRepository.findById(request.getBusinessId())
+        // Get the business and verify ownership; the row lock serializes availability writes so overlap checks see each other
+        Business business = businessRepository.findByIdForUpdate(request.getBusinessId())
             .orElseThrow(() -> new ResourceNotFoundException("Business", "id", request.getBusinessId()));
         
         if (!business.getOwner().getId().equals(currentUser.getId())) {
@@ -61,10 +75,20 @@ public class AvailabilityService {
             throw new BadRequestException("End time must be after start time");
         }
         
+        AvailabilityInterval requested = new AvailabilityInterval(null, request.getStartDate(), request.getEndDate(),
+            request.getStartTime(), request.getEndTime());
+        if (request.isMerge()) {
+            return mergeAvailabilitySlot(business, requested);
+        }
+        rejectOverlaps(business.getId(), requested, null);
+        
         AvailabilitySlot availabilitySlot = availabilitySlotMapper.toEntity(request);
         availabilitySlot.setBusiness(business);
         
         AvailabilitySlot savedSlot = availabilitySlotRepository.save(availabilitySlot);
+        dayCapacityStore.reopen(business.getId(), savedSlot.getStartDate(), savedSlot.getEndDate());
+        calendarCache.evict(business.getId());
+        availabilityIndex.update(business.getId(), Set.of(), List.of(AvailabilityInterval.of(savedSlot)));
         return availabilitySlotMapper.toDto(savedSlot);
     }
     
@@ -111,6 +135,8 @@ public class AvailabilityService {
         if (!slot.getBusiness().getOwner().getId().equals(currentUser.getId())) {
             throw new ForbiddenException("You can only update availability slots for your own businesses");
         }
+        Long businessId = slot.getBusiness().getId();
+        businessRepository.findByIdForUpdate(businessId);
         
         // Validate date range if both dates are provided
         if (request.getStartDate() != null && request.getEndDate() != null) {
@@ -127,8 +153,20 @@ public class AvailabilityService {
             }
         }
         
+        // Check the slot as it will be after the update against the other slots of the business
+        AvailabilityInterval updated = new AvailabilityInterval(id,
+            valueOrElse(request.getStartDate(), slot.getStartDate()), valueOrElse(request.getEndDate(), slot.getEndDate()),
+            valueOrElse(request.getStartTime(), slot.getStartTime()), valueOrElse(request.getEndTime(), slot.getEndTime()));
+        rejectOverlaps(businessId, updated, id);
+        
+        // The dates the slot covered before the update change as well as the ones it covers after
+        LocalDate changedFrom = min(slot.getStartDate(), updated.startDate());
+        LocalDate changedTo = max(slot.getEndDate(), updated.endDate());
         availabilitySlotMapper.updateEntity(request, slot);
         AvailabilitySlot updatedSlot = availabilitySlotRepository.save(slot);
+        dayCapacityStore.reopen(businessId, changedFrom, changedTo);
+        calendarCache.evict(businessId);
+        availabilityIndex.update(businessId, Set.of(id), List.of(AvailabilityInterval.of(updatedSlot)));
         return availabilitySlotMapper.toDto(updatedSlot);
     }
     
@@ -143,7 +181,93 @@ public class AvailabilityService {
         if (!slot.getBusiness().getOwner().getId().equals(currentUser.getId())) {
             throw new ForbiddenException("You can only delete availability slots for your own businesses");
         }
+        // Same lock as creates and updates, so the capacity recomputed below is ordered with theirs
+        Long businessId = slot.getBusiness().getId();
+        businessRepository.findByIdForUpdate(businessId);
         
         availabilitySlotRepository.delete(slot);
+        dayCapacityStore.reopen(businessId, slot.getStartDate(), slot.getEndDate());
+        calendarCache.evict(businessId);
+        availabilityIndex.update(businessId, Set.of(id), List.of());
+    }
+    
+    // Grow the requested interval over every slot it touches or overlaps for as long as the union stays one interval.
+    // The first absorbed slot is kept and widened and the others are deleted; a request already covered changes nothing.
+    private AvailabilitySlotDto mergeAvailabilitySlot(Business business, AvailabilityInterval requested) {
+        AvailabilityInterval merged = requested;
+        Map<Long, AvailabilitySlot> absorbed = new LinkedHashMap<>();
+        List<AvailabilitySlot> neighbours;
+        boolean grown;
+        do {
+            grown = false;
+            neighbours = availabilitySlotRepository.findByBusinessIdOverlappingDatesForShare(business.getId(),
+                merged.startDate().minusDays(1), merged.endDate().plusDays(1));
+            for (AvailabilitySlot slot : neighbours) {
+                AvailabilityInterval existing = AvailabilityInterval.of(slot);
+                if (!absorbed.containsKey(slot.getId()) && merged.mergeableWith(existing)) {
+                    merged = merged.union(existing);
+                    absorbed.put(slot.getId(), slot);
+                    grown = true;
+                }
+            }
+        } while (grown);
+        
+        // What is left overlaps the merged interval only partly, so it cannot be coalesced
+        for (AvailabilitySlot slot : neighbours) {
+            if (!absorbed.containsKey(slot.getId()) && merged.overlaps(AvailabilityInterval.of(slot))) {
+                throw overlapping(slot);
+            }
+        }
+        
+        List<AvailabilitySlot> absorbedSlots = new ArrayList<>(absorbed.values());
+        AvailabilitySlot survivor;
+        if (absorbedSlots.isEmpty()) {
+            survivor = new AvailabilitySlot();
+            survivor.setBusiness(business);
+        } else {
+            survivor = absorbedSlots.get(0);
+            availabilitySlotRepository.deleteAll(absorbedSlots.subList(1, absorbedSlots.size()));
+        }
+        survivor.setStartDate(merged.startDate());
+        survivor.setEndDate(merged.endDate());
+        survivor.setStartTime(merged.startTime());
+        survivor.setEndTime(merged.endTime());
+        AvailabilitySlot savedSlot = availabilitySlotRepository.save(survivor);
+        
+        // Every absorbed slot lies within the merged dates
+        dayCapacityStore.reopen(business.getId(), merged.startDate(), merged.endDate());
+        calendarCache.evict(business.getId());
+        availabilityIndex.update(business.getId(), absorbed.keySet(), List.of(AvailabilityInterval.of(savedSlot)));
+        return availabilitySlotMapper.toDto(savedSlot);
+    }
+    
+    // Reject a slot that shares an open minute with another slot of the business, exact duplicates included.
+    // Callers read before taking the business lock, so the slots are read with a locking read rather than from the
+    // transaction's snapshot, which could miss a slot committed while they waited
+    private void rejectOverlaps(Long businessId, AvailabilityInterval interval, Long ignoredSlotId) {
+        for (AvailabilitySlot slot : availabilitySlotRepository.findByBusinessIdOverlappingDatesForShare(
+                businessId, interval.startDate(), interval.endDate())) {
+            if (!slot.getId().equals(ignoredSlotId) && interval.overlaps(AvailabilityInterval.of(slot))) {
+                throw overlapping(slot);
+            }
+        }
+    }
+    
+    private static BadRequestException overlapping(AvailabilitySlot slot) {
+        return new BadRequestException(String.format(
+            "Availability overlaps slot %d (%s to %s, %s-%s); update that slot or create this one with merge enabled",
+            slot.getId(), slot.getStartDate(), slot.getEndDate(), slot.getStartTime(), slot.getEndTime()));
+    }
+    
+    private static <T> T valueOrElse(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+    
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+    
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
     }
 }
@@ -40,4 +40,8 @@ public class AvailabilitySlot {
     @NotNull(message = "End time is required")
     @Column(name = "end_time", nullable = false)
     private LocalTime endTime;
+    
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -4,11 +4,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,9 +20,12 @@ import java.util.List;
 public class AvailabilitySlotController {
     
     private final AvailabilityService availabilityService;
+    private final AvailabilityImportService availabilityImportService;
     
-    public AvailabilitySlotController(AvailabilityService availabilityService) {
+    public AvailabilitySlotController(AvailabilityService availabilityService,
+                                      AvailabilityImportService availabilityImportService) {
         this.availabilityService = availabilityService;
+        this.availabilityImportService = availabilityImportService;
     }
     
     @PostMapping
@@ -31,6 +37,18 @@ public class AvailabilitySlotController {
         return ResponseEntity.status(HttpStatus.CREATED).body(slot);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('BUSINESS')")
+    @Operation(summary = "Import availability slots", 
+               description = "Streams availability slots from a CSV body (businessId,startDate,endDate,startTime,endTime, header optional) or an NDJSON body of create requests and inserts the valid rows in batches, each committed as it is written. Only slots for the caller's own businesses that overlap no other slot are imported; rejected rows are reported with their line numbers, up to a limit.")
+    public ResponseEntity<AvailabilityImportResult> importAvailabilitySlots(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        AvailabilityImportReader.Format format = AvailabilityImportReader.Format.of(MediaType.parseMediaType(contentType));
+        AvailabilityImportResult result = availabilityImportService.importAvailabilitySlots(body, format);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get availability slot by ID", 
                description = "Retrieves an availability slot by its unique identifier. Accessible to all authenticated users.")
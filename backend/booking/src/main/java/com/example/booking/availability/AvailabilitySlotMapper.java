@@ -13,9 +13,11 @@ public interface AvailabilitySlotMapper {
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "business", ignore = true)
+    @Mapping(target = "version", ignore = true)
     AvailabilitySlot toEntity(CreateAvailabilitySlotRequest request);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "business", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntity(UpdateAvailabilitySlotRequest request, @MappingTarget AvailabilitySlot availabilitySlot);
 }
@@ -1,9 +1,12 @@
 package com.example.booking.availability;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +15,32 @@ public interface AvailabilitySlotRepository extends JpaRepository<AvailabilitySl
     // Get all availability slots for a specific business
     List<AvailabilitySlot> findByBusinessId(Long businessId);
     
+    // The same with a locking read (FOR SHARE), which sees the latest committed rows instead of the transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM AvailabilitySlot a WHERE a.business.id = :businessId")
+    List<AvailabilitySlot> findByBusinessIdForShare(@Param("businessId") Long businessId);
+    
+    // Get the availability slots of a business whose date range overlaps [fromDate, toDate] with a locking read
+    // (FOR SHARE), so overlap checks made under the business lock see slots committed after the snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM AvailabilitySlot a WHERE a.business.id = :businessId AND a.startDate <= :toDate AND a.endDate >= :fromDate")
+    List<AvailabilitySlot> findByBusinessIdOverlappingDatesForShare(
+        @Param("businessId") Long businessId,
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate
+    );
+    
+    // Open hours of the slots of a business whose date range overlaps [fromDate, toDate], without loading the
+    // entities; a locking read like the one above
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT new com.example.booking.availability.AvailabilityInterval(a.id, a.startDate, a.endDate, a.startTime, a.endTime) " +
+           "FROM AvailabilitySlot a WHERE a.business.id = :businessId AND a.startDate <= :toDate AND a.endDate >= :fromDate")
+    List<AvailabilityInterval> findIntervalsOverlappingDatesForShare(
+        @Param("businessId") Long businessId,
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate
+    );
+    
     // Get availability slots by business owner
     @Query("SELECT a FROM AvailabilitySlot a WHERE a.business.owner.id = :ownerId")
     List<AvailabilitySlot> findByBusinessOwnerId(@Param("ownerId") Long ownerId);
@@ -0,0 +1,18 @@
+package com.example.booking.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarDayDto {
+    private LocalDate date;
+    private Integer openMinutes;
+    private Integer bookedMinutes;
+    private Integer availableMinutes;
+    private Integer freeSlots;
+}
@@ -0,0 +1,32 @@
+package com.example.booking.availability;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class CreateAvailabilityExceptionRequest {
+    
+    @NotNull(message = "Business ID is required")
+    private Long businessId;
+    
+    // CLOSED removes hours from the regular schedule, OPEN adds hours to it
+    private AvailabilityExceptionType type = AvailabilityExceptionType.CLOSED;
+    
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+    
+    // Leave empty for a single day
+    private LocalDate endDate;
+    
+    // Leave both times empty to close whole days
+    private LocalTime startTime;
+    
+    private LocalTime endTime;
+    
+    @Size(max = 255, message = "Reason must be at most 255 characters")
+    private String reason;
+}
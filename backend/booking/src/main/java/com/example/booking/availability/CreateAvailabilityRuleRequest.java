@@ -0,0 +1,31 @@
+package com.example.booking.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+public class CreateAvailabilityRuleRequest {
+    
+    @NotNull(message = "Business ID is required")
+    private Long businessId;
+    
+    @NotEmpty(message = "At least one day is required")
+    private Set<DayOfWeek> days;
+    
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+    
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+    
+    @NotNull(message = "Valid from date is required")
+    private LocalDate validFrom;
+    
+    // Leave empty for a rule without an end
+    private LocalDate validUntil;
+}
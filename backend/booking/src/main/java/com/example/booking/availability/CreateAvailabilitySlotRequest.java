@@ -23,4 +23,7 @@ public class CreateAvailabilitySlotRequest {
     
     @NotNull(message = "End time is required")
     private LocalTime endTime;
+    
+    // Coalesce with existing slots that touch or overlap this one instead of rejecting the overlap
+    private boolean merge;
 }
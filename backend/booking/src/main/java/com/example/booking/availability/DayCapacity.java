@@ -0,0 +1,9 @@
+package com.example.booking.availability;
+
+import java.time.LocalDate;
+
+/**
+ * A materialized business day: how many minutes it is open, how many of them are free, and the free minutes themselves.
+ */
+public record DayCapacity(LocalDate day, int openMinutes, int freeMinutes, DayOccupancy free) {
+}
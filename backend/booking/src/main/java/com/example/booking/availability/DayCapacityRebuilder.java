@@ -0,0 +1,127 @@
+package com.example.booking.availability;
+
+import com.example.booking.businesses.BusinessRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills business_day_capacity from availability and appointments. The periodic roll drops days that left the window
+ * and builds the ones that entered it, which after the table is created (or emptied) means the whole window; set
+ * rebuild-on-startup after a migration that changes how the rows are computed to rebuild everything once.
+ * Business IDs are split into chunks rebuilt in parallel, each business in its own short transaction, so bookings
+ * of other businesses are never held up and a failure only costs that business, whose days are computed live until
+ * its availability changes or a full rebuild runs. The work runs off the scheduler thread so the outbox relay and other jobs keep their pace.
+ */
+@Slf4j
+@Component
+public class DayCapacityRebuilder {
+    
+    private final DayCapacityStore dayCapacityStore;
+    private final BusinessRepository businessRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final int chunkSize;
+    private final AtomicBoolean fullRebuildPending;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Thread worker;
+    
+    public DayCapacityRebuilder(DayCapacityStore dayCapacityStore,
+                                BusinessRepository businessRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${booking.capacity.rebuild-threads:4}") int threads,
+                                @Value("${booking.capacity.rebuild-chunk-size:100}") int chunkSize,
+                                @Value("${booking.capacity.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.dayCapacityStore = dayCapacityStore;
+        this.businessRepository = businessRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.fullRebuildPending = new AtomicBoolean(rebuildOnStartup);
+    }
+    
+    // Purge past days and start building the days not materialized yet; skipped while a rebuild is still running
+    @Scheduled(fixedDelayString = "${booking.capacity.roll-interval-ms:3600000}", initialDelayString = "${booking.capacity.initial-delay-ms:30000}")
+    public void roll() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            int purged = dayCapacityStore.purgeBefore(today);
+            if (purged > 0) {
+                log.info("Purged {} business day capacity rows before {}", purged, today);
+            }
+            LocalDate lastStored = dayCapacityStore.lastStoredDay();
+            LocalDate from = fullRebuildPending.get() || lastStored == null || lastStored.isBefore(today)
+                ? today : lastStored.plusDays(1);
+            if (!from.isBefore(dayCapacityStore.windowEnd())) {
+                running.set(false);
+                return;
+            }
+            worker = Thread.ofVirtual().name("capacity-rebuild").start(() -> {
+                try {
+                    rebuildAll(from);
+                    fullRebuildPending.set(false);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            log.warn("Business day capacity roll failed", e);
+        }
+    }
+    
+    // Rebuild every business from the given day to the end of the window, chunks in parallel; returns how many made it
+    public int rebuildAll(LocalDate from) {
+        long startedAt = System.currentTimeMillis();
+        List<Long> businessIds = businessRepository.findAllIds();
+        AtomicInteger rebuilt = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        // Closing the pool waits for every chunk
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("capacity-rebuild-", 0).factory())) {
+            for (int i = 0; i < businessIds.size(); i += chunkSize) {
+                List<Long> chunk = businessIds.subList(i, Math.min(businessIds.size(), i + chunkSize));
+                pool.execute(() -> rebuildChunk(chunk, from, rebuilt, failed));
+            }
+        }
+        log.info("Rebuilt business day capacity from {} for {} businesses in {} ms, {} failed",
+            from, rebuilt.get(), System.currentTimeMillis() - startedAt, failed.get());
+        return rebuilt.get();
+    }
+    
+    private void rebuildChunk(List<Long> businessIds, LocalDate from, AtomicInteger rebuilt, AtomicInteger failed) {
+        for (Long businessId : businessIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> dayCapacityStore.rebuild(businessId, from, null));
+                rebuilt.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Could not rebuild business day capacity of business {}", businessId, e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.booking.availability;
+
+import com.example.booking.appointments.Appointment;
+import com.example.booking.appointments.AppointmentDto;
+import com.example.booking.appointments.BookedInterval;
+import com.example.booking.businesses.BusinessRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized free time of every business per day over the booking window (business_day_capacity), so free-slot
+ * and calendar reads take one primary-key range read instead of expanding availability and scanning appointments.
+ * Rows are kept current inside the transactions that change them: bookings, cancellations and deletes flip the booked
+ * minutes of the days they touch, and availability changes recompute the open minutes of the dates they cover.
+ * Writers lock the rows they change with FOR UPDATE, so concurrent changes to one day are applied one after the other
+ * to the latest row. Days without a row, outside the window or not built yet, are computed live by readers.
+ */
+@Component
+public class DayCapacityStore {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityIndex availabilityIndex;
+    private final BusinessRepository businessRepository;
+    private final int windowDays;
+    
+    public DayCapacityStore(JdbcTemplate jdbcTemplate,
+                            AvailabilityIndex availabilityIndex,
+                            BusinessRepository businessRepository,
+                            @Value("${booking.capacity.window-days:90}") int windowDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.businessRepository = businessRepository;
+        this.windowDays = windowDays;
+    }
+    
+    // First day past the window; days from today until then are materialized
+    public LocalDate windowEnd() {
+        return LocalDate.now().plusDays(windowDays);
+    }
+    
+    // Materialized days of a business in [from, to], keyed by date
+    public Map<LocalDate, DayCapacity> find(Long businessId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+            "SELECT day, open_minutes, free_minutes, free_bitmap FROM business_day_capacity " +
+            "WHERE business_id = ? AND day BETWEEN ? AND ?",
+            (rs, rowNum) -> new DayCapacity(rs.getDate("day").toLocalDate(), rs.getInt("open_minutes"),
+                rs.getInt("free_minutes"), DayOccupancy.fromBitmap(rs.getBytes("free_bitmap"))),
+            businessId, Date.valueOf(from), Date.valueOf(to))
+            .stream()
+            .collect(Collectors.toMap(DayCapacity::day, capacity -> capacity));
+    }
+    
+    // A new appointment takes [start, end); only valid inside the transaction that books it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void book(Long businessId, LocalDateTime start, LocalDateTime end) {
+        markBooked(businessId, start, end, true);
+    }
+    
+    // A cancelled or deleted appointment gives [start, end) back; only valid inside the transaction that frees it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long businessId, LocalDateTime start, LocalDateTime end) {
+        markBooked(businessId, start, end, false);
+    }
+    
+    // Give many appointments back, in business and time order so concurrent bulk changes lock rows in the same order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseAll(Collection<AppointmentDto> appointments) {
+        appointments.stream()
+            .sorted(Comparator.comparing(AppointmentDto::getBusinessId).thenComparing(AppointmentDto::getDateTime))
+            .forEach(appointment -> markBooked(appointment.getBusinessId(), appointment.getDateTime(),
+                appointment.getEndTime(), false));
+    }
+    
+    // Recompute the open minutes of a business's days in [from, to] after its availability changed, inside the
+    // changing transaction; null bounds mean the edges of the window. Booked minutes of stored days are kept, and
+    // days without a row read them from the appointments, so the change also materializes them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reopen(Long businessId, LocalDate from, LocalDate to) {
+        recompute(businessId, from, to, false);
+    }
+    
+    // Recompute a business's days in [from, to] from its availability and appointments; null bounds as for reopen
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rebuild(Long businessId, LocalDate from, LocalDate to) {
+        recompute(businessId, from, to, true);
+    }
+    
+    // Drop the days before the given one, which have left the window
+    public int purgeBefore(LocalDate day) {
+        return jdbcTemplate.update("DELETE FROM business_day_capacity WHERE day < ?", Date.valueOf(day));
+    }
+    
+    // Latest materialized day of any business, or null when nothing is materialized
+    public LocalDate lastStoredDay() {
+        Date day = jdbcTemplate.queryForObject("SELECT MAX(day) FROM business_day_capacity", Date.class);
+        return day != null ? day.toLocalDate() : null;
+    }
+    
+    private void markBooked(Long businessId, LocalDateTime start, LocalDateTime end, boolean booked) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = start.toLocalDate().isBefore(today) ? today : start.toLocalDate();
+        LocalDate last = end.minusNanos(1).toLocalDate();
+        if (!last.isBefore(windowEnd())) {
+            last = windowEnd().minusDays(1);
+        }
+        if (first.isAfter(last)) {
+            return;
+        }
+        
+        // Days without a row are left to the next availability change or rebuild
+        Map<LocalDate, StoredDay> stored = lock(businessId, first, last);
+        if (stored.isEmpty()) {
+            return;
+        }
+        for (StoredDay day : stored.values()) {
+            day.mark(start, end, booked);
+        }
+        write(businessId, stored.values());
+    }
+    
+    private void recompute(Long businessId, LocalDate from, LocalDate to, boolean rebuildBooked) {
+        LocalDate today = LocalDate.now();
+        LocalDate lastInWindow = windowEnd().minusDays(1);
+        LocalDate first = from == null || from.isBefore(today) ? today : from;
+        LocalDate last = to == null || to.isAfter(lastInWindow) ? lastInWindow : to;
+        if (first.isAfter(last)) {
+            return;
+        }
+        int dayCount = (int) ChronoUnit.DAYS.between(first, last) + 1;
+        
+        // The business row lock orders this after bookings and availability writes of the business still in flight.
+        // The caller may have read before taking it, so under REPEATABLE READ its snapshot can predate changes that
+        // committed while it waited; everything below is therefore read with locking reads, which see the latest rows
+        if (businessRepository.findByIdForUpdate(businessId).isEmpty()) {
+            return;
+        }
+        Map<LocalDate, StoredDay> stored = lock(businessId, first, last);
+        DayOccupancy[] open = availabilityIndex.loadOpenHours(businessId, first, dayCount);
+        DayOccupancy[] booked = rebuildBooked || stored.size() < dayCount ? bookedMinutes(businessId, first, dayCount) : null;
+        write(businessId, merge(first, open, booked, stored, rebuildBooked));
+    }
+    
+    // Rows for the days from first with fresh open minutes; stored days keep their booked minutes unless they are
+    // rebuilt, and days without a row take theirs from booked
+    static List<StoredDay> merge(LocalDate first, DayOccupancy[] open, DayOccupancy[] booked, Map<LocalDate, StoredDay> stored,
+                                 boolean rebuildBooked) {
+        List<StoredDay> days = new ArrayList<>(open.length);
+        for (int i = 0; i < open.length; i++) {
+            LocalDate date = first.plusDays(i);
+            StoredDay current = stored.get(date);
+            days.add(new StoredDay(date, open[i], current != null && !rebuildBooked ? current.booked() : booked[i]));
+        }
+        return days;
+    }
+    
+    // Lock and read the stored days of a business in [from, to]; the range lock also keeps other writers from
+    // adding rows inside it until this transaction ends
+    private Map<LocalDate, StoredDay> lock(Long businessId, LocalDate from, LocalDate to) {
+        Map<LocalDate, StoredDay> result = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT day, open_bitmap, booked_bitmap FROM business_day_capacity " +
+            "WHERE business_id = ? AND day BETWEEN ? AND ? ORDER BY day FOR UPDATE",
+            (rs, rowNum) -> new StoredDay(rs.getDate("day").toLocalDate(),
+                DayOccupancy.fromBitmap(rs.getBytes("open_bitmap")), DayOccupancy.fromBitmap(rs.getBytes("booked_bitmap"))),
+            businessId, Date.valueOf(from), Date.valueOf(to))
+            .forEach(day -> result.put(day.date(), day));
+        return result;
+    }
+    
+    // Minutes taken by non-cancelled appointments on dayCount days from firstDay, with one read for all of them.
+    // FOR SHARE reads the latest committed appointments rather than the transaction's snapshot, and keeps them
+    // from changing until this transaction ends; JDBC does not flush, which is fine as callers change no appointments
+    private DayOccupancy[] bookedMinutes(Long businessId, LocalDate firstDay, int dayCount) {
+        DayOccupancy[] days = new DayOccupancy[dayCount];
+        for (int i = 0; i < dayCount; i++) {
+            days[i] = new DayOccupancy();
+        }
+        LocalDateTime rangeStart = firstDay.atStartOfDay();
+        LocalDateTime rangeEnd = rangeStart.plusDays(dayCount);
+        List<BookedInterval> booked = jdbcTemplate.query(
+            "SELECT date_time, end_time FROM appointments " +
+            "WHERE business_id = ? AND date_time >= ? AND date_time < ? AND end_time > ? AND status <> 'CANCELLED' FOR SHARE",
+            (rs, rowNum) -> new BookedInterval(rs.getTimestamp("date_time").toLocalDateTime(),
+                rs.getTimestamp("end_time").toLocalDateTime()),
+            businessId, Timestamp.valueOf(rangeStart.minusMinutes(Appointment.MAX_DURATION_MINUTES)),
+            Timestamp.valueOf(rangeEnd), Timestamp.valueOf(rangeStart));
+        for (BookedInterval interval : booked) {
+            DayOccupancy.forEachDay(rangeStart, dayCount, interval.getDateTime(), interval.getEndTime(),
+                (day, startMinute, endMinute) -> days[day].open(startMinute, endMinute));
+        }
+        return days;
+    }
+    
+    private void write(Long businessId, Collection<StoredDay> days) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO business_day_capacity (business_id, day, open_minutes, free_minutes, open_bitmap, booked_bitmap, " +
+            "free_bitmap) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE open_minutes = VALUES(open_minutes), free_minutes = VALUES(free_minutes), " +
+            "open_bitmap = VALUES(open_bitmap), booked_bitmap = VALUES(booked_bitmap), free_bitmap = VALUES(free_bitmap)",
+            days, days.size(), (ps, day) -> {
+                DayOccupancy free = day.free();
+                ps.setLong(1, businessId);
+                ps.setDate(2, Date.valueOf(day.date()));
+                ps.setInt(3, day.open().freeMinutes());
+                ps.setInt(4, free.freeMinutes());
+                ps.setBytes(5, day.open().toBitmap());
+                ps.setBytes(6, day.booked().toBitmap());
+                ps.setBytes(7, free.toBitmap());
+            });
+    }
+    
+    // A row as writers see it; the minutes set in booked are the ones taken by appointments
+    record StoredDay(LocalDate date, DayOccupancy open, DayOccupancy booked) {
+        
+        // Take or give back the minutes of [start, end) that fall on this day
+        void mark(LocalDateTime start, LocalDateTime end, boolean taken) {
+            DayOccupancy.forEachDay(date.atStartOfDay(), 1, start, end, (index, startMinute, endMinute) -> {
+                if (taken) {
+                    booked.open(startMinute, endMinute);
+                } else {
+                    booked.occupy(startMinute, endMinute);
+                }
+            });
+        }
+        
+        DayOccupancy free() {
+            DayOccupancy free = open.copy();
+            free.occupy(booked);
+            return free;
+        }
+    }
+}
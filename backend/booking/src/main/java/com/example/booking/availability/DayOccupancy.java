@@ -0,0 +1,156 @@
+package com.example.booking.availability;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Minute-resolution occupancy map for a single business day.
+ * Bit i is set when minute i of the day is open for booking, so a whole day fits in 23 longs.
+ */
+public class DayOccupancy {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final BitSet free = new BitSet(MINUTES_PER_DAY);
+
+    // Mark the minutes [startMinute, endMinute) as open for booking
+    public void open(int startMinute, int endMinute) {
+        int from = clamp(startMinute);
+        int to = clamp(endMinute);
+        if (from < to) {
+            free.set(from, to);
+        }
+    }
+
+    // Mark the minutes [startMinute, endMinute) as taken
+    public void occupy(int startMinute, int endMinute) {
+        int from = clamp(startMinute);
+        int to = clamp(endMinute);
+        if (from < to) {
+            free.clear(from, to);
+        }
+    }
+
+    // True when every minute of [startMinute, startMinute + durationMinutes) is open
+    public boolean isFree(int startMinute, int durationMinutes) {
+        int end = startMinute + durationMinutes;
+        if (startMinute < 0 || end > MINUTES_PER_DAY || durationMinutes <= 0) {
+            return false;
+        }
+        return free.get(startMinute) && free.nextClearBit(startMinute) >= end;
+    }
+
+    public boolean isEmpty() {
+        return free.isEmpty();
+    }
+
+    public int freeMinutes() {
+        return free.cardinality();
+    }
+
+    // Start times that fit a service of the given duration, stepping through each free run
+    public List<LocalTime> freeStartTimes(int durationMinutes, int stepMinutes, int notBeforeMinute) {
+        List<LocalTime> starts = new ArrayList<>();
+        int runStart = free.nextSetBit(Math.max(0, notBeforeMinute));
+        while (runStart >= 0 && runStart < MINUTES_PER_DAY) {
+            int runEnd = free.nextClearBit(runStart);
+            for (int start = runStart; start + durationMinutes <= runEnd; start += stepMinutes) {
+                starts.add(toTime(start));
+            }
+            runStart = free.nextSetBit(runEnd);
+        }
+        return starts;
+    }
+
+    // First start time freeStartTimes would return, as a minute of the day, or -1 when none fits
+    public int firstFreeStart(int durationMinutes, int notBeforeMinute) {
+        int runStart = free.nextSetBit(Math.max(0, notBeforeMinute));
+        while (runStart >= 0 && runStart < MINUTES_PER_DAY) {
+            int runEnd = free.nextClearBit(runStart);
+            if (runStart + durationMinutes <= runEnd) {
+                return runStart;
+            }
+            runStart = free.nextSetBit(runEnd);
+        }
+        return -1;
+    }
+    
+    // True when at least one minute of [startMinute, endMinute) is open
+    public boolean anyFree(int startMinute, int endMinute) {
+        int next = free.nextSetBit(Math.max(0, startMinute));
+        return next >= 0 && next < endMinute;
+    }
+    
+    // Number of start times freeStartTimes would return from the start of the day, without building the list
+    public int countFreeStarts(int durationMinutes, int stepMinutes) {
+        int count = 0;
+        int runStart = free.nextSetBit(0);
+        while (runStart >= 0 && runStart < MINUTES_PER_DAY) {
+            int runEnd = free.nextClearBit(runStart);
+            if (runEnd - runStart >= durationMinutes) {
+                count += (runEnd - runStart - durationMinutes) / stepMinutes + 1;
+            }
+            runStart = free.nextSetBit(runEnd);
+        }
+        return count;
+    }
+    
+    // Mark every minute that is open in taken as taken here
+    public void occupy(DayOccupancy taken) {
+        free.andNot(taken.free);
+    }
+    
+    public DayOccupancy copy() {
+        DayOccupancy copy = new DayOccupancy();
+        copy.free.or(free);
+        return copy;
+    }
+    
+    // Little-endian bit encoding with trailing empty bytes dropped, at most 180 bytes for a whole day
+    public byte[] toBitmap() {
+        return free.toByteArray();
+    }
+    
+    public static DayOccupancy fromBitmap(byte[] bitmap) {
+        DayOccupancy occupancy = new DayOccupancy();
+        if (bitmap != null) {
+            occupancy.free.or(BitSet.valueOf(bitmap));
+        }
+        return occupancy;
+    }
+    
+    // Split [start, end) into the minute ranges it covers on each of the dayCount days from rangeStart;
+    // an interval running past midnight yields a range on every day it touches
+    public static void forEachDay(LocalDateTime rangeStart, int dayCount, LocalDateTime start, LocalDateTime end,
+                                  DayRangeConsumer action) {
+        long rangeMinutes = (long) dayCount * MINUTES_PER_DAY;
+        long from = Math.max(0, Duration.between(rangeStart, start).toMinutes());
+        long to = Math.min(rangeMinutes, Duration.between(rangeStart, end).toMinutes());
+        for (long day = from / MINUTES_PER_DAY; day * MINUTES_PER_DAY < to; day++) {
+            long dayStart = day * MINUTES_PER_DAY;
+            action.accept((int) day, (int) (Math.max(from, dayStart) - dayStart),
+                (int) (Math.min(to, dayStart + MINUTES_PER_DAY) - dayStart));
+        }
+    }
+    
+    public static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static LocalTime toTime(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    private static int clamp(int minute) {
+        return Math.max(0, Math.min(MINUTES_PER_DAY, minute));
+    }
+    
+    @FunctionalInterface
+    public interface DayRangeConsumer {
+        void accept(int dayIndex, int startMinute, int endMinute);
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.booking.availability;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum DayOfWeek {
     MONDAY,
     TUESDAY,
@@ -7,5 +12,32 @@ public enum DayOfWeek {
     THURSDAY,
     FRIDAY,
     SATURDAY,
-    SUNDAY
+    SUNDAY;
+    
+    // Bit of this day in a weekday mask; Monday is bit 0
+    public int bit() {
+        return 1 << ordinal();
+    }
+    
+    public static DayOfWeek of(LocalDate date) {
+        return values()[date.getDayOfWeek().ordinal()];
+    }
+    
+    public static int toMask(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= day.bit();
+        }
+        return mask;
+    }
+    
+    public static Set<DayOfWeek> fromMask(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : values()) {
+            if ((mask & day.bit()) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.booking.availability;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/businesses")
+@Tag(name = "Free Slots", description = "APIs for computing bookable times from availability and existing appointments")
+public class FreeSlotController {
+    
+    private final FreeSlotService freeSlotService;
+    
+    public FreeSlotController(FreeSlotService freeSlotService) {
+        this.freeSlotService = freeSlotService;
+    }
+    
+    @GetMapping("/{id}/free-slots")
+    @Operation(summary = "Get free slots for a service on a date", 
+               description = "Returns the start times at which the service can still be booked on the given date. Accessible to all authenticated users.")
+    public ResponseEntity<FreeSlotsDto> getFreeSlots(
+            @Parameter(description = "Business ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Service ID", required = true) @RequestParam Long serviceId,
+            @Parameter(description = "Date (yyyy-MM-dd)", required = true) 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        FreeSlotsDto freeSlots = freeSlotService.getFreeSlots(id, serviceId, date);
+        return ResponseEntity.ok(freeSlots);
+    }
+    
+    @GetMapping("/{id}/calendar")
+    @Operation(summary = "Get the occupancy calendar of a business for a month", 
+               description = "Returns open, booked and available minutes and the number of free slots for each day of the month. Accessible to all authenticated users.")
+    public ResponseEntity<OccupancyCalendarDto> getCalendar(
+            @Parameter(description = "Business ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Month (yyyy-MM)", required = true) 
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        OccupancyCalendarDto calendar = freeSlotService.getCalendar(id, month);
+        return ResponseEntity.ok(calendar);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.booking.availability;
+
+import com.example.booking.appointments.Appointment;
+import com.example.booking.appointments.AppointmentArchive;
+import com.example.booking.appointments.AppointmentRepository;
+import com.example.booking.appointments.ArchivedAppointmentRepository;
+import com.example.booking.appointments.BookedInterval;
+import com.example.booking.appointments.SlotHoldService;
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional(readOnly = true)
+public class FreeSlotService {
+    
+    // Offered start times are spaced by this many minutes, or by the service duration if shorter
+    public static final int DEFAULT_SLOT_STEP_MINUTES = 30;
+    
+    private final AvailabilityIndex availabilityIndex;
+    private final AppointmentRepository appointmentRepository;
+    private final ServiceRepository serviceRepository;
+    private final BusinessRepository businessRepository;
+    private final OccupancyCalendarCache calendarCache;
+    private final SlotHoldService slotHoldService;
+    private final AuthenticationHelper authenticationHelper;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final AppointmentArchive appointmentArchive;
+    private final DayCapacityStore dayCapacityStore;
+    
+    public FreeSlotService(AvailabilityIndex availabilityIndex,
+                          AppointmentRepository appointmentRepository,
+                          ServiceRepository serviceRepository,
+                          BusinessRepository businessRepository,
+                          OccupancyCalendarCache calendarCache,
+                          SlotHoldService slotHoldService,
+                          AuthenticationHelper authenticationHelper,
+                          ArchivedAppointmentRepository archivedAppointmentRepository,
+                          AppointmentArchive appointmentArchive,
+                          DayCapacityStore dayCapacityStore) {
+        this.availabilityIndex = availabilityIndex;
+        this.appointmentRepository = appointmentRepository;
+        this.serviceRepository = serviceRepository;
+        this.businessRepository = businessRepository;
+        this.calendarCache = calendarCache;
+        this.slotHoldService = slotHoldService;
+        this.authenticationHelper = authenticationHelper;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.appointmentArchive = appointmentArchive;
+        this.dayCapacityStore = dayCapacityStore;
+    }
+    
+    // Get the bookable start times for a service of a business on a date
+    public FreeSlotsDto getFreeSlots(Long businessId, Long serviceId, LocalDate date) {
+        ServiceEntity service = serviceRepository.findByIdAndBusinessId(serviceId, businessId)
+            .orElseThrow(() -> new ResourceNotFoundException("Service", "id", serviceId));
+        
+        int duration = service.getDurationMinutes();
+        int step = Math.min(DEFAULT_SLOT_STEP_MINUTES, duration);
+        
+        FreeSlotsDto result = new FreeSlotsDto();
+        result.setBusinessId(businessId);
+        result.setServiceId(serviceId);
+        result.setDate(date);
+        result.setDurationMinutes(duration);
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (date.isBefore(now.toLocalDate())) {
+            result.setSlots(List.of());
+            return result;
+        }
+        
+        // Start times that already passed today cannot be booked
+        int notBefore = date.equals(now.toLocalDate()) ? DayOccupancy.toMinute(now.toLocalTime()) + 1 : 0;
+        DayOccupancy occupancy = buildOccupancy(businessId, date);
+        
+        // Intervals other customers are holding are not offered; the caller's own holds stay bookable
+        LocalDateTime dayStart = date.atStartOfDay();
+        for (BookedInterval held : slotHoldService.findHeldIntervals(businessId, dayStart, dayStart.plusDays(1),
+                authenticationHelper.getCurrentUserId())) {
+            occupancy.occupy((int) Duration.between(dayStart, held.getDateTime()).toMinutes(),
+                (int) Duration.between(dayStart, held.getEndTime()).toMinutes());
+        }
+        result.setSlots(occupancy.freeStartTimes(duration, step, notBefore));
+        return result;
+    }
+    
+    // Get how full each day of a month is for a business, served from the calendar cache when possible
+    public OccupancyCalendarDto getCalendar(Long businessId, YearMonth month) {
+        OccupancyCalendarDto cached = calendarCache.get(businessId, month);
+        if (cached != null) {
+            return cached;
+        }
+        
+        if (!businessRepository.existsById(businessId)) {
+            throw new ResourceNotFoundException("Business", "id", businessId);
+        }
+        
+        // Taken before reading so a booking that commits meanwhile keeps this result out of the cache
+        long generation = calendarCache.generation(businessId);
+        OccupancyCalendarDto calendar = buildCalendar(businessId, month);
+        calendarCache.put(businessId, month, generation, calendar);
+        return calendar;
+    }
+    
+    // Materialized days where present; the others from in-memory open hours and one booked-interval read
+    private OccupancyCalendarDto buildCalendar(Long businessId, YearMonth month) {
+        int dayCount = month.lengthOfMonth();
+        int[] openMinutes = new int[dayCount];
+        DayOccupancy[] days = buildOccupancy(businessId, month.atDay(1), dayCount, openMinutes);
+        
+        List<CalendarDayDto> result = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            int available = days[i].freeMinutes();
+            result.add(new CalendarDayDto(month.atDay(i + 1), openMinutes[i], openMinutes[i] - available, available,
+                days[i].countFreeStarts(DEFAULT_SLOT_STEP_MINUTES, DEFAULT_SLOT_STEP_MINUTES)));
+        }
+        
+        OccupancyCalendarDto calendar = new OccupancyCalendarDto();
+        calendar.setBusinessId(businessId);
+        calendar.setMonth(month);
+        calendar.setSlotMinutes(DEFAULT_SLOT_STEP_MINUTES);
+        calendar.setDays(result);
+        return calendar;
+    }
+    
+    // Build the minute map of a business day: open availability and exceptions, minus non-cancelled appointments
+    public DayOccupancy buildOccupancy(Long businessId, LocalDate date) {
+        return buildOccupancy(businessId, date, 1, null)[0];
+    }
+    
+    // Minute maps of dayCount consecutive business days from firstDay
+    public DayOccupancy[] buildOccupancy(Long businessId, LocalDate firstDay, int dayCount) {
+        return buildOccupancy(businessId, firstDay, dayCount, null);
+    }
+    
+    // Days materialized in business_day_capacity are taken as stored; the rest are computed from in-memory open hours
+    // with one booked-interval read for all of them. openMinutes, when given, receives each day's open minutes
+    private DayOccupancy[] buildOccupancy(Long businessId, LocalDate firstDay, int dayCount, int[] openMinutes) {
+        DayOccupancy[] days = new DayOccupancy[dayCount];
+        LocalDate lastDay = firstDay.plusDays(dayCount - 1);
+        Map<LocalDate, DayCapacity> materialized = firstDay.isBefore(dayCapacityStore.windowEnd())
+            && !lastDay.isBefore(LocalDate.now()) ? dayCapacityStore.find(businessId, firstDay, lastDay) : Map.of();
+        
+        int firstMissing = -1;
+        int lastMissing = -1;
+        for (int i = 0; i < dayCount; i++) {
+            DayCapacity capacity = materialized.get(firstDay.plusDays(i));
+            if (capacity != null) {
+                days[i] = capacity.free();
+                if (openMinutes != null) {
+                    openMinutes[i] = capacity.openMinutes();
+                }
+            } else {
+                firstMissing = firstMissing < 0 ? i : firstMissing;
+                lastMissing = i;
+            }
+        }
+        if (firstMissing < 0) {
+            return days;
+        }
+        
+        // Days in between that are materialized are computed too, but only the missing ones are kept
+        int spanCount = lastMissing - firstMissing + 1;
+        LocalDate spanStart = firstDay.plusDays(firstMissing);
+        DayOccupancy[] span = new DayOccupancy[spanCount];
+        boolean open = false;
+        for (int i = 0; i < spanCount; i++) {
+            span[i] = availabilityIndex.openHours(businessId, spanStart.plusDays(i));
+            if (openMinutes != null && days[firstMissing + i] == null) {
+                openMinutes[firstMissing + i] = span[i].freeMinutes();
+            }
+            open |= !span[i].isEmpty();
+        }
+        
+        // Nothing is open on those days, so there is no need to read appointments
+        if (open) {
+            LocalDateTime spanStartTime = spanStart.atStartOfDay();
+            LocalDateTime spanEndTime = spanStartTime.plusDays(spanCount);
+            LocalDateTime earliestStart = spanStartTime.minusMinutes(Appointment.MAX_DURATION_MINUTES);
+            List<BookedInterval> booked = new ArrayList<>(
+                appointmentRepository.findBookedIntervals(businessId, earliestStart, spanStartTime, spanEndTime));
+            // Past days also count completed appointments that have been archived
+            if (appointmentArchive.reaches(earliestStart)) {
+                booked.addAll(archivedAppointmentRepository.findBookedIntervals(businessId, earliestStart, spanStartTime, spanEndTime));
+            }
+            for (BookedInterval interval : booked) {
+                DayOccupancy.forEachDay(spanStartTime, spanCount, interval.getDateTime(), interval.getEndTime(),
+                    (day, startMinute, endMinute) -> span[day].occupy(startMinute, endMinute));
+            }
+        }
+        for (int i = 0; i < spanCount; i++) {
+            if (days[firstMissing + i] == null) {
+                days[firstMissing + i] = span[i];
+            }
+        }
+        return days;
+    }
+}
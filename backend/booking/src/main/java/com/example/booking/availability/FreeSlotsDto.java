@@ -0,0 +1,16 @@
+package com.example.booking.availability;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class FreeSlotsDto {
+    private Long businessId;
+    private Long serviceId;
+    private LocalDate date;
+    private Integer durationMinutes;
+    private List<LocalTime> slots;
+}
@@ -0,0 +1,70 @@
+package com.example.booking.availability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Least-recently-used cache of monthly occupancy calendars, keyed by business and month.
+ * Writers evict a business once their transaction completes. Every eviction bumps the business generation,
+ * so a calendar computed from data read before the eviction is dropped instead of being cached.
+ */
+@Component
+public class OccupancyCalendarCache {
+    
+    private final Map<CalendarKey, OccupancyCalendarDto> calendars;
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    
+    public OccupancyCalendarCache(@Value("${booking.calendar-cache.max-entries:10000}") int maxEntries) {
+        this.calendars = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CalendarKey, OccupancyCalendarDto> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    public synchronized OccupancyCalendarDto get(Long businessId, YearMonth month) {
+        return calendars.get(new CalendarKey(businessId, month));
+    }
+    
+    // Read before computing a calendar and hand back to put
+    public long generation(Long businessId) {
+        return generations.getOrDefault(businessId, 0L);
+    }
+    
+    // Cache a calendar unless the business was evicted while it was being computed
+    public synchronized void put(Long businessId, YearMonth month, long generation, OccupancyCalendarDto calendar) {
+        if (generation(businessId) == generation) {
+            calendars.put(new CalendarKey(businessId, month), calendar);
+        }
+    }
+    
+    // Drop every cached month of a business once the current transaction (if any) completes
+    public void evict(Long businessId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(businessId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictNow(businessId);
+            }
+        });
+    }
+    
+    private synchronized void evictNow(Long businessId) {
+        generations.merge(businessId, 1L, Long::sum);
+        calendars.keySet().removeIf(key -> key.businessId().equals(businessId));
+    }
+    
+    private record CalendarKey(Long businessId, YearMonth month) {
+    }
+}
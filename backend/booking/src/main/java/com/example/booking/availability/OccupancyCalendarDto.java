@@ -0,0 +1,14 @@
+package com.example.booking.availability;
+
+import lombok.Data;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+public class OccupancyCalendarDto {
+    private Long businessId;
+    private YearMonth month;
+    private Integer slotMinutes;
+    private List<CalendarDayDto> days;
+}
@@ -0,0 +1,16 @@
+package com.example.booking.availability;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+public class UpdateAvailabilityRuleRequest {
+    private Set<DayOfWeek> days;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate validFrom;
+    private LocalDate validUntil;
+}
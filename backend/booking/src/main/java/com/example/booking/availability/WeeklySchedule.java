@@ -0,0 +1,51 @@
+package com.example.booking.availability;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The recurring availability rules of a business, bucketed by weekday.
+ * Rules are only expanded into concrete intervals for the dates a lookup asks about, so a year-long schedule
+ * costs a handful of entries whatever the range queried. Immutable, so it can be shared between readers.
+ */
+public final class WeeklySchedule {
+    
+    public static final WeeklySchedule EMPTY = new WeeklySchedule(List.of());
+    
+    private final List<List<Window>> byWeekday = new ArrayList<>(DayOfWeek.values().length);
+    
+    private WeeklySchedule(Collection<Window> windows) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            byWeekday.add(windows.stream().filter(window -> (window.weekdays() & day.bit()) != 0).toList());
+        }
+    }
+    
+    public static WeeklySchedule of(Collection<AvailabilityRule> rules) {
+        return new WeeklySchedule(rules.stream()
+            .map(rule -> new Window(rule.getId(), rule.getWeekdays(), rule.getValidFrom(), rule.getValidUntil(),
+                rule.getStartTime(), rule.getEndTime()))
+            .toList());
+    }
+    
+    // The rules that apply on a date, each expanded into an interval covering just that date
+    public List<AvailabilityInterval> openOn(LocalDate date) {
+        List<AvailabilityInterval> open = new ArrayList<>();
+        for (Window window : byWeekday.get(DayOfWeek.of(date).ordinal())) {
+            if (window.appliesOn(date)) {
+                open.add(new AvailabilityInterval(window.ruleId(), date, date, window.startTime(), window.endTime()));
+            }
+        }
+        return open;
+    }
+    
+    private record Window(Long ruleId, int weekdays, LocalDate validFrom, LocalDate validUntil,
+                          LocalTime startTime, LocalTime endTime) {
+        
+        boolean appliesOn(LocalDate date) {
+            return !date.isBefore(validFrom) && (validUntil == null || !date.isAfter(validUntil));
+        }
+    }
+}
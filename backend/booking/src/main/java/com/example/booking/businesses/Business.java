@@ -38,4 +38,8 @@ public class Business {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+    
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
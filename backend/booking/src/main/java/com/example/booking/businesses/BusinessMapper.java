@@ -14,10 +14,12 @@ public interface BusinessMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Business toEntity(CreateBusinessRequest request);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntity(UpdateBusinessRequest request, @MappingTarget Business business);
 }
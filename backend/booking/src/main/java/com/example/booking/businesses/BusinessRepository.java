@@ -1,6 +1,8 @@
 package com.example.booking.businesses;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,6 +13,12 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
     
     List<Business> findByOwnerId(Long ownerId);
     
+    @Query("SELECT b.id FROM Business b WHERE b.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+    
+    @Query("SELECT b.id FROM Business b")
+    List<Long> findAllIds();
+    
     @Query("SELECT b FROM Business b WHERE b.name LIKE %:name%")
     List<Business> findByNameContaining(@Param("name") String name);
     
@@ -18,4 +26,9 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
     List<Business> findByLocationContaining(@Param("location") String location);
     
     Optional<Business> findByIdAndOwnerId(Long id, Long ownerId);
+    
+    // Lock the business row until the transaction ends, serializing bookings for that business
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Business b WHERE b.id = :id")
+    Optional<Business> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,66 @@
+package com.example.booking.events;
+
+import com.example.booking.appointments.AppointmentStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row describing one change of an appointment. Holds a snapshot of the appointment rather than a reference,
+ * so the event outlives a deleted appointment.
+ */
+@Entity
+@Table(name = "appointment_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private AppointmentEventType eventType;
+    
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+    
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+    
+    // Status after the change; for DELETED, the status the appointment had when it was deleted
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private AppointmentStatus status;
+    
+    @Column(name = "date_time", nullable = false)
+    private LocalDateTime dateTime;
+    
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    @Column(name = "last_error")
+    private String lastError;
+}
@@ -0,0 +1,11 @@
+package com.example.booking.events;
+
+/**
+ * Reacts to appointment lifecycle events relayed from the outbox.
+ * Delivery is at least once, and an event is delivered again to every listener if any listener throws,
+ * so implementations must tolerate duplicates. Listeners run on the relay thread and should hand slow work off.
+ */
+public interface AppointmentEventListener {
+    
+    void onAppointmentEvent(AppointmentEvent event);
+}
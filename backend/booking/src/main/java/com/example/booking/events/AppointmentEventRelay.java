@@ -0,0 +1,81 @@
+package com.example.booking.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the appointment_events outbox in batches and hands each event to every AppointmentEventListener.
+ * A batch is locked with FOR UPDATE SKIP LOCKED and marked published in the same transaction, so several instances
+ * can relay side by side and a crash mid-batch only means the batch is delivered again.
+ * An event whose listeners keep failing is retried on later polls and given up after max-attempts.
+ */
+@Slf4j
+@Component
+public class AppointmentEventRelay {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final AppointmentEventRepository appointmentEventRepository;
+    private final List<AppointmentEventListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    
+    public AppointmentEventRelay(AppointmentEventRepository appointmentEventRepository,
+                                 List<AppointmentEventListener> listeners,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${booking.outbox.batch-size:100}") int batchSize,
+                                 @Value("${booking.outbox.max-attempts:5}") int maxAttempts) {
+        this.appointmentEventRepository = appointmentEventRepository;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+    
+    // Relay batches until the outbox is drained; the next poll starts after this one finishes
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:500}")
+    public void relayPending() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Appointment event relay failed", e);
+        }
+    }
+    
+    // Deliver one locked batch and return how many events it held
+    private int relayBatch() {
+        List<AppointmentEvent> batch = appointmentEventRepository.lockUnpublished(batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (AppointmentEvent event : batch) {
+            try {
+                for (AppointmentEventListener listener : listeners) {
+                    listener.onAppointmentEvent(event);
+                }
+                event.setPublishedAt(now);
+            } catch (RuntimeException e) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(truncate(String.valueOf(e)));
+                if (event.getAttempts() >= maxAttempts) {
+                    log.warn("Giving up on appointment event {} after {} attempts", event.getId(), event.getAttempts(), e);
+                    event.setPublishedAt(now);
+                }
+            }
+        }
+        return batch.size();
+    }
+    
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.booking.events;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AppointmentEventRepository extends JpaRepository<AppointmentEvent, Long> {
+    
+    // Lock the oldest unpublished events; rows locked by another relay are skipped instead of waited for
+    @Query(value = "SELECT * FROM appointment_events WHERE published_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<AppointmentEvent> lockUnpublished(@Param("limit") int limit);
+}
@@ -0,0 +1,7 @@
+package com.example.booking.events;
+
+public enum AppointmentEventType {
+    CREATED,
+    STATUS_CHANGED,
+    DELETED
+}
@@ -0,0 +1,59 @@
+package com.example.booking.events;
+
+import com.example.booking.appointments.Appointment;
+import com.example.booking.appointments.AppointmentDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+@Component
+public class AppointmentOutbox {
+    
+    private final AppointmentEventRepository appointmentEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AppointmentOutbox(AppointmentEventRepository appointmentEventRepository, JdbcTemplate jdbcTemplate) {
+        this.appointmentEventRepository = appointmentEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Record a change of an appointment; only valid inside the transaction that makes the change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(AppointmentEventType type, Appointment appointment) {
+        AppointmentEvent event = new AppointmentEvent();
+        event.setEventType(type);
+        event.setAppointmentId(appointment.getId());
+        event.setCustomerId(appointment.getCustomer().getId());
+        event.setBusinessId(appointment.getBusiness().getId());
+        event.setServiceId(appointment.getService().getId());
+        event.setStatus(appointment.getStatus());
+        event.setDateTime(appointment.getDateTime());
+        event.setEndTime(appointment.getEndTime());
+        appointmentEventRepository.save(event);
+    }
+    
+    // Record the same kind of change for many appointments with one batched insert
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(AppointmentEventType type, Collection<AppointmentDto> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO appointment_events (event_type, appointment_id, customer_id, business_id, service_id, " +
+            "status, date_time, end_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            appointments, appointments.size(), (ps, appointment) -> {
+                ps.setString(1, type.name());
+                ps.setLong(2, appointment.getId());
+                ps.setLong(3, appointment.getCustomerId());
+                ps.setLong(4, appointment.getBusinessId());
+                ps.setLong(5, appointment.getServiceId());
+                ps.setString(6, appointment.getStatus().name());
+                ps.setTimestamp(7, Timestamp.valueOf(appointment.getDateTime()));
+                ps.setTimestamp(8, Timestamp.valueOf(appointment.getEndTime()));
+            });
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.booking.events;
+
+import com.example.booking.appointments.AppointmentStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Payload of an appointment change pushed to business dashboards
+@Data
+public class AppointmentStreamEvent {
+    
+    private AppointmentEventType type;
+    private Long appointmentId;
+    private Long businessId;
+    private Long serviceId;
+    private Long customerId;
+    private AppointmentStatus status;
+    private LocalDateTime dateTime;
+    private LocalDateTime endTime;
+    
+    public static AppointmentStreamEvent from(AppointmentEvent event) {
+        AppointmentStreamEvent streamEvent = new AppointmentStreamEvent();
+        streamEvent.setType(event.getEventType());
+        streamEvent.setAppointmentId(event.getAppointmentId());
+        streamEvent.setBusinessId(event.getBusinessId());
+        streamEvent.setServiceId(event.getServiceId());
+        streamEvent.setCustomerId(event.getCustomerId());
+        streamEvent.setStatus(event.getStatus());
+        streamEvent.setDateTime(event.getDateTime());
+        streamEvent.setEndTime(event.getEndTime());
+        return streamEvent;
+    }
+}
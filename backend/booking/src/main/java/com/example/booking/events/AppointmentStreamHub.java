@@ -0,0 +1,241 @@
+package com.example.booking.events;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes appointment events relayed from the outbox to the open dashboard streams of the businesses they belong to.
+ * A stream is an async SseEmitter, so an idle connection holds no request thread and costs no database work after
+ * the owner's business IDs are loaded on connect. Each subscriber has a bounded buffer drained by a virtual thread
+ * only while it has messages; a subscriber whose buffer fills up is disconnected rather than allowed to hold back
+ * the relay or grow without limit, and the client recovers through delta sync when it reconnects.
+ */
+@Slf4j
+@Component
+public class AppointmentStreamHub implements AppointmentEventListener {
+
+    private final BusinessRepository businessRepository;
+    private final AuthenticationHelper authenticationHelper;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribersByBusiness = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sendExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("appointment-stream-", 0).factory());
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public AppointmentStreamHub(BusinessRepository businessRepository,
+                                AuthenticationHelper authenticationHelper,
+                                ObjectMapper objectMapper,
+                                @Value("${booking.stream.buffer-size:64}") int bufferSize,
+                                @Value("${booking.stream.max-subscribers:10000}") int maxSubscribers,
+                                @Value("${booking.stream.timeout-minutes:30}") long timeoutMinutes) {
+        this.businessRepository = businessRepository;
+        this.authenticationHelper = authenticationHelper;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+    }
+
+    // Open a stream of the events of every business the current owner has; businesses added later need a reconnect
+    public SseEmitter subscribe() {
+        List<Long> businessIds = businessRepository.findIdsByOwnerId(authenticationHelper.getCurrentUserId());
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new BadRequestException("Too many open appointment streams, please try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, businessIds);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        for (Long businessId : businessIds) {
+            // Add inside compute so a concurrent close cannot drop the set between lookup and add
+            subscribersByBusiness.compute(businessId, (id, set) -> {
+                Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscriber);
+                return target;
+            });
+        }
+        // Sends the response headers right away, so the client knows the stream is open
+        subscriber.offer(StreamMessage.comment("connected"));
+        return emitter;
+    }
+
+    // Serialize once and enqueue for every subscriber of the business; never blocks the relay thread
+    @Override
+    public void onAppointmentEvent(AppointmentEvent event) {
+        Set<Subscriber> targets = subscribersByBusiness.get(event.getBusinessId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(AppointmentStreamEvent.from(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize appointment event {} for streaming", event.getId(), e);
+            return;
+        }
+        StreamMessage message = StreamMessage.event(String.valueOf(event.getId()), event.getEventType().name(), data);
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(message);
+        }
+        published.incrementAndGet();
+    }
+
+    // Keeps proxies from closing idle streams and finds connections the client has dropped
+    @Scheduled(fixedDelayString = "${booking.stream.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        StreamMessage heartbeat = StreamMessage.comment("heartbeat");
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(heartbeat);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        sendExecutor.shutdownNow();
+    }
+
+    // An SSE comment when name is null, otherwise an event carrying a JSON payload
+    private record StreamMessage(String id, String name, String data) {
+
+        static StreamMessage comment(String text) {
+            return new StreamMessage(null, null, text);
+        }
+
+        static StreamMessage event(String id, String name, String data) {
+            return new StreamMessage(id, name, data);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final List<Long> businessIds;
+        private final ArrayBlockingQueue<StreamMessage> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, List<Long> businessIds) {
+            this.emitter = emitter;
+            this.businessIds = businessIds;
+        }
+
+        // Buffer the message and make sure a drain is running; a full buffer means the client cannot keep up
+        void offer(StreamMessage message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                evicted.incrementAndGet();
+                log.debug("Disconnecting slow appointment stream of businesses {}", businessIds);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                StreamMessage message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // A message offered after the last poll but before the flag was cleared still needs a drain
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            for (Long businessId : businessIds) {
+                subscribersByBusiness.computeIfPresent(businessId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+            subscriberCount.decrementAndGet();
+            buffer.clear();
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Appointment stream already closed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.booking.exceptions;
+
+// The resource was changed concurrently and the request no longer applies to its current state
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+    
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.booking.idempotency;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Request whose body is hashed as the application reads it, so a body can be fingerprinted however large it is
+ * without holding it in memory.
+ */
+public class DigestingRequestWrapper extends HttpServletRequestWrapper {
+    
+    private final MessageDigest digest;
+    private DigestingInputStream inputStream;
+    private BufferedReader reader;
+    
+    public DigestingRequestWrapper(HttpServletRequest request) {
+        super(request);
+        this.digest = sha256();
+    }
+    
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        return stream();
+    }
+    
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new InputStreamReader(stream(), charset));
+        }
+        return reader;
+    }
+    
+    // Read whatever the application left unread and return the hex SHA-256 of the whole body
+    public String finish() throws IOException {
+        stream().transferTo(OutputStream.nullOutputStream());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private DigestingInputStream stream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new DigestingInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+    
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private final class DigestingInputStream extends ServletInputStream {
+        
+        private final ServletInputStream delegate;
+        
+        private DigestingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read > 0) {
+                digest.update(buffer, offset, read);
+            }
+            return read;
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.booking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes authenticated POST and PATCH requests that carry an Idempotency-Key header safe to retry.
+ * The first request with a key runs normally and its response is stored; retries get the stored response
+ * without reaching the controller, and duplicates that arrive while the first is still running wait for it.
+ * Keys are scoped to the user, method and path, and a key is bound to the body of its first request: reusing it with
+ * a different body is rejected with 422 instead of replaying a response to another request. Server errors and statuses that invite a retry (409 conflicts, 429,
+ * 408 and 425) are not stored, so such a request runs again when retried with the same key.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    // Client errors that say the same request may succeed later, e.g. a 409 after a booking lock or version conflict
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(
+        HttpStatus.REQUEST_TIMEOUT.value(), HttpStatus.CONFLICT.value(),
+        HttpStatus.TOO_EARLY.value(), HttpStatus.TOO_MANY_REQUESTS.value());
+    
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    
+    public IdempotencyFilter(IdempotencyStore idempotencyStore,
+                             ObjectMapper objectMapper,
+                             @Value("${booking.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = Duration.ofSeconds(waitSeconds);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+            || !(HttpMethod.POST.matches(method) || HttpMethod.PATCH.matches(method))
+            || request.getRequestURI().startsWith("/api/auth/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String key = authentication.getName() + ' ' + request.getMethod() + ' ' + request.getRequestURI() + ' ' + idempotencyKey;
+        
+        DigestingRequestWrapper requestWrapper = new DigestingRequestWrapper(request);
+        
+        Optional<StoredResponse> stored = idempotencyStore.find(key);
+        if (stored.isPresent()) {
+            replayIfSameBody(requestWrapper, response, stored.get());
+            return;
+        }
+        
+        Optional<CompletableFuture<StoredResponse>> running = idempotencyStore.claim(key);
+        if (running.isPresent()) {
+            awaitAndReplay(running.get(), requestWrapper, response);
+            return;
+        }
+        
+        // The previous owner may have stored its response between the lookup and the claim
+        stored = idempotencyStore.find(key);
+        if (stored.isPresent()) {
+            idempotencyStore.release(key, stored.get());
+            replayIfSameBody(requestWrapper, response, stored.get());
+            return;
+        }
+        
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(requestWrapper, responseWrapper);
+            int status = responseWrapper.getStatus();
+            byte[] body = isReplayable(status) ? responseWrapper.getContentAsByteArray() : null;
+            idempotencyStore.complete(key, requestWrapper.finish(), status, responseWrapper.getContentType(), body);
+            completed = true;
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key, null);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+    
+    // Whether a response is final for its key; others release the key so a retry runs the request again
+    static boolean isReplayable(int status) {
+        return status < HttpStatus.INTERNAL_SERVER_ERROR.value() && !TRANSIENT_STATUSES.contains(status);
+    }
+    
+    // Wait for the first execution of the key and answer with its response
+    private void awaitAndReplay(CompletableFuture<StoredResponse> execution, DigestingRequestWrapper request,
+                                HttpServletResponse response) throws IOException {
+        StoredResponse result;
+        try {
+            result = execution.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            return;
+        } catch (ExecutionException e) {
+            result = null;
+        }
+        
+        if (result == null) {
+            writeError(response, HttpStatus.CONFLICT, "The first request with this Idempotency-Key failed; retry it");
+            return;
+        }
+        replayIfSameBody(request, response, result);
+    }
+    
+    // Replay the stored response to a request with the body it was stored for; rows stored before bodies were
+    // hashed have no hash and are replayed as before
+    private void replayIfSameBody(DigestingRequestWrapper request, HttpServletResponse response, StoredResponse stored)
+            throws IOException {
+        String requestHash = request.finish();
+        if (stored.getRequestHash() != null && !stored.getRequestHash().equals(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "This Idempotency-Key was already used with a different request body");
+            return;
+        }
+        replay(response, stored);
+    }
+    
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+    
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+}
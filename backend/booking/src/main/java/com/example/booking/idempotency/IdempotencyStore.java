@@ -0,0 +1,138 @@
+package com.example.booking.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stored responses of idempotent requests.
+ * Recent responses live in a size-bounded, TTL-evicting in-memory map; every response is also written to the
+ * idempotency_keys table, which answers retries after a restart or once the entry has left memory.
+ * Executions still in flight are tracked so concurrent duplicates can wait for the first one instead of running again.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    
+    // Expired rows are purged from the table once every this many stores
+    private static final int PURGE_EVERY_STORES = 1_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Map<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong stores = new AtomicLong();
+    
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${booking.idempotency.max-entries:10000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    // Stored response for a key, from memory first and then from the table
+    public Optional<StoredResponse> find(String key) {
+        Instant now = Instant.now();
+        synchronized (responses) {
+            StoredResponse response = responses.get(key);
+            if (response != null) {
+                if (!response.isExpired(now)) {
+                    return Optional.of(response);
+                }
+                responses.remove(key);
+            }
+        }
+        
+        List<StoredResponse> rows = jdbcTemplate.query(
+            "SELECT request_hash, status, content_type, body, expires_at FROM idempotency_keys " +
+            "WHERE key_hash = ? AND expires_at > ?",
+            (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getInt("status"), rs.getString("content_type"),
+                rs.getBytes("body"), rs.getTimestamp("expires_at").toInstant()),
+            hash(key), Timestamp.from(now));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        StoredResponse response = rows.get(0);
+        synchronized (responses) {
+            responses.put(key, response);
+        }
+        return Optional.of(response);
+    }
+    
+    // Claim a key for execution; returns empty when the caller now owns it, otherwise the execution already running
+    public Optional<CompletableFuture<StoredResponse>> claim(String key) {
+        return Optional.ofNullable(inFlight.putIfAbsent(key, new CompletableFuture<>()));
+    }
+    
+    // Finish the owner's execution: keep the response (body null if it must not be replayed, which leaves the key
+    // free for a retry) and release waiting duplicates
+    public void complete(String key, String requestHash, int status, String contentType, byte[] body) {
+        StoredResponse response = null;
+        try {
+            if (body != null) {
+                response = new StoredResponse(requestHash, status, contentType, body, Instant.now().plus(ttl));
+                save(key, response);
+            }
+        } finally {
+            // Saved before the key is released, so a duplicate arriving afterwards finds the stored response
+            release(key, response);
+        }
+    }
+    
+    // Give up ownership of a key and hand the response (or null) to the duplicates waiting on it
+    public void release(String key, StoredResponse response) {
+        CompletableFuture<StoredResponse> execution = inFlight.remove(key);
+        if (execution != null) {
+            execution.complete(response);
+        }
+    }
+    
+    private void save(String key, StoredResponse response) {
+        synchronized (responses) {
+            responses.put(key, response);
+        }
+        
+        // The request already took effect; losing the table copy only narrows replay to this instance's memory
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (key_hash, request_hash, status, content_type, body, expires_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE request_hash = VALUES(request_hash), " +
+                "status = VALUES(status), content_type = VALUES(content_type), body = VALUES(body), " +
+                "expires_at = VALUES(expires_at)",
+                hash(key), response.getRequestHash(), response.getStatus(), response.getContentType(), response.getBody(),
+                Timestamp.from(response.getExpiresAt()));
+            if (stores.incrementAndGet() % PURGE_EVERY_STORES == 0) {
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.from(Instant.now()));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not persist idempotency key", e);
+        }
+    }
+    
+    // Keys embed the user and path, so only a fixed-length digest is written to the table
+    private static String hash(String key) {
+        return HexFormat.of().formatHex(DigestingRequestWrapper.sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+}
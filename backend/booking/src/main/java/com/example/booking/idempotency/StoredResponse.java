@@ -0,0 +1,24 @@
+package com.example.booking.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Status, content type and body of a completed request, kept so a retry with the same key can be answered verbatim,
+ * and the SHA-256 of the request body it answers (null for rows stored before bodies were hashed).
+ */
+@Data
+@AllArgsConstructor
+public class StoredResponse {
+    private String requestHash;
+    private int status;
+    private String contentType;
+    private byte[] body;
+    private Instant expiresAt;
+    
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
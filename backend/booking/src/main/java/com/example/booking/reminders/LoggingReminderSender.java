@@ -0,0 +1,21 @@
+package com.example.booking.reminders;
+
+import com.example.booking.appointments.AppointmentDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in sender that writes reminders to the application log until an email or SMS sender replaces it.
+ */
+@Slf4j
+@Component
+public class LoggingReminderSender implements ReminderSender {
+    
+    @Override
+    public void send(Reminder reminder) {
+        AppointmentDto appointment = reminder.getAppointment();
+        log.info("Reminder {} to {} <{}>: {} at {} on {} (appointment {})", reminder.getType(),
+            appointment.getCustomerName(), appointment.getCustomerEmail(), appointment.getServiceName(),
+            appointment.getBusinessName(), appointment.getDateTime(), appointment.getId());
+    }
+}
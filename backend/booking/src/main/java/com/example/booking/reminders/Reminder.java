@@ -0,0 +1,12 @@
+package com.example.booking.reminders;
+
+import com.example.booking.appointments.AppointmentDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Reminder {
+    private ReminderType type;
+    private AppointmentDto appointment;
+}
@@ -0,0 +1,30 @@
+package com.example.booking.reminders;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Cross-instance record of sent reminders (appointment_reminders). Every instance loads the same window and fires
+ * the same reminders, so each one is claimed with a single insert before it is sent: the primary key lets exactly
+ * one instance in, and the others skip it. A claim is not given back when the send fails, so a reminder goes out at
+ * most once.
+ */
+@Component
+public class ReminderClaims {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ReminderClaims(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // True when this instance is the first to claim the reminder of the appointment at that start time
+    public boolean claim(Long appointmentId, ReminderType type, LocalDateTime dateTime) {
+        return jdbcTemplate.update(
+            "INSERT IGNORE INTO appointment_reminders (appointment_id, type, date_time) VALUES (?, ?, ?)",
+            appointmentId, type.name(), Timestamp.valueOf(dateTime)) == 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.booking.reminders;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reminders")
+@Tag(name = "Reminders", description = "APIs for monitoring appointment reminders")
+public class ReminderController {
+    
+    private final ReminderScheduler reminderScheduler;
+    
+    public ReminderController(ReminderScheduler reminderScheduler) {
+        this.reminderScheduler = reminderScheduler;
+    }
+    
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get reminder metrics", 
+               description = "Returns how many reminders are pending, fired, sent and skipped, and how late they fired. Admin only.")
+    public ResponseEntity<ReminderStats> getStats() {
+        return ResponseEntity.ok(reminderScheduler.getStats());
+    }
+}
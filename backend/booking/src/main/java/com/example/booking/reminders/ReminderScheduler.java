@@ -0,0 +1,227 @@
+package com.example.booking.reminders;
+
+import com.example.booking.appointments.AppointmentDto;
+import com.example.booking.appointments.AppointmentRepository;
+import com.example.booking.appointments.AppointmentStatus;
+import com.example.booking.events.AppointmentEvent;
+import com.example.booking.events.AppointmentEventListener;
+import com.example.booking.events.AppointmentEventType;
+import com.example.booking.scheduling.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the day-before and hour-before reminders of confirmed appointments.
+ * Only a rolling window of upcoming appointments is tracked: it is loaded through the (status, date_time) index
+ * and extended on every refresh, and each of its reminders sits on a hashed timing wheel until due.
+ * Outbox events keep the window current between refreshes. Before sending, the appointment is read again, so a
+ * reminder that raced with a cancellation or a reschedule is skipped rather than sent. Every instance schedules every
+ * reminder, and only the one that claims it in the database sends it.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler implements AppointmentEventListener {
+    
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderSender reminderSender;
+    private final ReminderClaims reminderClaims;
+    private final Duration window;
+    private final Duration grace;
+    private final HashedTimingWheel wheel = new HashedTimingWheel("appointment-reminders", Duration.ofSeconds(1), 4096);
+    private final ThreadPoolExecutor sendExecutor;
+    private final Map<Long, ScheduledReminders> scheduled = new ConcurrentHashMap<>();
+    private volatile LocalDateTime loadedUntil;
+    
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    
+    public ReminderScheduler(AppointmentRepository appointmentRepository,
+                             ReminderSender reminderSender,
+                             ReminderClaims reminderClaims,
+                             @Value("${booking.reminders.window-hours:26}") long windowHours,
+                             @Value("${booking.reminders.grace-minutes:5}") long graceMinutes,
+                             @Value("${booking.reminders.queue-capacity:10000}") int queueCapacity) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderSender = reminderSender;
+        this.reminderClaims = reminderClaims;
+        this.window = Duration.ofHours(windowHours);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.sendExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "reminder-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    // Load the confirmed appointments that entered the window since the last refresh; runs once at startup too
+    @Scheduled(fixedDelayString = "${booking.reminders.refresh-interval-ms:600000}")
+    public void refreshWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = loadedUntil != null && loadedUntil.isAfter(now) ? loadedUntil : now;
+        LocalDateTime until = now.plus(window);
+        try {
+            for (AppointmentDto appointment : appointmentRepository.findByStatusAndDateTimeRange(
+                    AppointmentStatus.CONFIRMED, from, until)) {
+                schedule(appointment.getId(), appointment.getDateTime());
+            }
+            loadedUntil = until;
+        } catch (RuntimeException e) {
+            log.warn("Could not load upcoming appointments for reminders", e);
+        }
+    }
+    
+    // Confirmations inside the window are scheduled now, later ones by a refresh; anything else drops the reminders
+    @Override
+    public void onAppointmentEvent(AppointmentEvent event) {
+        boolean confirmed = event.getEventType() != AppointmentEventType.DELETED
+            && event.getStatus() == AppointmentStatus.CONFIRMED;
+        if (confirmed && event.getDateTime().isBefore(LocalDateTime.now().plus(window))) {
+            schedule(event.getAppointmentId(), event.getDateTime());
+        } else {
+            cancel(event.getAppointmentId());
+        }
+    }
+    
+    public ReminderStats getStats() {
+        ReminderStats stats = new ReminderStats();
+        stats.setTrackedAppointments(scheduled.size());
+        stats.setPendingReminders(wheel.pendingTimeouts());
+        stats.setFired(fired.get());
+        stats.setSent(sent.get());
+        stats.setSkipped(skipped.get());
+        stats.setFailed(failed.get());
+        stats.setDropped(dropped.get());
+        stats.setAverageFireLagMillis(fired.get() == 0 ? 0 : totalLagMillis.get() / fired.get());
+        stats.setMaxFireLagMillis(maxLagMillis.get());
+        stats.setLoadedUntil(loadedUntil);
+        return stats;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        sendExecutor.shutdownNow();
+    }
+    
+    // Replace the reminders of an appointment; reminders due less than the grace period ago still go out
+    private void schedule(Long appointmentId, LocalDateTime dateTime) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<ReminderType, Duration> delays = new EnumMap<>(ReminderType.class);
+        for (ReminderType type : ReminderType.values()) {
+            Duration delay = Duration.between(now, dateTime.minus(type.getLead()));
+            if (!delay.isNegative() || delay.abs().compareTo(grace) <= 0) {
+                delays.put(type, delay.isNegative() ? Duration.ZERO : delay);
+            }
+        }
+        
+        // Registered before anything is on the wheel, so a reminder that fires at once finds its entry to remove
+        ScheduledReminders reminders = new ScheduledReminders(appointmentId, delays.size());
+        ScheduledReminders previous = delays.isEmpty() ? scheduled.remove(appointmentId) : scheduled.put(appointmentId, reminders);
+        if (previous != null) {
+            previous.cancel();
+        }
+        delays.forEach((type, delay) -> reminders.add(
+            wheel.schedule(() -> fire(reminders, type, dateTime, dateTime.minus(type.getLead())), delay)));
+    }
+    
+    private void cancel(Long appointmentId) {
+        ScheduledReminders previous = scheduled.remove(appointmentId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    // Runs on the wheel thread: record the lag and hand the send off
+    private void fire(ScheduledReminders reminders, ReminderType type, LocalDateTime dateTime, LocalDateTime fireAt) {
+        long lagMillis = Math.max(0, Duration.between(fireAt, LocalDateTime.now()).toMillis());
+        fired.incrementAndGet();
+        totalLagMillis.addAndGet(lagMillis);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        if (reminders.firedOne()) {
+            scheduled.remove(reminders.appointmentId, reminders);
+        }
+        
+        try {
+            sendExecutor.execute(() -> send(reminders.appointmentId, type, dateTime));
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    private void send(Long appointmentId, ReminderType type, LocalDateTime dateTime) {
+        try {
+            Optional<AppointmentDto> appointment = appointmentRepository.findDtoById(appointmentId);
+            if (appointment.isEmpty() || appointment.get().getStatus() != AppointmentStatus.CONFIRMED
+                    || !appointment.get().getDateTime().equals(dateTime)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            // Another instance fired the same reminder and got there first
+            if (!reminderClaims.claim(appointmentId, type, dateTime)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            reminderSender.send(new Reminder(type, appointment.get()));
+            sent.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Could not send {} reminder for appointment {}", type, appointmentId, e);
+        }
+    }
+    
+    // The wheel timeouts of one appointment; the entry leaves the map when the last one fires
+    private static final class ScheduledReminders {
+        
+        private final Long appointmentId;
+        private final List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>(ReminderType.values().length);
+        private final AtomicInteger remaining;
+        private boolean cancelled;
+        
+        ScheduledReminders(Long appointmentId, int count) {
+            this.appointmentId = appointmentId;
+            this.remaining = new AtomicInteger(count);
+        }
+        
+        // A timeout added after the reminders were replaced or cancelled is cancelled right away
+        synchronized void add(HashedTimingWheel.Timeout timeout) {
+            if (cancelled) {
+                timeout.cancel();
+            } else {
+                timeouts.add(timeout);
+            }
+        }
+        
+        boolean firedOne() {
+            return remaining.decrementAndGet() == 0;
+        }
+        
+        synchronized void cancel() {
+            cancelled = true;
+            timeouts.forEach(HashedTimingWheel.Timeout::cancel);
+        }
+    }
+}
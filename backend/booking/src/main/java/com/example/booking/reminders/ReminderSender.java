@@ -0,0 +1,9 @@
+package com.example.booking.reminders;
+
+/**
+ * Delivers a reminder to the customer. Called on the reminder sender thread, never on a request thread.
+ */
+public interface ReminderSender {
+    
+    void send(Reminder reminder);
+}
@@ -0,0 +1,19 @@
+package com.example.booking.reminders;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ReminderStats {
+    private int trackedAppointments;
+    private long pendingReminders;
+    private long fired;
+    private long sent;
+    private long skipped;
+    private long failed;
+    private long dropped;
+    private long averageFireLagMillis;
+    private long maxFireLagMillis;
+    private LocalDateTime loadedUntil;
+}
@@ -0,0 +1,19 @@
+package com.example.booking.reminders;
+
+import java.time.Duration;
+
+public enum ReminderType {
+    DAY_BEFORE(Duration.ofHours(24)),
+    HOUR_BEFORE(Duration.ofHours(1));
+    
+    private final Duration lead;
+    
+    ReminderType(Duration lead) {
+        this.lead = lead;
+    }
+    
+    // How long before the appointment the reminder is sent
+    public Duration getLead() {
+        return lead;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.booking.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel: timeouts are hashed by deadline into a ring of buckets that a single worker thread
+ * advances once per tick, so scheduling and cancelling a timeout are O(1) however many are pending.
+ * Timeouts fire up to one tick late. Tasks run on the worker thread and must be short.
+ */
+@Slf4j
+public class HashedTimingWheel {
+    
+    // Upper bound on newly scheduled timeouts moved into the wheel per tick, so a burst cannot stall expiry
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+    
+    public HashedTimingWheel(String name, Duration tickDuration, int ticksPerWheel) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    // Run the task once the delay has passed, unless the returned timeout is cancelled first
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel is stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + Math.max(0, delay.toNanos()));
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+    
+    // Timeouts that have neither fired nor been cancelled
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+    
+    // Stop the worker; timeouts that have not fired yet are dropped
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(tickNanos / 1_000_000 + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        while (running) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                return;
+            }
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+    
+    // Sleep until the end of the current tick and return the time elapsed since start, or -1 when stopped
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - now + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return now;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+    
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.ACTIVE) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+            // Deadlines that already passed go into the current bucket and fire on this tick
+            wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+    
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+    
+    /**
+     * Handle of a scheduled task.
+     */
+    public final class Timeout {
+        
+        private static final int ACTIVE = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ACTIVE);
+        
+        // Owned by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+        
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        // Returns false if the task already ran or was cancelled before
+        public boolean cancel() {
+            if (!state.compareAndSet(ACTIVE, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+        
+        private void expire() {
+            if (!state.compareAndSet(ACTIVE, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Timing wheel task failed", e);
+            }
+        }
+    }
+    
+    // Doubly linked list of the timeouts hashed to one slot of the wheel, touched only by the worker thread
+    private static final class Bucket {
+        
+        private Timeout head;
+        private Timeout tail;
+        
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+        
+        // Fire the timeouts due in this round and age the ones due in later rounds
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state.get() == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+        
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.booking.search;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class OpenSlotDto {
+    private Long businessId;
+    private String businessName;
+    private String location;
+    private Long serviceId;
+    private String serviceName;
+    private Integer durationMinutes;
+    private BigDecimal price;
+    private LocalDateTime dateTime;
+    
+    public OpenSlotDto(Long businessId, String businessName, String location, Long serviceId, String serviceName,
+                       Integer durationMinutes, BigDecimal price) {
+        this.businessId = businessId;
+        this.businessName = businessName;
+        this.location = location;
+        this.serviceId = serviceId;
+        this.serviceName = serviceName;
+        this.durationMinutes = durationMinutes;
+        this.price = price;
+    }
+    
+    // A copy of this service template starting at the given time
+    public OpenSlotDto at(LocalDateTime dateTime) {
+        OpenSlotDto slot = new OpenSlotDto(businessId, businessName, location, serviceId, serviceName, durationMinutes, price);
+        slot.setDateTime(dateTime);
+        return slot;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.booking.search;
+
+import com.example.booking.availability.AvailabilityIndex;
+import com.example.booking.availability.DayOccupancy;
+import com.example.booking.availability.FreeSlotService;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.events.AppointmentEvent;
+import com.example.booking.events.AppointmentEventListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Free time of every business over the next horizon-days, for searches across businesses.
+ * Each business's free minutes are kept per day, and time buckets map to the businesses with at least one free
+ * minute in them, so a search walks buckets in time order and only looks at businesses that are free then.
+ * Appointment events and availability changes mark a business dirty, and dirty businesses are rebuilt in small
+ * batches on a worker thread, with one booked-interval read each, so the scheduler thread is never held up. The
+ * first refresh and every new day queue all businesses, so results can lag a change by about the refresh interval.
+ * Events are relayed by a single instance and availability changes are only seen where they were made, so every
+ * business is also queued again every requeue-seconds; other instances catch up within that time.
+ */
+@Slf4j
+@Component
+public class OpenSlotIndex implements AppointmentEventListener {
+    
+    private static final Comparator<OpenSlotDto> LATEST_FIRST = Comparator.comparing(OpenSlotDto::getDateTime).reversed();
+    
+    private final FreeSlotService freeSlotService;
+    private final BusinessRepository businessRepository;
+    private final int horizonDays;
+    private final int bucketMinutes;
+    private final int refreshBatchSize;
+    private final long requeueNanos;
+    private final Map<Long, FreeTime> freeTimes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDateTime, Set<Long>> buckets = new ConcurrentSkipListMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDate horizonStart;
+    private volatile long requeuedAt;
+    private volatile Thread worker;
+    
+    public OpenSlotIndex(FreeSlotService freeSlotService,
+                         BusinessRepository businessRepository,
+                         AvailabilityIndex availabilityIndex,
+                         @Value("${booking.search.horizon-days:14}") int horizonDays,
+                         @Value("${booking.search.bucket-minutes:60}") int bucketMinutes,
+                         @Value("${booking.search.refresh-batch-size:200}") int refreshBatchSize,
+                         @Value("${booking.search.requeue-seconds:300}") long requeueSeconds) {
+        this.freeSlotService = freeSlotService;
+        this.businessRepository = businessRepository;
+        this.horizonDays = horizonDays;
+        this.bucketMinutes = bucketMinutes;
+        this.refreshBatchSize = refreshBatchSize;
+        this.requeueNanos = Duration.ofSeconds(requeueSeconds).toNanos();
+        availabilityIndex.addChangeListener(dirty::add);
+    }
+    
+    @Override
+    public void onAppointmentEvent(AppointmentEvent event) {
+        dirty.add(event.getBusinessId());
+    }
+    
+    // End of the indexed time range; searches do not look past it
+    public LocalDateTime horizonEnd() {
+        LocalDate start = horizonStart != null ? horizonStart : LocalDate.now();
+        return start.plusDays(horizonDays).atStartOfDay();
+    }
+    
+    // Start rebuilding a batch of changed businesses on the worker; skipped while the previous batch is still running
+    @Scheduled(fixedDelayString = "${booking.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            worker = Thread.ofVirtual().name("open-slot-refresh").start(() -> {
+                try {
+                    refreshBatch();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            log.warn("Could not start the open slot refresh", e);
+        }
+    }
+    
+    // Rebuild a batch of changed businesses on the calling thread; the first run, the first run of each day and the
+    // first run after requeue-seconds queue every business
+    public void refreshBatch() {
+        LocalDate today = LocalDate.now();
+        long now = System.nanoTime();
+        boolean newDay = !today.equals(horizonStart);
+        if (newDay || now - requeuedAt >= requeueNanos) {
+            try {
+                dirty.addAll(businessRepository.findAllIds());
+            } catch (RuntimeException e) {
+                log.warn("Could not load businesses for the open slot index", e);
+                return;
+            }
+            requeuedAt = now;
+            if (newDay) {
+                horizonStart = today;
+                buckets.headMap(today.atStartOfDay()).clear();
+            }
+        }
+        
+        int refreshed = 0;
+        Iterator<Long> iterator = dirty.iterator();
+        while (iterator.hasNext() && refreshed < refreshBatchSize && !Thread.currentThread().isInterrupted()) {
+            Long businessId = iterator.next();
+            // Removed before reading, so a change committed meanwhile queues the business again
+            iterator.remove();
+            try {
+                rebuild(businessId, today);
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh open slots of business {}", businessId, e);
+                dirty.add(businessId);
+                return;
+            }
+            refreshed++;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+    
+    // Earliest start of each candidate service in [from, to), earliest first, at most limit of them
+    public List<OpenSlotDto> findEarliest(List<OpenSlotDto> candidates, LocalDateTime from, LocalDateTime to, int limit) {
+        Map<Long, List<OpenSlotDto>> servicesByBusiness = new HashMap<>();
+        for (OpenSlotDto candidate : candidates) {
+            servicesByBusiness.computeIfAbsent(candidate.getBusinessId(), id -> new ArrayList<>()).add(candidate);
+        }
+        
+        PriorityQueue<OpenSlotDto> best = new PriorityQueue<>(LATEST_FIRST);
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime firstBucket = bucketOf(from);
+        for (Map.Entry<LocalDateTime, Set<Long>> bucket : buckets.subMap(firstBucket, true, to, false).entrySet()) {
+            // A business first free in this bucket cannot start before it, so it cannot beat a full result set
+            if (best.size() >= limit && !best.peek().getDateTime().isAfter(bucket.getKey())) {
+                break;
+            }
+            Set<Long> free = bucket.getValue();
+            Iterable<Long> businessIds = free.size() < servicesByBusiness.size() ? free : servicesByBusiness.keySet();
+            for (Long businessId : businessIds) {
+                List<OpenSlotDto> services = servicesByBusiness.get(businessId);
+                if (services == null || !free.contains(businessId) || !seen.add(businessId)) {
+                    continue;
+                }
+                FreeTime freeTime = freeTimes.get(businessId);
+                if (freeTime == null) {
+                    continue;
+                }
+                for (OpenSlotDto service : services) {
+                    LocalDateTime start = freeTime.earliestStart(service.getDurationMinutes(), from, to);
+                    if (start != null) {
+                        best.offer(service.at(start));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+        
+        List<OpenSlotDto> result = new ArrayList<>(best);
+        result.sort(LATEST_FIRST.reversed());
+        return result;
+    }
+    
+    private void rebuild(Long businessId, LocalDate today) {
+        DayOccupancy[] days = freeSlotService.buildOccupancy(businessId, today, horizonDays);
+        FreeTime next = new FreeTime(today, days, bucketsOf(today, days));
+        
+        // Join the new buckets before leaving the old ones, so the business never drops out of a search
+        for (LocalDateTime bucket : next.buckets()) {
+            buckets.compute(bucket, (key, businesses) -> {
+                Set<Long> target = businesses != null ? businesses : ConcurrentHashMap.newKeySet();
+                target.add(businessId);
+                return target;
+            });
+        }
+        FreeTime previous = next.buckets().isEmpty() ? freeTimes.remove(businessId) : freeTimes.put(businessId, next);
+        if (previous != null) {
+            for (LocalDateTime bucket : previous.buckets()) {
+                if (!next.buckets().contains(bucket)) {
+                    buckets.computeIfPresent(bucket, (key, businesses) -> {
+                        businesses.remove(businessId);
+                        return businesses.isEmpty() ? null : businesses;
+                    });
+                }
+            }
+        }
+    }
+    
+    private Set<LocalDateTime> bucketsOf(LocalDate firstDay, DayOccupancy[] days) {
+        Set<LocalDateTime> result = new HashSet<>();
+        for (int day = 0; day < days.length; day++) {
+            if (days[day].isEmpty()) {
+                continue;
+            }
+            LocalDateTime dayStart = firstDay.plusDays(day).atStartOfDay();
+            for (int minute = 0; minute < DayOccupancy.MINUTES_PER_DAY; minute += bucketMinutes) {
+                if (days[day].anyFree(minute, minute + bucketMinutes)) {
+                    result.add(dayStart.plusMinutes(minute));
+                }
+            }
+        }
+        return result;
+    }
+    
+    private LocalDateTime bucketOf(LocalDateTime time) {
+        LocalDateTime dayStart = time.truncatedTo(ChronoUnit.DAYS);
+        long minute = Duration.between(dayStart, time).toMinutes();
+        return dayStart.plusMinutes(minute - minute % bucketMinutes);
+    }
+    
+    private record FreeTime(LocalDate firstDay, DayOccupancy[] days, Set<LocalDateTime> buckets) {
+        
+        // Earliest start in [from, to) with the whole duration free; like the free-slot lookup, a start opens each free run
+        LocalDateTime earliestStart(int durationMinutes, LocalDateTime from, LocalDateTime to) {
+            LocalDateTime fromMinute = from.truncatedTo(ChronoUnit.MINUTES);
+            if (fromMinute.isBefore(from)) {
+                fromMinute = fromMinute.plusMinutes(1);
+            }
+            int firstIndex = (int) Math.max(0, ChronoUnit.DAYS.between(firstDay, from.toLocalDate()));
+            for (int day = firstIndex; day < days.length; day++) {
+                LocalDateTime dayStart = firstDay.plusDays(day).atStartOfDay();
+                if (!dayStart.isBefore(to)) {
+                    return null;
+                }
+                int notBefore = dayStart.isBefore(fromMinute) ? (int) Duration.between(dayStart, fromMinute).toMinutes() : 0;
+                int minute = days[day].firstFreeStart(durationMinutes, notBefore);
+                if (minute >= 0) {
+                    LocalDateTime start = dayStart.plusMinutes(minute);
+                    return start.isBefore(to) ? start : null;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.booking.search;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Search", description = "APIs for searching across businesses")
+public class OpenSlotSearchController {
+    
+    private final OpenSlotSearchService openSlotSearchService;
+    
+    public OpenSlotSearchController(OpenSlotSearchService openSlotSearchService) {
+        this.openSlotSearchService = openSlotSearchService;
+    }
+    
+    @GetMapping("/open-slots")
+    @Operation(summary = "Find the earliest open slots", 
+               description = "Returns the earliest bookable start of every service whose name matches, across all businesses, earliest first. Results come from an in-memory index that follows bookings and availability changes within a few seconds.")
+    public ResponseEntity<List<OpenSlotDto>> findOpenSlots(
+            @Parameter(description = "Part of the service name, e.g. haircut", required = true) @RequestParam String service,
+            @Parameter(description = "Earliest start (default: now)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Latest start, exclusive (default: end of the searchable horizon)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Part of the business location") @RequestParam(required = false) String location,
+            @Parameter(description = "Maximum number of results (default: 10, max 50)") @RequestParam(required = false) Integer limit) {
+        List<OpenSlotDto> slots = openSlotSearchService.findOpenSlots(service, from, to, location, limit);
+        return ResponseEntity.ok(slots);
+    }
+}
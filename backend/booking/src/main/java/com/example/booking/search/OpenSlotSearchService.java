@@ -0,0 +1,53 @@
+package com.example.booking.search;
+
+import com.example.booking.exceptions.BadRequestException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class OpenSlotSearchService {
+    
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+    
+    private final ServiceNameIndex serviceNameIndex;
+    private final OpenSlotIndex openSlotIndex;
+    
+    public OpenSlotSearchService(ServiceNameIndex serviceNameIndex, OpenSlotIndex openSlotIndex) {
+        this.serviceNameIndex = serviceNameIndex;
+        this.openSlotIndex = openSlotIndex;
+    }
+    
+    // Find the earliest bookable start of matching services across all businesses
+    public List<OpenSlotDto> findOpenSlots(String service, LocalDateTime from, LocalDateTime to, String location, Integer limit) {
+        if (service == null || service.isBlank()) {
+            throw new BadRequestException("Service is required");
+        }
+        if (limit == null) {
+            limit = DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        
+        // Only the future up to the end of the index can be searched
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime horizonEnd = openSlotIndex.horizonEnd();
+        LocalDateTime end = to == null || to.isAfter(horizonEnd) ? horizonEnd : to;
+        if (!start.isBefore(end)) {
+            return List.of();
+        }
+        
+        List<OpenSlotDto> candidates = serviceNameIndex.find(service.trim(),
+            location == null || location.isBlank() ? null : location.trim());
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        return openSlotIndex.findEarliest(candidates, start, end, limit);
+    }
+}
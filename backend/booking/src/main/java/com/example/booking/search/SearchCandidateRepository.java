@@ -0,0 +1,16 @@
+package com.example.booking.search;
+
+import com.example.booking.services.ServiceEntity;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+// Read side of the service catalog as search needs it; services themselves know nothing about search
+public interface SearchCandidateRepository extends Repository<ServiceEntity, Long> {
+    
+    // Every service with its business, as search result templates
+    @Query("SELECT new com.example.booking.search.OpenSlotDto(b.id, b.name, b.location, s.id, s.name, s.durationMinutes, s.price) " +
+           "FROM ServiceEntity s JOIN s.business b")
+    List<OpenSlotDto> findAllCandidates();
+}
@@ -0,0 +1,111 @@
+package com.example.booking.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every service with its business, in memory, for matching search terms against service names without a table scan.
+ * Names are indexed by their three-letter substrings, so a search only checks the services that share the term's
+ * rarest one; terms shorter than that check every service. Matching is a case-insensitive substring match on the
+ * name and, when given, on the business location. The catalog is reloaded every catalog-refresh-ms, so a new or
+ * renamed service shows up in searches within that time.
+ */
+@Slf4j
+@Component
+public class ServiceNameIndex {
+    
+    private static final int GRAM_LENGTH = 3;
+    
+    private final SearchCandidateRepository searchCandidateRepository;
+    private volatile Catalog catalog;
+    
+    public ServiceNameIndex(SearchCandidateRepository searchCandidateRepository) {
+        this.searchCandidateRepository = searchCandidateRepository;
+    }
+    
+    // Reload the catalog; runs once at startup too
+    @Scheduled(fixedDelayString = "${booking.search.catalog-refresh-ms:60000}")
+    public void refresh() {
+        try {
+            catalog = new Catalog(searchCandidateRepository.findAllCandidates());
+        } catch (RuntimeException e) {
+            log.warn("Could not load the service catalog for search", e);
+        }
+    }
+    
+    // Services whose name contains the term, at businesses whose location contains the given one when there is one
+    public List<OpenSlotDto> find(String name, String location) {
+        Catalog current = catalog;
+        if (current == null) {
+            // Searched before the first refresh finished; load on the caller so a failure reaches it
+            current = new Catalog(searchCandidateRepository.findAllCandidates());
+            catalog = current;
+        }
+        return current.find(name.toLowerCase(Locale.ROOT), location == null ? null : location.toLowerCase(Locale.ROOT));
+    }
+    
+    private static final class Catalog {
+        
+        private final List<OpenSlotDto> services;
+        private final String[] names;
+        private final String[] locations;
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+        
+        Catalog(List<OpenSlotDto> services) {
+            this.services = services;
+            this.names = new String[services.size()];
+            this.locations = new String[services.size()];
+            for (int i = 0; i < services.size(); i++) {
+                OpenSlotDto service = services.get(i);
+                names[i] = service.getServiceName() == null ? "" : service.getServiceName().toLowerCase(Locale.ROOT);
+                locations[i] = service.getLocation() == null ? "" : service.getLocation().toLowerCase(Locale.ROOT);
+                for (int start = 0; start + GRAM_LENGTH <= names[i].length(); start++) {
+                    String gram = names[i].substring(start, start + GRAM_LENGTH);
+                    List<Integer> posting = postings.computeIfAbsent(gram, g -> new ArrayList<>());
+                    // A name repeating a gram adds itself once; postings stay in catalog order
+                    if (posting.isEmpty() || posting.get(posting.size() - 1) != i) {
+                        posting.add(i);
+                    }
+                }
+            }
+        }
+        
+        List<OpenSlotDto> find(String name, String location) {
+            List<Integer> checked = null;
+            for (int start = 0; start + GRAM_LENGTH <= name.length(); start++) {
+                List<Integer> posting = postings.get(name.substring(start, start + GRAM_LENGTH));
+                if (posting == null) {
+                    return List.of();
+                }
+                if (checked == null || posting.size() < checked.size()) {
+                    checked = posting;
+                }
+            }
+            
+            List<OpenSlotDto> matches = new ArrayList<>();
+            if (checked == null) {
+                for (int i = 0; i < services.size(); i++) {
+                    addIfMatches(i, name, location, matches);
+                }
+            } else {
+                for (int i : checked) {
+                    addIfMatches(i, name, location, matches);
+                }
+            }
+            return matches;
+        }
+        
+        private void addIfMatches(int i, String name, String location, List<OpenSlotDto> matches) {
+            if (names[i].contains(name) && (location == null || locations[i].contains(location))) {
+                matches.add(services.get(i));
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.booking.services;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -18,6 +19,7 @@ public class CreateServiceRequest {
     
     @NotNull(message = "Duration is required")
     @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = 1440, message = "Duration must be at most 24 hours")
     private Integer durationMinutes;
     
     @Min(value = 0, message = "Price cannot be negative")
@@ -2,6 +2,7 @@ package com.example.booking.services;
 
 import com.example.booking.businesses.Business;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -34,6 +35,7 @@ public class ServiceEntity {
     
     @NotNull(message = "Duration is required")
     @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = 1440, message = "Duration must be at most 24 hours")
     @Column(name = "duration_minutes", nullable = false)
     private Integer durationMinutes;
     
@@ -43,4 +45,8 @@ public class ServiceEntity {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+    
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -14,10 +14,12 @@ public interface ServiceMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "business", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     ServiceEntity toEntity(CreateServiceRequest request);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "business", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntity(UpdateServiceRequest request, @MappingTarget ServiceEntity serviceEntity);
 }
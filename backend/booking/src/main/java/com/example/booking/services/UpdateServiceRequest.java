@@ -1,5 +1,6 @@
 package com.example.booking.services;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
 
@@ -11,6 +12,7 @@ public class UpdateServiceRequest {
     private String name;
     
     @Min(value = 1, message = "Duration must be at least 1 minute")
+    @Max(value = 1440, message = "Duration must be at most 24 hours")
     private Integer durationMinutes;
     
     @Min(value = 0, message = "Price cannot be negative")
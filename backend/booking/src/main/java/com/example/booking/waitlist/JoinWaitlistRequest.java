@@ -0,0 +1,21 @@
+package com.example.booking.waitlist;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class JoinWaitlistRequest {
+    
+    @NotNull(message = "Business ID is required")
+    private Long businessId;
+    
+    @NotNull(message = "Service ID is required")
+    private Long serviceId;
+    
+    @NotNull(message = "Date is required")
+    @FutureOrPresent(message = "Date must be today or later")
+    private LocalDate desiredDate;
+}
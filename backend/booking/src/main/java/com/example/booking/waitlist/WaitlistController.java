@@ -0,0 +1,50 @@
+package com.example.booking.waitlist;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@Tag(name = "Waitlist", description = "APIs for queueing for a fully booked day and being offered freed slots")
+public class WaitlistController {
+    
+    private final WaitlistService waitlistService;
+    
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @Operation(summary = "Join a waitlist", 
+               description = "Queues the current customer for a service of a business on a date. When an appointment that day is cancelled, the first waiter whose service fits gets a slot hold. Only users with CUSTOMER role can join waitlists.")
+    public ResponseEntity<WaitlistEntryDto> joinWaitlist(@Valid @RequestBody JoinWaitlistRequest request) {
+        WaitlistEntryDto entry = waitlistService.joinWaitlist(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+    
+    @GetMapping("/my")
+    @Operation(summary = "Get my waitlist entries", 
+               description = "Retrieves the waitlist entries of the current user, including the slot hold of promoted entries.")
+    public ResponseEntity<List<WaitlistEntryDto>> getMyWaitlistEntries() {
+        List<WaitlistEntryDto> entries = waitlistService.getMyWaitlistEntries();
+        return ResponseEntity.ok(entries);
+    }
+    
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Leave a waitlist", 
+               description = "Removes a waitlist entry of the current user.")
+    public ResponseEntity<Void> leaveWaitlist(
+            @Parameter(description = "Waitlist entry ID", required = true) @PathVariable Long id) {
+        waitlistService.leaveWaitlist(id);
+        return ResponseEntity.noContent().build();
+    }
+}
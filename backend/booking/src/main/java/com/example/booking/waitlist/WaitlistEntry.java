@@ -0,0 +1,60 @@
+package com.example.booking.waitlist;
+
+import com.example.booking.businesses.Business;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.users.User;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "waitlist_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private User customer;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "business_id", nullable = false)
+    private Business business;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "service_id", nullable = false)
+    private ServiceEntity service;
+    
+    @NotNull(message = "Date is required")
+    @Column(name = "desired_date", nullable = false)
+    private LocalDate desiredDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    // Set when the entry is promoted: the slot hold created for the customer
+    @Column(name = "hold_id")
+    private String holdId;
+    
+    @Column(name = "held_date_time")
+    private LocalDateTime heldDateTime;
+    
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
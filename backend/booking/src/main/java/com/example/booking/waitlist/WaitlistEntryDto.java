@@ -0,0 +1,22 @@
+package com.example.booking.waitlist;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistEntryDto {
+    private Long id;
+    private Long customerId;
+    private Long businessId;
+    private String businessName;
+    private Long serviceId;
+    private String serviceName;
+    private LocalDate desiredDate;
+    private WaitlistStatus status;
+    private String holdId;
+    private LocalDateTime heldDateTime;
+    private LocalDateTime holdExpiresAt;
+    private LocalDateTime createdAt;
+}
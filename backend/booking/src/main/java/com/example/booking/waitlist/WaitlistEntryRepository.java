@@ -0,0 +1,35 @@
+package com.example.booking.waitlist;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    // Waiting entries of a business for a day in queue order, served by the (business_id, desired_date, status, id) index
+    @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.service " +
+           "WHERE w.business.id = :businessId AND w.desiredDate = :date AND w.status = 'WAITING' ORDER BY w.id")
+    List<WaitlistEntry> findWaiting(
+        @Param("businessId") Long businessId,
+        @Param("date") LocalDate date,
+        Limit limit
+    );
+    
+    // Entries of a customer with business and service names
+    @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.business JOIN FETCH w.service " +
+           "WHERE w.customer.id = :customerId ORDER BY w.desiredDate, w.id")
+    List<WaitlistEntry> findByCustomerId(@Param("customerId") Long customerId);
+    
+    // Check if the customer already waits for this service on this day
+    @Query("SELECT COUNT(w) > 0 FROM WaitlistEntry w WHERE w.customer.id = :customerId " +
+           "AND w.service.id = :serviceId AND w.desiredDate = :date AND w.status = 'WAITING'")
+    boolean existsWaiting(
+        @Param("customerId") Long customerId,
+        @Param("serviceId") Long serviceId,
+        @Param("date") LocalDate date
+    );
+}
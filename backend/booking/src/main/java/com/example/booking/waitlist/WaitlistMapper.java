@@ -0,0 +1,15 @@
+package com.example.booking.waitlist;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface WaitlistMapper {
+    
+    @Mapping(source = "customer.id", target = "customerId")
+    @Mapping(source = "business.id", target = "businessId")
+    @Mapping(source = "business.name", target = "businessName")
+    @Mapping(source = "service.id", target = "serviceId")
+    @Mapping(source = "service.name", target = "serviceName")
+    WaitlistEntryDto toDto(WaitlistEntry entry);
+}
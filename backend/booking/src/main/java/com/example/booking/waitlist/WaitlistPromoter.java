@@ -0,0 +1,202 @@
+package com.example.booking.waitlist;
+
+import com.example.booking.appointments.AppointmentStatus;
+import com.example.booking.appointments.SlotHold;
+import com.example.booking.appointments.SlotHoldService;
+import com.example.booking.events.AppointmentEvent;
+import com.example.booking.events.AppointmentEventListener;
+import com.example.booking.events.AppointmentEventType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offers freed appointment intervals to the waitlist, off the relay thread.
+ * Cancellations and deletions arrive as outbox events and are queued per business; one task per business drains its
+ * queue on a small bounded executor, so intervals of the same business are matched in order and never concurrently,
+ * and a promotion waiting on a busy business's booking lock holds up neither the relay nor other businesses.
+ * Each interval is offered to the business's waiters for that day in joining order, and the first one whose service
+ * fits gets a slot hold. When an interval cannot be queued because the executor or the business's queue is full,
+ * the listener throws and the relay delivers the event again later. Once queued, a promotion that keeps failing is
+ * given up after a few attempts, and queued intervals do not survive a restart.
+ */
+@Slf4j
+@Component
+public class WaitlistPromoter implements AppointmentEventListener {
+    
+    // Attempts of one promotion, e.g. after timing out on the business's booking lock, before it is given up
+    static final int PROMOTION_ATTEMPTS = 3;
+    
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final SlotHoldService slotHoldService;
+    private final TransactionTemplate transactionTemplate;
+    private final int holdMinutes;
+    private final int maxWaitersPerInterval;
+    private final int maxQueuedPerBusiness;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, Deque<FreedInterval>> queues = new ConcurrentHashMap<>();
+    
+    public WaitlistPromoter(WaitlistEntryRepository waitlistEntryRepository,
+                            SlotHoldService slotHoldService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${booking.waitlist.hold-minutes:15}") int holdMinutes,
+                            @Value("${booking.waitlist.max-waiters-per-interval:50}") int maxWaitersPerInterval,
+                            @Value("${booking.waitlist.max-queued-per-business:100}") int maxQueuedPerBusiness,
+                            @Value("${booking.waitlist.threads:2}") int threads,
+                            @Value("${booking.waitlist.queue-capacity:1000}") int queueCapacity) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.slotHoldService = slotHoldService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.holdMinutes = holdMinutes;
+        this.maxWaitersPerInterval = maxWaitersPerInterval;
+        this.maxQueuedPerBusiness = maxQueuedPerBusiness;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "waitlist-promoter-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    // A cancelled appointment, or a deleted one that still held its time, frees its interval; throws when the
+    // interval cannot be queued, so the relay retries the event
+    @Override
+    public void onAppointmentEvent(AppointmentEvent event) {
+        boolean cancelled = event.getEventType() == AppointmentEventType.STATUS_CHANGED
+            && event.getStatus() == AppointmentStatus.CANCELLED;
+        boolean deletedWhileActive = event.getEventType() == AppointmentEventType.DELETED
+            && (event.getStatus() == AppointmentStatus.PENDING || event.getStatus() == AppointmentStatus.CONFIRMED);
+        if ((cancelled || deletedWhileActive) && event.getDateTime().isAfter(LocalDateTime.now())) {
+            enqueue(new FreedInterval(event.getBusinessId(), event.getDateTime()));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private void enqueue(FreedInterval freed) {
+        boolean[] startDrain = {false};
+        boolean[] queued = {false};
+        queues.compute(freed.businessId(), (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                startDrain[0] = true;
+            }
+            if (queue.size() < maxQueuedPerBusiness) {
+                queued[0] = queue.add(freed);
+            }
+            return queue;
+        });
+        if (!queued[0]) {
+            throw new IllegalStateException("Waitlist promotion queue of business " + freed.businessId() + " is full");
+        }
+        if (!startDrain[0]) {
+            return;
+        }
+        
+        try {
+            executor.execute(() -> drain(freed.businessId()));
+        } catch (RejectedExecutionException e) {
+            // Nothing drains the new queue, so drop it; it only held this interval
+            queues.remove(freed.businessId());
+            throw new IllegalStateException("Waitlist promotion executor is full", e);
+        }
+    }
+    
+    // Match the freed intervals of one business in order until its queue is empty
+    private void drain(Long businessId) {
+        while (true) {
+            FreedInterval[] next = {null};
+            queues.computeIfPresent(businessId, (id, queue) -> {
+                next[0] = queue.poll();
+                return next[0] == null ? null : queue;
+            });
+            if (next[0] == null) {
+                return;
+            }
+            promoteWithRetries(next[0]);
+        }
+    }
+    
+    // Each attempt is a transaction of its own, so a failed one leaves nothing behind for the next
+    private void promoteWithRetries(FreedInterval freed) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> promote(freed));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= PROMOTION_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                    log.warn("Giving up on waitlist promotion for business {} at {} after {} attempts",
+                        freed.businessId(), freed.start(), attempt, e);
+                    return;
+                }
+            }
+        }
+    }
+    
+    // Give the first waiter whose service fits at the freed start time a hold on it
+    private void promote(FreedInterval freed) {
+        if (!freed.start().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findWaiting(freed.businessId(),
+            freed.start().toLocalDate(), Limit.of(maxWaitersPerInterval));
+        for (WaitlistEntry entry : waiting) {
+            // A miss must not throw: it would mark this transaction rollback-only and lose the next waiter's promotion
+            Optional<SlotHold> placed = slotHoldService.tryPlaceHold(entry.getCustomer().getId(), freed.businessId(),
+                entry.getService(), freed.start(), holdMinutes);
+            if (placed.isEmpty()) {
+                continue;
+            }
+            SlotHold hold = placed.get();
+            releaseUnlessCommitted(hold);
+            entry.setStatus(WaitlistStatus.PROMOTED);
+            entry.setHoldId(hold.getId());
+            entry.setHeldDateTime(hold.getDateTime());
+            entry.setHoldExpiresAt(hold.getExpiresAt());
+            waitlistEntryRepository.save(entry);
+            return;
+        }
+    }
+    
+    // Holds live in memory, so one placed for a promotion that does not commit would block the slot until it expires
+    private void releaseUnlessCommitted(SlotHold hold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    slotHoldService.remove(hold);
+                }
+            }
+        });
+    }
+    
+    private record FreedInterval(Long businessId, LocalDateTime start) {
+    }
+}
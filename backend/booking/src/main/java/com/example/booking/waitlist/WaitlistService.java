@@ -0,0 +1,91 @@
+package com.example.booking.waitlist;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.exceptions.ForbiddenException;
+import com.example.booking.exceptions.ResourceNotFoundException;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRole;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class WaitlistService {
+    
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final BusinessRepository businessRepository;
+    private final ServiceRepository serviceRepository;
+    private final WaitlistMapper waitlistMapper;
+    private final AuthenticationHelper authenticationHelper;
+    
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           BusinessRepository businessRepository,
+                           ServiceRepository serviceRepository,
+                           WaitlistMapper waitlistMapper,
+                           AuthenticationHelper authenticationHelper) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.businessRepository = businessRepository;
+        this.serviceRepository = serviceRepository;
+        this.waitlistMapper = waitlistMapper;
+        this.authenticationHelper = authenticationHelper;
+    }
+    
+    // Join the waitlist of a service for a day - Only CUSTOMER role can join waitlists
+    public WaitlistEntryDto joinWaitlist(JoinWaitlistRequest request) {
+        User currentUser = authenticationHelper.getCurrentUser();
+        
+        if (currentUser.getRole() != UserRole.CUSTOMER) {
+            throw new ForbiddenException("Only users with CUSTOMER role can join waitlists");
+        }
+        
+        Business business = businessRepository.findById(request.getBusinessId())
+            .orElseThrow(() -> new ResourceNotFoundException("Business", "id", request.getBusinessId()));
+        
+        ServiceEntity service = serviceRepository.findByIdAndBusinessId(request.getServiceId(), business.getId())
+            .orElseThrow(() -> new ResourceNotFoundException("Service", "id", request.getServiceId()));
+        
+        if (waitlistEntryRepository.existsWaiting(currentUser.getId(), service.getId(), request.getDesiredDate())) {
+            throw new BadRequestException("You are already on the waitlist for this service on this date");
+        }
+        
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomer(currentUser);
+        entry.setBusiness(business);
+        entry.setService(service);
+        entry.setDesiredDate(request.getDesiredDate());
+        entry.setStatus(WaitlistStatus.WAITING);
+        
+        WaitlistEntry savedEntry = waitlistEntryRepository.save(entry);
+        return waitlistMapper.toDto(savedEntry);
+    }
+    
+    // Get the waitlist entries of the current user
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryDto> getMyWaitlistEntries() {
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        return waitlistEntryRepository.findByCustomerId(currentUserId).stream()
+            .map(waitlistMapper::toDto)
+            .toList();
+    }
+    
+    // Leave a waitlist - Only the customer who joined it
+    public void leaveWaitlist(Long id) {
+        Long currentUserId = authenticationHelper.getCurrentUserId();
+        
+        WaitlistEntry entry = waitlistEntryRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("WaitlistEntry", "id", id));
+        
+        if (!entry.getCustomer().getId().equals(currentUserId)) {
+            throw new ForbiddenException("You can only leave your own waitlist entries");
+        }
+        
+        waitlistEntryRepository.delete(entry);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.booking.waitlist;
+
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED
+}
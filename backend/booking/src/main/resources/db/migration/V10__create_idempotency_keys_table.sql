@@ -0,0 +1,11 @@
+-- Responses of mutating requests sent with an Idempotency-Key header, replayed when the request is retried
+CREATE TABLE idempotency_keys (
+    key_hash CHAR(64) PRIMARY KEY,
+    status INT NOT NULL,
+    content_type VARCHAR(255),
+    body MEDIUMBLOB,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+);
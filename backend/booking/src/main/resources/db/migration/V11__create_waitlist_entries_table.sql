@@ -0,0 +1,20 @@
+CREATE TABLE waitlist_entries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    business_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    desired_date DATE NOT NULL,
+    status ENUM('WAITING','PROMOTED') DEFAULT 'WAITING',
+    hold_id VARCHAR(36),
+    held_date_time TIMESTAMP NULL,
+    hold_expires_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (customer_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (business_id) REFERENCES businesses(id) ON DELETE CASCADE,
+    FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE,
+
+    -- Waiters of a business for a day, in queue order
+    INDEX idx_waitlist_business_date_status (business_id, desired_date, status, id),
+    INDEX idx_waitlist_customer (customer_id)
+);
@@ -0,0 +1,19 @@
+-- Outbox of appointment lifecycle events, written in the same transaction as the change and relayed to listeners
+CREATE TABLE appointment_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type ENUM('CREATED','STATUS_CHANGED','DELETED') NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    customer_id BIGINT NOT NULL,
+    business_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    status ENUM('PENDING','CONFIRMED','CANCELLED','DONE') NOT NULL,
+    date_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+
+    -- The relay reads the oldest unpublished events
+    INDEX idx_appointment_events_unpublished (published_at, id)
+);
@@ -0,0 +1,22 @@
+-- Cold storage for DONE and CANCELLED appointments past the archive horizon; rows keep their appointments.id
+CREATE TABLE appointments_archive (
+    id BIGINT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    business_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    date_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    status ENUM('PENDING','CONFIRMED','CANCELLED','DONE') NOT NULL,
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (customer_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (business_id) REFERENCES businesses(id) ON DELETE CASCADE,
+    FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE,
+
+    -- Same listing paths as the live table
+    INDEX idx_appointments_archive_date_time (date_time),
+    INDEX idx_appointments_archive_customer_date (customer_id, date_time),
+    INDEX idx_appointments_archive_business_interval (business_id, date_time, end_time, status),
+    INDEX idx_appointments_archive_status_date (status, date_time)
+);
@@ -0,0 +1,5 @@
+-- Optimistic locking versions, incremented by Hibernate on every update
+ALTER TABLE appointments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE availability_slots ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE services ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE businesses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,21 @@
+-- Last change of each appointment, kept by MySQL so JPA and bulk updates both move it; drives delta sync
+ALTER TABLE appointments
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+UPDATE appointments SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP(6));
+
+CREATE INDEX idx_appointments_updated_at ON appointments (updated_at);
+CREATE INDEX idx_appointments_customer_updated_at ON appointments (customer_id, updated_at);
+CREATE INDEX idx_appointments_business_updated_at ON appointments (business_id, updated_at);
+
+-- Deleted appointments, so syncing clients can drop them; purged after the sync retention period
+CREATE TABLE appointment_tombstones (
+    appointment_id BIGINT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    business_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+
+    INDEX idx_appointment_tombstones_deleted_at (deleted_at),
+    INDEX idx_appointment_tombstones_customer (customer_id, deleted_at),
+    INDEX idx_appointment_tombstones_business (business_id, deleted_at)
+);
@@ -0,0 +1,18 @@
+-- Recurring weekly opening hours: one row covers every matching weekday between valid_from and valid_until
+CREATE TABLE availability_rules (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    business_id BIGINT NOT NULL,
+    -- Bit 0 is Monday, bit 6 is Sunday
+    weekdays TINYINT UNSIGNED NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    valid_from DATE NOT NULL,
+    -- NULL while the rule has no end
+    valid_until DATE NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (business_id) REFERENCES businesses(id) ON DELETE CASCADE,
+
+    INDEX idx_availability_rules_business (business_id, valid_from)
+);
@@ -0,0 +1,18 @@
+-- Dated changes to the regular hours: closures (holidays, sick days) and extra opening hours
+CREATE TABLE availability_exceptions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    business_id BIGINT NOT NULL,
+    type ENUM('CLOSED','OPEN') NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    -- NULL for the whole day; only closures can cover the whole day
+    start_time TIME NULL,
+    end_time TIME NULL,
+    reason VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (business_id) REFERENCES businesses(id) ON DELETE CASCADE,
+
+    INDEX idx_availability_exceptions_business (business_id, start_date)
+);
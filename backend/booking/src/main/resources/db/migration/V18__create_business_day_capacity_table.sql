@@ -0,0 +1,19 @@
+-- Free time of each business per day over the booking window, maintained alongside appointments and availability.
+-- Bitmaps hold one bit per minute of the day (bit i = minute i, little-endian, trailing zero bytes dropped).
+CREATE TABLE business_day_capacity (
+    business_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    open_minutes INT NOT NULL,
+    free_minutes INT NOT NULL,
+    -- Minutes the business is open, minutes taken by non-cancelled appointments, and open minus taken
+    open_bitmap VARBINARY(180) NOT NULL,
+    booked_bitmap VARBINARY(180) NOT NULL,
+    free_bitmap VARBINARY(180) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (business_id, day),
+    FOREIGN KEY (business_id) REFERENCES businesses(id) ON DELETE CASCADE,
+
+    -- Window roll-over purges past days
+    INDEX idx_business_day_capacity_day (day)
+);
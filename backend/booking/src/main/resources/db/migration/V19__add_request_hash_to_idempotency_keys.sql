@@ -0,0 +1,2 @@
+-- SHA-256 of the body of the request a stored response answers, so a key reused with another body is rejected
+ALTER TABLE idempotency_keys ADD COLUMN request_hash CHAR(64) AFTER key_hash;
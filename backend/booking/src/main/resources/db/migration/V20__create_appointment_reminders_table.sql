@@ -0,0 +1,12 @@
+-- Reminders already sent, one row per appointment, reminder type and start time. Every instance tracks every
+-- upcoming reminder; the one whose insert lands sends it. A rescheduled appointment starts at another time, so its
+-- reminders are claimed afresh.
+CREATE TABLE appointment_reminders (
+    appointment_id BIGINT NOT NULL,
+    type ENUM('DAY_BEFORE','HOUR_BEFORE') NOT NULL,
+    date_time DATETIME NOT NULL,
+    sent_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (appointment_id, type, date_time),
+    FOREIGN KEY (appointment_id) REFERENCES appointments(id) ON DELETE CASCADE
+);
@@ -0,0 +1,14 @@
+-- Store when each appointment ends so interval queries no longer join services
+ALTER TABLE appointments
+ADD COLUMN end_time TIMESTAMP NULL AFTER date_time;
+
+UPDATE appointments a
+JOIN services s ON s.id = a.service_id
+SET a.end_time = DATE_ADD(a.date_time, INTERVAL s.duration_minutes MINUTE);
+
+ALTER TABLE appointments
+MODIFY COLUMN end_time TIMESTAMP NOT NULL;
+
+-- Range scans for day views and overlap checks of a business, and for a customer's history
+CREATE INDEX idx_appointments_business_interval ON appointments (business_id, date_time, end_time, status);
+CREATE INDEX idx_appointments_customer_date ON appointments (customer_id, date_time);
@@ -0,0 +1,3 @@
+-- Keyset pagination over (date_time, id) for the admin listings; InnoDB appends id to every secondary index
+CREATE INDEX idx_appointments_date_time ON appointments (date_time);
+CREATE INDEX idx_appointments_status_date ON appointments (status, date_time);
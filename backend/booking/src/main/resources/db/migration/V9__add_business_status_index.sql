@@ -0,0 +1,2 @@
+-- Status listings of a business (e.g. an owner's PENDING requests) read only the matching rows in date order
+CREATE INDEX idx_appointments_business_status_date ON appointments (business_id, status, date_time);
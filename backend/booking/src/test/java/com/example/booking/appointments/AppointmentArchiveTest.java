@@ -0,0 +1,47 @@
+package com.example.booking.appointments;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentArchiveTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void emptyArchiveIsReadAgainOnceTheRecheckIsDue() {
+        AppointmentArchive archive = new AppointmentArchive(jdbcTemplate, 180, 0);
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(400);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(null);
+        assertThat(archive.reaches(longAgo)).isFalse();
+
+        // Another instance archives rows; this one sees them on its next listing
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class)))
+            .thenReturn(Timestamp.valueOf(longAgo.plusDays(10)));
+        assertThat(archive.reaches(longAgo)).isTrue();
+        // Anything before the horizon may be archived now, whatever this instance last saw
+        assertThat(archive.reaches(archive.horizon().minusMinutes(1))).isTrue();
+        assertThat(archive.reaches(LocalDateTime.now())).isFalse();
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Timestamp.class));
+    }
+
+    @Test
+    void emptyArchiveIsNotReadAgainBeforeTheRecheckIsDue() {
+        AppointmentArchive archive = new AppointmentArchive(jdbcTemplate, 180, 3600);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(null);
+
+        assertThat(archive.reaches(LocalDateTime.now().minusDays(400))).isFalse();
+        assertThat(archive.reaches(LocalDateTime.now().minusDays(400))).isFalse();
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Timestamp.class));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.booking.appointments;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.availability.DayCapacityStore;
+import com.example.booking.availability.OccupancyCalendarCache;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.events.AppointmentEventType;
+import com.example.booking.events.AppointmentOutbox;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk status changes against an emulated appointments table. The ownership read returns the statuses the request
+ * started from, while the locking read and the UPDATE see the committed ones, so a test can let another request
+ * change a row in between, as it could before the rows are locked.
+ */
+class AppointmentBulkStatusTest {
+    
+    private static final Long OWNER_ID = 2L;
+    private static final Long BUSINESS_ID = 10L;
+    
+    // Committed status of each appointment of the owner's business
+    private final Map<Long, AppointmentStatus> table = new ConcurrentHashMap<>();
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AppointmentOutbox appointmentOutbox = mock(AppointmentOutbox.class);
+    private final DayCapacityStore dayCapacityStore = mock(DayCapacityStore.class);
+    private final List<List<Long>> announced = new ArrayList<>();
+    private final List<List<Long>> released = new ArrayList<>();
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    
+    // Applied to the table between the ownership read and the lock
+    private Runnable concurrentChange = () -> { };
+    private AppointmentService appointmentService;
+    
+    @BeforeEach
+    void setUp() {
+        AuthenticationHelper authenticationHelper = mock(AuthenticationHelper.class);
+        when(authenticationHelper.getCurrentUserRole()).thenReturn(UserRole.BUSINESS);
+        when(authenticationHelper.getCurrentUserId()).thenReturn(OWNER_ID);
+        
+        when(appointmentRepository.findDtosByIdInAndBusinessOwnerId(anyCollection(), eq(OWNER_ID))).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<AppointmentDto> rows = ids.stream().filter(table::containsKey).map(this::dto).toList();
+            concurrentChange.run();
+            return rows;
+        });
+        when(appointmentRepository.lockIdsByIdInAndStatusIn(anyCollection(), anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            Collection<String> statuses = invocation.getArgument(1);
+            return ids.stream().filter(id -> statuses.contains(table.get(id).name())).sorted().toList();
+        });
+        when(appointmentRepository.updateStatusByIdInAndStatusIn(anyCollection(), anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            Collection<AppointmentStatus> fromStatuses = invocation.getArgument(1);
+            int updated = 0;
+            for (Long id : ids) {
+                if (fromStatuses.contains(table.get(id))) {
+                    table.put(id, invocation.getArgument(2));
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        doAnswer(invocation -> announced.add(idsOf(invocation.getArgument(1))))
+            .when(appointmentOutbox).appendAll(eq(AppointmentEventType.STATUS_CHANGED), anyCollection());
+        doAnswer(invocation -> released.add(idsOf(invocation.getArgument(0))))
+            .when(dayCapacityStore).releaseAll(anyCollection());
+        
+        appointmentService = new AppointmentService(appointmentRepository, mock(BusinessRepository.class),
+            mock(ServiceRepository.class), mock(AppointmentMapper.class), authenticationHelper,
+            new BookingCoordinator(new StripedBookingLockProvider(8), 8, 5), new OccupancyCalendarCache(100),
+            mock(SlotHoldService.class), appointmentOutbox, mock(ArchivedAppointmentRepository.class),
+            mock(AppointmentArchive.class), mock(AppointmentTombstoneRepository.class), dayCapacityStore,
+            mock(PlatformTransactionManager.class));
+    }
+    
+    @Test
+    void reportsAnOutcomeForEveryRequestedId() {
+        table.put(1L, AppointmentStatus.PENDING);
+        table.put(2L, AppointmentStatus.CONFIRMED);
+        table.put(3L, AppointmentStatus.CANCELLED);
+        table.put(4L, AppointmentStatus.DONE);
+        
+        List<BulkStatusResult> results = bulkUpdate(AppointmentStatus.CONFIRMED, 1L, 2L, 3L, 4L, 99L, 1L);
+        
+        assertThat(results).extracting(BulkStatusResult::getId).containsExactly(1L, 2L, 3L, 4L, 99L);
+        assertThat(results).extracting(BulkStatusResult::getOutcome).containsExactly(BulkStatusOutcome.UPDATED,
+            BulkStatusOutcome.UNCHANGED, BulkStatusOutcome.INVALID_TRANSITION, BulkStatusOutcome.INVALID_TRANSITION,
+            BulkStatusOutcome.NOT_FOUND);
+        assertThat(results.get(2).getError()).isEqualTo("Cannot update a cancelled appointment");
+        assertThat(results.get(3).getError()).isEqualTo("Cannot update a completed appointment");
+        assertThat(table).containsEntry(1L, AppointmentStatus.CONFIRMED);
+        assertThat(announced).containsExactly(List.of(1L));
+        verify(dayCapacityStore, never()).releaseAll(anyCollection());
+    }
+    
+    @Test
+    void appointmentCancelledConcurrentlyIsAConflictAndNotAnnouncedAgain() {
+        table.put(1L, AppointmentStatus.PENDING);
+        table.put(2L, AppointmentStatus.PENDING);
+        table.put(3L, AppointmentStatus.CONFIRMED);
+        // The customer cancels 2 after this request read it; their cancellation already gave its minutes back
+        concurrentChange = () -> table.put(2L, AppointmentStatus.CANCELLED);
+        
+        List<BulkStatusResult> results = bulkUpdate(AppointmentStatus.CANCELLED, 1L, 2L, 3L);
+        
+        assertThat(results).extracting(BulkStatusResult::getOutcome).containsExactly(BulkStatusOutcome.UPDATED,
+            BulkStatusOutcome.CONFLICT, BulkStatusOutcome.UPDATED);
+        assertThat(announced).containsExactly(List.of(1L, 3L));
+        assertThat(released).containsExactly(List.of(1L, 3L));
+        verify(appointmentRepository).updateStatusByIdInAndStatusIn(eq(Set.of(1L, 3L)), anyCollection(),
+            eq(AppointmentStatus.CANCELLED));
+    }
+    
+    @Test
+    void appointmentsFinishedConcurrentlyAreNotUpdated() {
+        table.put(1L, AppointmentStatus.CONFIRMED);
+        concurrentChange = () -> table.put(1L, AppointmentStatus.DONE);
+        
+        List<BulkStatusResult> results = bulkUpdate(AppointmentStatus.CANCELLED, 1L);
+        
+        assertThat(results).extracting(BulkStatusResult::getOutcome).containsExactly(BulkStatusOutcome.CONFLICT);
+        assertThat(table).containsEntry(1L, AppointmentStatus.DONE);
+        assertThat(announced).containsExactly(List.of());
+        assertThat(released).containsExactly(List.of());
+        verify(appointmentRepository, never()).updateStatusByIdInAndStatusIn(anyCollection(), anyCollection(), any());
+    }
+    
+    private List<BulkStatusResult> bulkUpdate(AppointmentStatus status, Long... ids) {
+        BulkUpdateAppointmentStatusRequest request = new BulkUpdateAppointmentStatusRequest();
+        request.setIds(List.of(ids));
+        request.setStatus(status);
+        return appointmentService.bulkUpdateAppointmentStatus(request);
+    }
+    
+    private AppointmentDto dto(Long id) {
+        AppointmentDto dto = new AppointmentDto();
+        dto.setId(id);
+        dto.setBusinessId(BUSINESS_ID);
+        dto.setDateTime(start.plusHours(id));
+        dto.setEndTime(start.plusHours(id).plusMinutes(30));
+        dto.setStatus(table.get(id));
+        return dto;
+    }
+    
+    private static List<Long> idsOf(Collection<AppointmentDto> appointments) {
+        return appointments.stream().map(AppointmentDto::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.booking.appointments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The export must hold a constant amount of memory no matter how many rows it writes.
+ * The large export runs in a child JVM with a heap far too small to buffer the whole result.
+ */
+class AppointmentExportWriterTest {
+
+    private static final long LARGE_EXPORT_ROWS = 1_000_000;
+    private static final String SMALL_HEAP = "-Xmx32m";
+
+    @Test
+    void csvQuotesTextFields() throws Exception {
+        AppointmentDto row = row(7);
+        row.setCustomerName("Doe, \"Jo\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = writer().write(Stream.of(row), ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("id,customerId,customerName,");
+        assertThat(lines.get(1)).startsWith("7,1,\"Doe, \"\"Jo\"\"\",customer@example.com,");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = writer().write(LongStream.rangeClosed(1, 3).mapToObj(AppointmentExportWriterTest::row),
+            ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2)).startsWith("{\"id\":3,").contains("\"dateTime\":\"2030-01-01T10:00:00\"");
+    }
+
+    @Test
+    void exportsMillionRowsInSmallHeap() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            Path log = Files.createTempFile("export-", ".log");
+            Process process = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    SMALL_HEAP,
+                    "-cp", System.getProperty("java.class.path"),
+                    LargeExport.class.getName(),
+                    format.name(),
+                    String.valueOf(LARGE_EXPORT_ROWS))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+            boolean finished = process.waitFor(2, TimeUnit.MINUTES);
+            if (!finished) {
+                process.destroyForcibly();
+            }
+            String output = Files.readString(log);
+            Files.deleteIfExists(log);
+
+            assertThat(finished).as("%s export finished", format).isTrue();
+            assertThat(process.exitValue()).as("%s export failed:%n%s", format, output).isZero();
+            assertThat(output).contains("rows=" + LARGE_EXPORT_ROWS);
+        }
+    }
+
+    private static AppointmentExportWriter writer() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new AppointmentExportWriter(objectMapper);
+    }
+
+    private static AppointmentDto row(long id) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0).plusMinutes(30 * (id - 1));
+        return new AppointmentDto(id, 1L, "Customer " + id, "customer@example.com", 2L, "Business",
+            3L, "Haircut", 30, start, start.plusMinutes(30), AppointmentStatus.CONFIRMED, start.minusDays(1));
+    }
+
+    /**
+     * Child JVM entry point: streams generated rows through the writer and discards the output.
+     */
+    static class LargeExport {
+
+        public static void main(String[] args) throws Exception {
+            ExportFormat format = ExportFormat.valueOf(args[0]);
+            long rows = Long.parseLong(args[1]);
+            CountingOutputStream out = new CountingOutputStream();
+
+            long written = writer().write(LongStream.rangeClosed(1, rows).mapToObj(AppointmentExportWriterTest::row),
+                format, out);
+
+            System.out.println("rows=" + written + " bytes=" + out.bytes + " maxHeap=" + Runtime.getRuntime().maxMemory());
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
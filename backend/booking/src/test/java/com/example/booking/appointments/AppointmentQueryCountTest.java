@@ -0,0 +1,149 @@
+package com.example.booking.appointments;
+
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRepository;
+import com.example.booking.users.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing appointments must cost one SQL statement no matter how many rows a page holds.
+ * Runs against the configured database like the other Spring Boot tests; all data is rolled back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class AppointmentQueryCountTest {
+
+    private static final int APPOINTMENTS = 120;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private BusinessRepository businessRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User customer;
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.save(user(UserRole.CUSTOMER));
+        owner = userRepository.save(user(UserRole.BUSINESS));
+
+        Business business = new Business();
+        business.setOwner(owner);
+        business.setName("Query count test");
+        business = businessRepository.save(business);
+
+        ServiceEntity service = new ServiceEntity();
+        service.setBusiness(business);
+        service.setName("Haircut");
+        service.setDurationMinutes(30);
+        service = serviceRepository.save(service);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setCustomer(customer);
+            appointment.setBusiness(business);
+            appointment.setService(service);
+            appointment.setDateTime(start.plusMinutes(30L * i));
+            appointment.setEndTime(start.plusMinutes(30L * i + 30));
+            appointment.setStatus(AppointmentStatus.PENDING);
+            appointmentRepository.save(appointment);
+        }
+
+        // Start every listing from an empty persistence context
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void customerListingIsOneQuery() {
+        authenticate(customer);
+
+        AppointmentPage page = appointmentService.getMyAppointments(null, AppointmentService.MAX_PAGE_SIZE);
+
+        assertThat(page.getItems()).hasSize(APPOINTMENTS);
+        assertThat(page.getItems()).allSatisfy(dto -> assertThat(dto.getServiceName()).isEqualTo("Haircut"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void businessListingIsOneQuery() {
+        authenticate(owner);
+
+        AppointmentPage page = appointmentService.getMyBusinessAppointments(null, AppointmentService.MAX_PAGE_SIZE);
+
+        assertThat(page.getItems()).hasSize(APPOINTMENTS);
+        assertThat(page.getItems()).allSatisfy(dto -> assertThat(dto.getCustomerEmail()).isEqualTo(customer.getEmail()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void statusListingIsOneQuery() {
+        authenticate(owner);
+
+        AppointmentPage page = appointmentService.getAppointmentsByStatus(AppointmentStatus.PENDING, null, null, null, 50);
+
+        assertThat(page.getItems()).hasSize(50);
+        assertThat(page.getNext()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private void authenticate(User user) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            user.getId().toString(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static User user(UserRole role) {
+        User user = new User();
+        user.setName(role.name().toLowerCase());
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("not-a-real-hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.booking.appointments;
+
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRepository;
+import com.example.booking.users.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires hundreds of parallel bookings at one business and checks that no two accepted appointments overlap.
+ * Runs against the configured database like the other Spring Boot tests. Each booking is its own transaction, so
+ * the business row lock and the overlap query are the real ones; the test's users are deleted afterwards, which
+ * cascades to everything it created.
+ */
+@SpringBootTest
+class AppointmentServiceConcurrencyTest {
+
+    private static final int BOOKINGS = 200;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private BusinessRepository businessRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User customer;
+    private User owner;
+    private Business business;
+    private List<ServiceEntity> services;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.save(user(UserRole.CUSTOMER));
+        owner = userRepository.save(user(UserRole.BUSINESS));
+
+        business = new Business();
+        business.setOwner(owner);
+        business.setName("Concurrency test");
+        business = businessRepository.save(business);
+
+        services = List.of(service(30), service(45), service(60));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM appointment_events WHERE business_id = ?", business.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", customer.getId(), owner.getId());
+    }
+
+    @Test
+    void parallelBookingsNeverOverlap() throws Exception {
+        LocalDateTime day = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        Random random = new Random(42);
+        List<CreateAppointmentRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            CreateAppointmentRequest request = new CreateAppointmentRequest();
+            request.setBusinessId(business.getId());
+            request.setServiceId(services.get(random.nextInt(services.size())).getId());
+            request.setDateTime(day.plusMinutes(15L * random.nextInt(32)));
+            requests.add(request);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (CreateAppointmentRequest request : requests) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                authenticate(customer);
+                try {
+                    appointmentService.createAppointment(request);
+                    accepted.incrementAndGet();
+                } catch (BadRequestException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Appointment> booked = appointmentRepository.findByBusinessIdAndStatus(business.getId(), AppointmentStatus.PENDING);
+        assertThat(accepted.get() + rejected.get()).isEqualTo(BOOKINGS);
+        assertThat(accepted.get()).isPositive();
+        assertThat(booked).hasSize(accepted.get());
+        for (int i = 0; i < booked.size(); i++) {
+            for (int j = i + 1; j < booked.size(); j++) {
+                assertThat(overlaps(booked.get(i), booked.get(j)))
+                    .as("appointments %s and %s overlap", booked.get(i).getId(), booked.get(j).getId())
+                    .isFalse();
+            }
+        }
+    }
+
+    private static boolean overlaps(Appointment a, Appointment b) {
+        return a.getDateTime().isBefore(b.getEndTime()) && b.getDateTime().isBefore(a.getEndTime());
+    }
+
+    private ServiceEntity service(int durationMinutes) {
+        ServiceEntity service = new ServiceEntity();
+        service.setBusiness(business);
+        service.setName(durationMinutes + " minutes");
+        service.setDurationMinutes(durationMinutes);
+        return serviceRepository.save(service);
+    }
+
+    private void authenticate(User user) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            user.getId().toString(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static User user(UserRole role) {
+        User user = new User();
+        user.setName(role.name().toLowerCase());
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("not-a-real-hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.booking.appointments;
+
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.ConflictException;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRepository;
+import com.example.booking.users.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The business owner confirms while the customer cancels, for hundreds of appointments at once, against the
+ * configured database like the other Spring Boot tests. Every attempt is a real transaction, so the version check
+ * that catches the collisions and the booking lock taken by cancellations are the real ones; the test's users are
+ * deleted afterwards, which cascades to everything it created.
+ */
+@SpringBootTest
+class AppointmentStatusConcurrencyTest {
+
+    private static final int APPOINTMENTS = 200;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private BusinessRepository businessRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User customer;
+    private User owner;
+    private Business business;
+    private List<Long> appointmentIds;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.save(user(UserRole.CUSTOMER));
+        owner = userRepository.save(user(UserRole.BUSINESS));
+
+        business = new Business();
+        business.setOwner(owner);
+        business.setName("Status concurrency test");
+        business = businessRepository.save(business);
+
+        ServiceEntity service = new ServiceEntity();
+        service.setBusiness(business);
+        service.setName("30 minutes");
+        service.setDurationMinutes(30);
+        service = serviceRepository.save(service);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setCustomer(customer);
+            appointment.setBusiness(business);
+            appointment.setService(service);
+            appointment.setDateTime(start.plusMinutes(30L * i));
+            appointment.setEndTime(start.plusMinutes(30L * (i + 1)));
+            appointment.setStatus(AppointmentStatus.PENDING);
+            appointments.add(appointment);
+        }
+        appointmentIds = appointmentRepository.saveAll(appointments).stream().map(Appointment::getId).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM appointment_events WHERE business_id = ?", business.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", customer.getId(), owner.getId());
+    }
+
+    @Test
+    void confirmAndCancelCollisionsAreRetriedOrRefused() throws Exception {
+        long lockAcquisitionsBefore = lockAcquisitions();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejectedConfirms = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Submit the two sides of each pair back to back so they run side by side
+        for (Long appointmentId : appointmentIds) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                authenticate(customer);
+                try {
+                    AppointmentDto dto = appointmentService.updateAppointmentStatus(appointmentId, status(AppointmentStatus.CANCELLED));
+                    assertThat(dto.getStatus()).isEqualTo(AppointmentStatus.CANCELLED);
+                    cancelled.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+            futures.add(pool.submit(() -> {
+                start.await();
+                authenticate(owner);
+                try {
+                    appointmentService.updateAppointmentStatus(appointmentId, status(AppointmentStatus.CONFIRMED));
+                    confirmed.incrementAndGet();
+                } catch (ConflictException e) {
+                    rejectedConfirms.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Every cancel went through, and a confirm either landed before it or was refused with a 409
+        assertThat(cancelled.get()).isEqualTo(APPOINTMENTS);
+        assertThat(confirmed.get() + rejectedConfirms.get()).isEqualTo(APPOINTMENTS);
+        long writes = 0;
+        for (Appointment appointment : appointmentRepository.findAllById(appointmentIds)) {
+            assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.CANCELLED);
+            writes += appointment.getVersion();
+        }
+        // No lost update: each successful write left exactly one version behind
+        assertThat(writes).isEqualTo(confirmed.get() + cancelled.get());
+
+        // Cancellations release capacity and take the booking lock, once per attempt; confirmations never do
+        assertThat(lockAcquisitions() - lockAcquisitionsBefore).isGreaterThanOrEqualTo(APPOINTMENTS);
+    }
+
+    private long lockAcquisitions() {
+        return bookingCoordinator.getStripeStats().stream().mapToLong(BookingLockStripeStats::getAcquisitions).sum();
+    }
+
+    private void authenticate(User user) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            user.getId().toString(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static UpdateAppointmentStatusRequest status(AppointmentStatus status) {
+        UpdateAppointmentStatusRequest request = new UpdateAppointmentStatusRequest();
+        request.setStatus(status);
+        return request;
+    }
+
+    private static User user(UserRole role) {
+        User user = new User();
+        user.setName(role.name().toLowerCase());
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("not-a-real-hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.booking.appointments;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Holds are placed the way a request places them: each call runs with transaction synchronization active, so the
+ * booking lock of its business is held until the "transaction" completes.
+ */
+class SlotHoldServiceTest {
+
+    private static final int MAX_HOLDS = 3;
+    private static final int REQUESTS = 16;
+
+    private final AuthenticationHelper authenticationHelper = mock(AuthenticationHelper.class);
+    private final ServiceRepository serviceRepository = mock(ServiceRepository.class);
+    private SlotHoldService slotHoldService;
+
+    @BeforeEach
+    void setUp() {
+        ServiceEntity service = new ServiceEntity();
+        service.setId(100L);
+        service.setDurationMinutes(30);
+        // A slow lookup between the early limit check and the hold, so concurrent requests all pass that check
+        when(serviceRepository.findByIdAndBusinessId(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(service);
+        });
+        when(authenticationHelper.getCurrentUserRole()).thenReturn(UserRole.CUSTOMER);
+        when(authenticationHelper.getCurrentUserId()).thenReturn(1L);
+        slotHoldService = new SlotHoldService(serviceRepository, mock(AppointmentRepository.class), authenticationHelper,
+            new BookingCoordinator(new StripedBookingLockProvider(8), 8, 5), 5, 15, MAX_HOLDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slotHoldService.shutdown();
+    }
+
+    @Test
+    void concurrentHoldsOfOneCustomerAtDifferentBusinessesStayWithinTheLimit() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.now().plusDays(1).withNano(0);
+        ExecutorService pool = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Every request targets its own business, so no booking lock serializes them
+        for (long businessId = 1; businessId <= REQUESTS; businessId++) {
+            CreateSlotHoldRequest request = new CreateSlotHoldRequest();
+            request.setBusinessId(businessId);
+            request.setServiceId(100L);
+            request.setDateTime(dateTime);
+            futures.add(pool.submit(() -> {
+                start.await();
+                inTransaction(() -> {
+                    try {
+                        slotHoldService.createHold(request);
+                        placed.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        refused.incrementAndGet();
+                    }
+                });
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(placed).hasValue(MAX_HOLDS);
+        assertThat(refused).hasValue(REQUESTS - MAX_HOLDS);
+    }
+
+    @Test
+    void releasingAHoldFreesRoomForAnother() {
+        List<SlotHoldDto> held = new ArrayList<>();
+        for (long businessId = 1; businessId <= MAX_HOLDS; businessId++) {
+            long id = businessId;
+            inTransaction(() -> held.add(slotHoldService.createHold(request(id))));
+        }
+        inTransaction(() -> assertThat(refusal(request(10L))).isInstanceOf(BadRequestException.class));
+
+        slotHoldService.releaseHold(held.get(0).getId());
+        inTransaction(() -> held.add(slotHoldService.createHold(request(10L))));
+        assertThat(held).hasSize(MAX_HOLDS + 1);
+    }
+
+    private Exception refusal(CreateSlotHoldRequest request) {
+        try {
+            slotHoldService.createHold(request);
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static CreateSlotHoldRequest request(Long businessId) {
+        CreateSlotHoldRequest request = new CreateSlotHoldRequest();
+        request.setBusinessId(businessId);
+        request.setServiceId(100L);
+        request.setDateTime(LocalDateTime.now().plusDays(1).withNano(0));
+        return request;
+    }
+
+    // Run with synchronization active and complete it afterwards, which releases the booking locks taken
+    private static void inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.booking.appointments;
+
+import com.example.booking.exceptions.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedBookingLockProviderTest {
+    
+    private final StripedBookingLockProvider provider = new StripedBookingLockProvider(8);
+    
+    @Test
+    void waitingPastTheTimeoutIsAConflict() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            BookingLockProvider.Handle handle = provider.acquire(1L, Duration.ofSeconds(1));
+            held.countDown();
+            try {
+                done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                handle.release();
+            }
+        });
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        assertThatThrownBy(() -> provider.acquire(1L, Duration.ofMillis(50)))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("busy");
+        
+        done.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        provider.acquire(1L, Duration.ofMillis(50)).release();
+    }
+    
+    @Test
+    void interruptedWaitIsAConflictAndKeepsTheInterrupt() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> provider.acquire(1L, Duration.ofSeconds(1)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("interrupted");
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
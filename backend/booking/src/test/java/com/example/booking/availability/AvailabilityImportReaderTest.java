@@ -0,0 +1,71 @@
+package com.example.booking.availability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityImportReaderTest {
+
+    private final AvailabilityImportReader reader = new AvailabilityImportReader(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void csvHeaderMayReorderColumns() throws Exception {
+        List<AvailabilityImportReader.Row> rows = read(AvailabilityImportReader.Format.CSV,
+            "startDate,endDate,startTime,endTime,businessId\r\n" +
+            "2030-01-01,2030-01-31,09:00,17:00,5\r\n" +
+            "\r\n" +
+            "2030-02-01,2030-02-28,9am,17:00,5\r\n");
+
+        assertThat(rows).extracting(AvailabilityImportReader.Row::line).containsExactly(2L, 4L);
+        CreateAvailabilitySlotRequest first = rows.get(0).request();
+        assertThat(first.getBusinessId()).isEqualTo(5L);
+        assertThat(first.getStartDate()).isEqualTo(LocalDate.of(2030, 1, 1));
+        assertThat(first.getEndTime()).isEqualTo(LocalTime.of(17, 0));
+        assertThat(rows.get(1).error()).isEqualTo("Invalid startTime '9am'");
+    }
+
+    @Test
+    void csvWithoutHeaderUsesDefaultOrderAndLeavesMissingFieldsEmpty() throws Exception {
+        List<AvailabilityImportReader.Row> rows = read(AvailabilityImportReader.Format.CSV,
+            "5,2030-01-01,2030-01-01,09:00,12:00\n" +
+            "5,2030-01-02,,09:00");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).request().getStartTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(rows.get(1).error()).isNull();
+        assertThat(rows.get(1).request().getEndDate()).isNull();
+        assertThat(rows.get(1).request().getEndTime()).isNull();
+    }
+
+    @Test
+    void ndjsonReportsMalformedAndOverlongLines() throws Exception {
+        List<AvailabilityImportReader.Row> rows = read(AvailabilityImportReader.Format.NDJSON,
+            "{\"businessId\":5,\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-01\",\"startTime\":\"09:00\",\"endTime\":\"12:00\"}\n" +
+            "{\"businessId\":\n" +
+            "x".repeat(AvailabilityImportReader.MAX_LINE_LENGTH + 10) + "\n" +
+            "{\"businessId\":6}\n");
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0).request().getEndTime()).isEqualTo(LocalTime.of(12, 0));
+        assertThat(rows.get(1).error()).startsWith("Invalid JSON");
+        assertThat(rows.get(2).error()).startsWith("Line is longer than");
+        assertThat(rows.get(3).request().getBusinessId()).isEqualTo(6L);
+    }
+
+    private List<AvailabilityImportReader.Row> read(AvailabilityImportReader.Format format, String body) throws Exception {
+        List<AvailabilityImportReader.Row> rows = new ArrayList<>();
+        InputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        reader.read(in, format, rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.booking.availability;
+
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.businesses.Business;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.exceptions.BadRequestException;
+import com.example.booking.users.User;
+import com.example.booking.users.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs imports through the real reader and validator against an in-memory slot table, which the mocked JDBC batch
+ * inserts append to and the mocked range read filters, so batches see the rows earlier batches committed.
+ */
+class AvailabilityImportServiceTest {
+    
+    private static final Long OWNER_ID = 1L;
+    private static final Long OWN_BUSINESS = 10L;
+    private static final Long OTHERS_BUSINESS = 20L;
+    private static final Long MISSING_BUSINESS = 30L;
+    
+    private final AvailabilitySlotRepository slotRepository = mock(AvailabilitySlotRepository.class);
+    private final BusinessRepository businessRepository = mock(BusinessRepository.class);
+    private final AuthenticationHelper authenticationHelper = mock(AuthenticationHelper.class);
+    private final DayCapacityStore dayCapacityStore = mock(DayCapacityStore.class);
+    private final AvailabilityIndex availabilityIndex = mock(AvailabilityIndex.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    
+    // Slots of OWN_BUSINESS, with the IDs the database would give them
+    private final List<AvailabilityInterval> table = new ArrayList<>();
+    private final List<Integer> insertedBatches = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        User owner = new User();
+        owner.setId(OWNER_ID);
+        owner.setRole(UserRole.BUSINESS);
+        when(authenticationHelper.getCurrentUser()).thenReturn(owner);
+        
+        User someoneElse = new User();
+        someoneElse.setId(2L);
+        Business own = business(OWN_BUSINESS, owner);
+        Business others = business(OTHERS_BUSINESS, someoneElse);
+        when(businessRepository.findById(OWN_BUSINESS)).thenReturn(Optional.of(own));
+        when(businessRepository.findByIdForUpdate(OWN_BUSINESS)).thenReturn(Optional.of(own));
+        when(businessRepository.findById(OTHERS_BUSINESS)).thenReturn(Optional.of(others));
+        when(businessRepository.findById(MISSING_BUSINESS)).thenReturn(Optional.empty());
+        
+        when(slotRepository.findIntervalsOverlappingDatesForShare(eq(OWN_BUSINESS), any(), any())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(1);
+            LocalDate to = invocation.getArgument(2);
+            return table.stream().filter(slot -> !slot.startDate().isAfter(to) && !slot.endDate().isBefore(from)).toList();
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Object> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object row : rows) {
+                table.add(bind(setter, row, table.size() + 1L));
+            }
+            insertedBatches.add(rows.size());
+            return new int[0][];
+        });
+    }
+    
+    @Test
+    void rowsForBusinessesTheCallerDoesNotOwnAreRefused() {
+        AvailabilityImportResult result = importCsv(100,
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "12:00"),
+            row(OTHERS_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "12:00"),
+            row(MISSING_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "12:00"),
+            row(OTHERS_BUSINESS, "2030-02-01", "2030-02-28", "09:00", "12:00"));
+        
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(AvailabilityImportError::getLine).containsExactly(2L, 3L, 4L);
+        assertThat(result.getErrors().get(0).getError()).isEqualTo("You can only import availability slots for your own businesses");
+        assertThat(result.getErrors().get(1).getError()).contains("Business").contains("30");
+        // Checked once per business, and nothing is locked or written for refused ones
+        verify(businessRepository, times(1)).findById(OTHERS_BUSINESS);
+        verify(businessRepository, never()).findByIdForUpdate(OTHERS_BUSINESS);
+        verify(businessRepository, never()).findByIdForUpdate(MISSING_BUSINESS);
+        assertThat(table).hasSize(1);
+    }
+    
+    @Test
+    void rowsOverlappingStoredSlotsOrEarlierRowsAreRejected() {
+        table.add(new AvailabilityInterval(7L, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31),
+            LocalTime.of(9, 0), LocalTime.of(12, 0)));
+        
+        AvailabilityImportResult result = importCsv(100,
+            row(OWN_BUSINESS, "2030-01-15", "2030-02-15", "11:00", "13:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "13:00", "15:00"),
+            row(OWN_BUSINESS, "2030-01-20", "2030-01-20", "14:30", "16:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "12:00", "13:00"));
+        
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(AvailabilityImportError::getLine).containsExactly(1L, 3L);
+        assertThat(result.getErrors().get(0).getError()).startsWith("Availability overlaps slot 7 ");
+        assertThat(result.getErrors().get(1).getError()).startsWith("Availability overlaps an earlier row of this import ");
+        verify(dayCapacityStore).reopen(OWN_BUSINESS, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31));
+        verify(availabilityIndex).invalidate(OWN_BUSINESS);
+    }
+    
+    @Test
+    void eachBatchIsWrittenInItsOwnTransactionAndSeesEarlierBatches() {
+        AvailabilityImportResult result = importCsv(2,
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "08:00", "09:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "10:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "10:00", "11:00"),
+            row(OWN_BUSINESS, "2030-01-10", "2030-01-10", "08:30", "09:30"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "11:00", "12:00"));
+        
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(insertedBatches).containsExactly(2, 1, 1);
+        // The row of the second batch overlaps slots the first one committed
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(4);
+            assertThat(error.getError()).startsWith("Availability overlaps slot 1 ");
+        });
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(dayCapacityStore, times(3)).reopen(eq(OWN_BUSINESS), any(), any());
+    }
+    
+    @Test
+    void errorReportIsCappedButEveryRejectionIsCounted() {
+        AvailabilityImportResult result = importCsv(100,
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "12:00", "09:00"),
+            row(OWN_BUSINESS, "2030-01-31", "2030-01-01", "09:00", "12:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "12:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "10:00", "11:00"),
+            row(OTHERS_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "12:00"));
+        
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.isErrorsTruncated()).isTrue();
+        assertThat(result.getErrors()).extracting(AvailabilityImportError::getLine).containsExactly(1L, 2L, 5L);
+    }
+    
+    @Test
+    void bodyOverTheRowLimitKeepsTheBatchesWrittenBeforeIt() {
+        AvailabilityImportService service = service(1, 2);
+        String body = String.join("\n",
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "08:00", "09:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "09:00", "10:00"),
+            row(OWN_BUSINESS, "2030-01-01", "2030-01-31", "10:00", "11:00"));
+        
+        assertThatThrownBy(() -> service.importAvailabilitySlots(stream(body), AvailabilityImportReader.Format.CSV))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("at most 2 rows")
+            .hasMessageContaining("2 rows were imported before");
+        assertThat(table).hasSize(2);
+    }
+    
+    private AvailabilityImportResult importCsv(int batchSize, String... rows) {
+        return service(batchSize, 1_000).importAvailabilitySlots(stream(String.join("\n", rows)), AvailabilityImportReader.Format.CSV);
+    }
+    
+    private AvailabilityImportService service(int batchSize, long maxRows) {
+        return new AvailabilityImportService(new AvailabilityImportReader(new ObjectMapper().registerModule(new JavaTimeModule())),
+            slotRepository, businessRepository, authenticationHelper, mock(OccupancyCalendarCache.class), availabilityIndex,
+            dayCapacityStore, jdbcTemplate, Validation.buildDefaultValidatorFactory().getValidator(), mock(EntityManager.class),
+            transactionManager, batchSize, maxRows, 3);
+    }
+    
+    private static String row(Long businessId, String startDate, String endDate, String startTime, String endTime) {
+        return String.join(",", businessId.toString(), startDate, endDate, startTime, endTime);
+    }
+    
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Business business(Long id, User owner) {
+        Business business = new Business();
+        business.setId(id);
+        business.setOwner(owner);
+        return business;
+    }
+    
+    // The slot a row would become, read back from the values the insert binds
+    private static AvailabilityInterval bind(ParameterizedPreparedStatementSetter<Object> setter, Object row, Long id) throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.setValues(statement, row);
+        ArgumentCaptor<Date> dates = ArgumentCaptor.forClass(Date.class);
+        ArgumentCaptor<Time> times = ArgumentCaptor.forClass(Time.class);
+        verify(statement, times(2)).setDate(anyInt(), dates.capture());
+        verify(statement, times(2)).setTime(anyInt(), times.capture());
+        return new AvailabilityInterval(id, dates.getAllValues().get(0).toLocalDate(), dates.getAllValues().get(1).toLocalDate(),
+            times.getAllValues().get(0).toLocalTime(), times.getAllValues().get(1).toLocalTime());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIntervalTreeTest {
+    
+    private static final LocalDate DAY_ZERO = LocalDate.of(2025, 1, 1);
+    
+    @Test
+    void queriesMatchALinearScan() {
+        Random random = new Random(7);
+        List<AvailabilityInterval> intervals = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            intervals.add(interval(id, random.nextInt(365), random.nextInt(60), 9, 17));
+        }
+        AvailabilityIntervalTree tree = AvailabilityIntervalTree.of(intervals);
+        
+        for (int i = 0; i < 500; i++) {
+            LocalDate from = DAY_ZERO.plusDays(random.nextInt(400) - 20);
+            LocalDate to = from.plusDays(random.nextInt(10));
+            List<AvailabilityInterval> expected = intervals.stream()
+                .filter(a -> !a.startDate().isAfter(to) && !a.endDate().isBefore(from))
+                .toList();
+            assertThat(tree.overlapping(from, to)).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(tree.openOn(from)).allSatisfy(a ->
+                assertThat(from).isBetween(a.startDate(), a.endDate()));
+        }
+    }
+    
+    @Test
+    void changesReturnANewTree() {
+        AvailabilityIntervalTree tree = AvailabilityIntervalTree.of(List.of(interval(1L, 0, 6, 9, 12), interval(2L, 3, 0, 13, 17)));
+        
+        AvailabilityIntervalTree changed = tree.with(Set.of(1L), List.of(interval(3L, 10, 4, 9, 17)));
+        
+        assertThat(tree.openOn(DAY_ZERO.plusDays(3))).extracting(AvailabilityInterval::id).containsExactly(1L, 2L);
+        assertThat(changed.openOn(DAY_ZERO.plusDays(3))).extracting(AvailabilityInterval::id).containsExactly(2L);
+        assertThat(changed.openOn(DAY_ZERO.plusDays(12))).extracting(AvailabilityInterval::id).containsExactly(3L);
+        assertThat(changed.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void onlyUnionsThatStayOneIntervalAreMergeable() {
+        AvailabilityInterval mornings = interval(1L, 0, 6, 9, 12);
+        
+        // Same hours on the following week, and the afternoons of the same week
+        assertThat(mornings.mergeableWith(interval(2L, 7, 6, 9, 12))).isTrue();
+        assertThat(mornings.mergeableWith(interval(3L, 0, 6, 12, 17))).isTrue();
+        // A gap of one day, or different hours on other dates
+        assertThat(mornings.mergeableWith(interval(4L, 8, 6, 9, 12))).isFalse();
+        assertThat(mornings.mergeableWith(interval(5L, 3, 6, 10, 14))).isFalse();
+        assertThat(mornings.union(interval(3L, 0, 6, 12, 17)))
+            .isEqualTo(new AvailabilityInterval(1L, DAY_ZERO, DAY_ZERO.plusDays(6), LocalTime.of(9, 0), LocalTime.of(17, 0)));
+    }
+    
+    private static AvailabilityInterval interval(Long id, int startDay, int days, int fromHour, int toHour) {
+        return new AvailabilityInterval(id, DAY_ZERO.plusDays(startDay), DAY_ZERO.plusDays(startDay + days),
+            LocalTime.of(fromHour, 0), LocalTime.of(toHour, 0));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.booking.availability;
+
+import com.example.booking.availability.DayCapacityStore.StoredDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayCapacityStoreTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+    
+    @Test
+    void bookingAndReleasingFlipOnlyTheMinutesOfThatDay() {
+        StoredDay day = new StoredDay(DAY, hours(9, 17), new DayOccupancy());
+        
+        day.mark(at(DAY, 10, 0), at(DAY, 11, 0), true);
+        day.mark(at(DAY, 14, 0), at(DAY, 14, 30), true);
+        
+        assertThat(day.booked().freeMinutes()).isEqualTo(90);
+        assertThat(day.free().freeMinutes()).isEqualTo(8 * 60 - 90);
+        assertThat(day.free().anyFree(10 * 60, 11 * 60)).isFalse();
+        
+        day.mark(at(DAY, 10, 0), at(DAY, 11, 0), false);
+        
+        assertThat(day.booked().freeMinutes()).isEqualTo(30);
+        assertThat(day.free().isFree(10 * 60, 60)).isTrue();
+        assertThat(day.free().anyFree(14 * 60, 14 * 60 + 30)).isFalse();
+    }
+    
+    @Test
+    void appointmentsAcrossMidnightMarkBothDays() {
+        StoredDay first = new StoredDay(DAY, hours(0, 24), new DayOccupancy());
+        StoredDay second = new StoredDay(DAY.plusDays(1), hours(0, 24), new DayOccupancy());
+        StoredDay unrelated = new StoredDay(DAY.plusDays(2), hours(0, 24), new DayOccupancy());
+        
+        for (StoredDay day : List.of(first, second, unrelated)) {
+            day.mark(at(DAY, 23, 30), at(DAY.plusDays(1), 0, 45), true);
+        }
+        
+        assertThat(first.booked().freeMinutes()).isEqualTo(30);
+        assertThat(first.booked().isFree(23 * 60 + 30, 30)).isTrue();
+        assertThat(second.booked().freeMinutes()).isEqualTo(45);
+        assertThat(second.booked().isFree(0, 45)).isTrue();
+        assertThat(unrelated.booked().isEmpty()).isTrue();
+    }
+    
+    @Test
+    void bookedMinutesOutsideOpenHoursAreNeverFree() {
+        // A booking made before the business shortened its hours stays booked, but free time only counts open minutes
+        StoredDay day = new StoredDay(DAY, hours(9, 12), new DayOccupancy());
+        
+        day.mark(at(DAY, 11, 0), at(DAY, 13, 0), true);
+        
+        assertThat(day.booked().freeMinutes()).isEqualTo(120);
+        assertThat(day.free().freeMinutes()).isEqualTo(120);
+        assertThat(day.free().isFree(9 * 60, 120)).isTrue();
+    }
+    
+    @Test
+    void reopenKeepsStoredBookingsAndFillsMissingDays() {
+        StoredDay stored = new StoredDay(DAY, hours(9, 17), booked(10, 11));
+        DayOccupancy[] open = {hours(8, 18), hours(8, 18)};
+        DayOccupancy[] booked = {booked(15, 16), booked(12, 13)};
+        
+        List<StoredDay> days = DayCapacityStore.merge(DAY, open, booked, Map.of(DAY, stored), false);
+        
+        assertThat(days).extracting(StoredDay::date).containsExactly(DAY, DAY.plusDays(1));
+        // The stored row already counts every booking, so the fresh read is only used for the new day
+        assertThat(days.get(0).open()).isSameAs(open[0]);
+        assertThat(days.get(0).booked()).isSameAs(stored.booked());
+        assertThat(days.get(0).free().freeMinutes()).isEqualTo(10 * 60 - 60);
+        assertThat(days.get(1).booked()).isSameAs(booked[1]);
+        assertThat(days.get(1).free().freeMinutes()).isEqualTo(10 * 60 - 60);
+    }
+    
+    @Test
+    void reopenWithEveryDayStoredNeedsNoBookedMinutes() {
+        StoredDay stored = new StoredDay(DAY, hours(9, 17), booked(10, 11));
+        
+        List<StoredDay> days = DayCapacityStore.merge(DAY, new DayOccupancy[] {hours(9, 12)}, null, Map.of(DAY, stored), false);
+        
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).free().freeMinutes()).isEqualTo(3 * 60 - 60);
+    }
+    
+    @Test
+    void rebuildReplacesStoredBookings() {
+        StoredDay stored = new StoredDay(DAY, hours(9, 17), booked(10, 11));
+        DayOccupancy[] booked = {booked(15, 16)};
+        
+        List<StoredDay> days = DayCapacityStore.merge(DAY, new DayOccupancy[] {hours(9, 17)}, booked, Map.of(DAY, stored), true);
+        
+        assertThat(days.get(0).booked()).isSameAs(booked[0]);
+        assertThat(days.get(0).free().isFree(10 * 60, 60)).isTrue();
+        assertThat(days.get(0).free().anyFree(15 * 60, 16 * 60)).isFalse();
+    }
+    
+    private static DayOccupancy hours(int fromHour, int toHour) {
+        DayOccupancy occupancy = new DayOccupancy();
+        occupancy.open(fromHour * 60, toHour * 60);
+        return occupancy;
+    }
+    
+    private static DayOccupancy booked(int fromHour, int toHour) {
+        return hours(fromHour, toHour);
+    }
+    
+    private static LocalDateTime at(LocalDate date, int hour, int minute) {
+        return date.atTime(hour, minute);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayOccupancyTest {
+    
+    private static final LocalDateTime MIDNIGHT = LocalDate.of(2025, 3, 10).atStartOfDay();
+    
+    @Test
+    void bitmapRoundTripsAndStaysWithinTheColumn() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            DayOccupancy occupancy = new DayOccupancy();
+            for (int run = 0; run < 5; run++) {
+                int start = random.nextInt(DayOccupancy.MINUTES_PER_DAY);
+                occupancy.open(start, start + random.nextInt(240));
+            }
+            
+            byte[] bitmap = occupancy.toBitmap();
+            DayOccupancy copy = DayOccupancy.fromBitmap(bitmap);
+            
+            assertThat(bitmap.length).isLessThanOrEqualTo(180);
+            assertThat(copy.freeMinutes()).isEqualTo(occupancy.freeMinutes());
+            assertThat(copy.toBitmap()).isEqualTo(bitmap);
+            for (int minute = 0; minute < DayOccupancy.MINUTES_PER_DAY; minute++) {
+                assertThat(copy.isFree(minute, 1)).isEqualTo(occupancy.isFree(minute, 1));
+            }
+        }
+    }
+    
+    @Test
+    void emptyAndFullDaysRoundTrip() {
+        DayOccupancy full = new DayOccupancy();
+        full.open(0, DayOccupancy.MINUTES_PER_DAY);
+        
+        assertThat(new DayOccupancy().toBitmap()).isEmpty();
+        assertThat(DayOccupancy.fromBitmap(new byte[0]).isEmpty()).isTrue();
+        assertThat(DayOccupancy.fromBitmap(null).isEmpty()).isTrue();
+        assertThat(full.toBitmap()).hasSize(180);
+        assertThat(DayOccupancy.fromBitmap(full.toBitmap()).freeMinutes()).isEqualTo(DayOccupancy.MINUTES_PER_DAY);
+    }
+    
+    @Test
+    void occupyRemovesEveryMinuteTakenElsewhere() {
+        DayOccupancy open = new DayOccupancy();
+        open.open(9 * 60, 17 * 60);
+        DayOccupancy booked = new DayOccupancy();
+        booked.open(10 * 60, 11 * 60);
+        booked.open(16 * 60 + 30, 18 * 60);
+        
+        DayOccupancy free = open.copy();
+        free.occupy(booked);
+        
+        assertThat(free.freeMinutes()).isEqualTo(8 * 60 - 60 - 30);
+        assertThat(free.isFree(9 * 60, 60)).isTrue();
+        assertThat(free.anyFree(10 * 60, 11 * 60)).isFalse();
+        assertThat(free.isFree(16 * 60, 30)).isTrue();
+        assertThat(open.freeMinutes()).isEqualTo(8 * 60);
+    }
+    
+    @Test
+    void forEachDaySplitsAtMidnight() {
+        List<int[]> ranges = collect(MIDNIGHT, 3, MIDNIGHT.plusHours(22), MIDNIGHT.plusDays(1).plusHours(1));
+        
+        assertThat(ranges).containsExactly(new int[] {0, 22 * 60, 24 * 60}, new int[] {1, 0, 60});
+    }
+    
+    @Test
+    void forEachDayClipsToTheRange() {
+        // Starts the day before the range and runs past its last day
+        List<int[]> ranges = collect(MIDNIGHT, 2, MIDNIGHT.minusHours(2), MIDNIGHT.plusDays(3));
+        
+        assertThat(ranges).containsExactly(new int[] {0, 0, 24 * 60}, new int[] {1, 0, 24 * 60});
+        assertThat(collect(MIDNIGHT, 2, MIDNIGHT.minusHours(2), MIDNIGHT)).isEmpty();
+        assertThat(collect(MIDNIGHT, 2, MIDNIGHT.plusDays(2), MIDNIGHT.plusDays(2).plusHours(1))).isEmpty();
+    }
+    
+    @Test
+    void forEachDayKeepsAnIntervalInsideOneDay() {
+        List<int[]> ranges = collect(MIDNIGHT, 7, MIDNIGHT.plusDays(4).plusHours(9), MIDNIGHT.plusDays(4).plusHours(10));
+        
+        assertThat(ranges).containsExactly(new int[] {4, 9 * 60, 10 * 60});
+    }
+    
+    private static List<int[]> collect(LocalDateTime rangeStart, int dayCount, LocalDateTime start, LocalDateTime end) {
+        List<int[]> ranges = new ArrayList<>();
+        DayOccupancy.forEachDay(rangeStart, dayCount, start, end,
+            (day, startMinute, endMinute) -> ranges.add(new int[] {day, startMinute, endMinute}));
+        return ranges;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.booking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs requests through the filter with a real store whose table is a mock that never finds a row, so replays come
+ * from the store's memory.
+ */
+class IdempotencyFilterTest {
+    
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+        new IdempotencyStore(mock(JdbcTemplate.class), 24, 100), new ObjectMapper(), 5);
+    // Status the application answers with, and how often it ran
+    private int status = 201;
+    private final AtomicInteger executions = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> {
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int execution = executions.incrementAndGet();
+        ((HttpServletResponse) response).setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"execution\":" + execution + ",\"echo\":" + body + "}");
+    };
+    
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            "7", null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+    }
+    
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void retryWithTheSameKeyAndBodyIsReplayed() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"slot\":1}", chain);
+        MockHttpServletResponse retry = send("key-1", "{\"slot\":1}", chain);
+        
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+    
+    @Test
+    void keyReusedWithADifferentBodyIsRejected() throws Exception {
+        send("key-1", "{\"slot\":1}", chain);
+        MockHttpServletResponse reused = send("key-1", "{\"slot\":2}", chain);
+        
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+        assertThat(reused.getContentAsString()).contains("different request body");
+    }
+    
+    @Test
+    void conflictsAreNotReplayedSoARetryRunsAgain() throws Exception {
+        status = 409;
+        send("key-1", "{\"slot\":1}", chain);
+        status = 201;
+        MockHttpServletResponse retry = send("key-1", "{\"slot\":1}", chain);
+        
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+    
+    @Test
+    void duplicateArrivingWhileTheFirstRunsGetsItsResponse() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            entered.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chain.doFilter(request, response);
+        };
+        SecurityContext context = SecurityContextHolder.getContext();
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.setContext(context);
+            try {
+                return send("key-1", "{\"slot\":1}", slowChain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.setContext(context);
+            try {
+                return send("key-1", "{\"slot\":1}", chain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        assertThat(executions).hasValue(0);
+        proceed.countDown();
+        
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getContentAsString())
+            .isEqualTo(first.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void keysAreScopedToTheUser() throws Exception {
+        send("key-1", "{\"slot\":1}", chain);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            "8", null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+        MockHttpServletResponse otherUser = send("key-1", "{\"slot\":1}", chain);
+        
+        assertThat(executions).hasValue(2);
+        assertThat(otherUser.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+    
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
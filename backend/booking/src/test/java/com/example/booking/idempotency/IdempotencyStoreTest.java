@@ -0,0 +1,121 @@
+package com.example.booking.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+    
+    private static final String KEY = "7 POST /api/appointments abc";
+    
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final IdempotencyStore store = new IdempotencyStore(jdbcTemplate, 24, 100);
+    
+    @Test
+    void completedResponseIsKeptInMemoryAndWrittenToTheTable() {
+        store.claim(KEY);
+        store.complete(KEY, "hash", 201, "application/json", body("created"));
+        
+        StoredResponse stored = store.find(KEY).orElseThrow();
+        assertThat(stored.getRequestHash()).isEqualTo("hash");
+        assertThat(stored.getStatus()).isEqualTo(201);
+        assertThat(stored.getBody()).isEqualTo(body("created"));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO idempotency_keys"), any(), eq("hash"), eq(201),
+            eq("application/json"), any(), any());
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(), any());
+    }
+    
+    @Test
+    void keyMissingFromMemoryIsAnsweredFromTheTableAndCached() {
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenAnswer(invocation -> {
+            ResultSet row = mock(ResultSet.class);
+            when(row.getString("request_hash")).thenReturn("hash");
+            when(row.getInt("status")).thenReturn(200);
+            when(row.getString("content_type")).thenReturn("application/json");
+            when(row.getBytes("body")).thenReturn(body("stored"));
+            when(row.getTimestamp("expires_at")).thenReturn(Timestamp.from(expiresAt));
+            RowMapper<StoredResponse> mapper = invocation.getArgument(1);
+            return List.of(mapper.mapRow(row, 0));
+        });
+        
+        StoredResponse stored = store.find(KEY).orElseThrow();
+        assertThat(stored).isEqualTo(new StoredResponse("hash", 200, "application/json", body("stored"), expiresAt));
+        
+        assertThat(store.find(KEY)).contains(stored);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(), any());
+    }
+    
+    @Test
+    void expiredResponsesAreNotReplayed() {
+        IdempotencyStore expiring = new IdempotencyStore(jdbcTemplate, 0, 100);
+        expiring.complete(KEY, "hash", 201, "application/json", body("created"));
+        
+        // The table's expires_at filter drops the row as well
+        assertThat(expiring.find(KEY)).isEmpty();
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), any(), any());
+    }
+    
+    @Test
+    void duplicatesWaitOnTheFirstClaimUntilItCompletes() throws Exception {
+        assertThat(store.claim(KEY)).isEmpty();
+        Optional<CompletableFuture<StoredResponse>> running = store.claim(KEY);
+        assertThat(running).isPresent();
+        assertThat(running.get()).isNotDone();
+        
+        store.complete(KEY, "hash", 201, "application/json", body("created"));
+        
+        assertThat(running.get().get().getBody()).isEqualTo(body("created"));
+        // Released, so the next claim owns the key again
+        assertThat(store.claim(KEY)).isEmpty();
+    }
+    
+    @Test
+    void responseThatMustNotBeReplayedOnlyReleasesTheKey() throws Exception {
+        store.claim(KEY);
+        CompletableFuture<StoredResponse> running = store.claim(KEY).orElseThrow();
+        
+        store.complete(KEY, "hash", 409, "application/json", null);
+        
+        assertThat(running.get()).isNull();
+        assertThat(store.find(KEY)).isEmpty();
+        verify(jdbcTemplate, never()).update(startsWith("INSERT"), any(Object[].class));
+    }
+    
+    @Test
+    void tableFailureStillKeepsTheResponseInMemory() {
+        when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any(), any(), any(), any()))
+            .thenThrow(new DataAccessResourceFailureException("database is down"));
+        
+        store.claim(KEY);
+        store.complete(KEY, "hash", 201, "application/json", body("created"));
+        
+        assertThat(store.find(KEY)).isPresent();
+        assertThat(store.claim(KEY)).isEmpty();
+    }
+    
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
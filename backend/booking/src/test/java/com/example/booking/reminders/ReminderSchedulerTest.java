@@ -0,0 +1,151 @@
+package com.example.booking.reminders;
+
+import com.example.booking.appointments.AppointmentDto;
+import com.example.booking.appointments.AppointmentRepository;
+import com.example.booking.appointments.AppointmentStatus;
+import com.example.booking.events.AppointmentEvent;
+import com.example.booking.events.AppointmentEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the scheduler on its real timing wheel, which ticks once a second, so reminders due now fire within about
+ * a second and later ones stay pending for the length of a test.
+ */
+class ReminderSchedulerTest {
+    
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final ReminderSender reminderSender = mock(ReminderSender.class);
+    private final ReminderClaims reminderClaims = mock(ReminderClaims.class);
+    private final ReminderScheduler scheduler = new ReminderScheduler(appointmentRepository, reminderSender, reminderClaims,
+        26, 5, 100);
+    
+    @BeforeEach
+    void setUp() {
+        when(reminderClaims.claim(any(), any(), any())).thenReturn(true);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+    
+    @Test
+    void reminderDueNowIsSentAndItsAppointmentForgotten() throws Exception {
+        // The hour-before reminder is due now; the day-before one is long past and never scheduled
+        LocalDateTime dateTime = LocalDateTime.now().plusHours(1).withNano(0);
+        when(appointmentRepository.findDtoById(1L)).thenReturn(Optional.of(confirmed(1L, dateTime)));
+        CountDownLatch sent = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sent.countDown();
+            return null;
+        }).when(reminderSender).send(any());
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, dateTime));
+        
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(reminderSender).send(eq(new Reminder(ReminderType.HOUR_BEFORE, confirmed(1L, dateTime))));
+        assertThat(scheduler.getStats().getTrackedAppointments()).isZero();
+        assertThat(scheduler.getStats().getPendingReminders()).isZero();
+    }
+    
+    @Test
+    void reschedulingReplacesTheRemindersAndCancellingDropsThem() {
+        LocalDateTime now = LocalDateTime.now();
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, now.plusHours(25)));
+        assertThat(scheduler.getStats().getTrackedAppointments()).isEqualTo(1);
+        assertThat(scheduler.getStats().getPendingReminders()).isEqualTo(2);
+        
+        // Moved to a time whose day-before reminder is already past
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, now.plusHours(3)));
+        assertThat(scheduler.getStats().getTrackedAppointments()).isEqualTo(1);
+        assertThat(scheduler.getStats().getPendingReminders()).isEqualTo(1);
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CANCELLED, now.plusHours(3)));
+        assertThat(scheduler.getStats().getTrackedAppointments()).isZero();
+        assertThat(scheduler.getStats().getPendingReminders()).isZero();
+    }
+    
+    @Test
+    void confirmationsBeyondTheWindowWaitForARefresh() {
+        LocalDateTime dateTime = LocalDateTime.now().plusHours(30);
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, dateTime));
+        assertThat(scheduler.getStats().getTrackedAppointments()).isZero();
+        
+        when(appointmentRepository.findByStatusAndDateTimeRange(eq(AppointmentStatus.CONFIRMED), any(), any()))
+            .thenReturn(List.of(confirmed(1L, dateTime), confirmed(2L, dateTime.minusHours(10))));
+        scheduler.refreshWindow();
+        
+        assertThat(scheduler.getStats().getTrackedAppointments()).isEqualTo(2);
+        assertThat(scheduler.getStats().getLoadedUntil()).isAfter(dateTime.minusHours(5));
+    }
+    
+    @Test
+    void reminderForAnAppointmentChangedSinceIsSkipped() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.now().plusHours(1).withNano(0);
+        // Cancelled after the reminder was put on the wheel, before the event reached the scheduler
+        AppointmentDto cancelled = confirmed(1L, dateTime);
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
+        when(appointmentRepository.findDtoById(1L)).thenReturn(Optional.of(cancelled));
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, dateTime));
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getStats().getSkipped() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(scheduler.getStats().getSkipped()).isEqualTo(1);
+        verify(reminderSender, never()).send(any());
+    }
+    
+    @Test
+    void reminderClaimedByAnotherInstanceIsSkipped() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.now().plusHours(1).withNano(0);
+        when(appointmentRepository.findDtoById(1L)).thenReturn(Optional.of(confirmed(1L, dateTime)));
+        when(reminderClaims.claim(1L, ReminderType.HOUR_BEFORE, dateTime)).thenReturn(false);
+        
+        scheduler.onAppointmentEvent(event(1L, AppointmentStatus.CONFIRMED, dateTime));
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getStats().getSkipped() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(scheduler.getStats().getSkipped()).isEqualTo(1);
+        verify(reminderSender, never()).send(any());
+    }
+    
+    private static AppointmentEvent event(Long appointmentId, AppointmentStatus status, LocalDateTime dateTime) {
+        AppointmentEvent event = new AppointmentEvent();
+        event.setEventType(AppointmentEventType.STATUS_CHANGED);
+        event.setAppointmentId(appointmentId);
+        event.setStatus(status);
+        event.setDateTime(dateTime);
+        return event;
+    }
+    
+    private static AppointmentDto confirmed(Long id, LocalDateTime dateTime) {
+        AppointmentDto dto = new AppointmentDto();
+        dto.setId(id);
+        dto.setStatus(AppointmentStatus.CONFIRMED);
+        dto.setDateTime(dateTime);
+        return dto;
+    }
+}
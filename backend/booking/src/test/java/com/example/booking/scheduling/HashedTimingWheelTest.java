@@ -0,0 +1,113 @@
+package com.example.booking.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private static final int TIMEOUTS = 200_000;
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void firesAfterDelayIncludingLaterRounds() throws Exception {
+        // 64 ticks of 10 ms make one round, so 900 ms is more than one trip around the wheel
+        CountDownLatch fired = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule(fired::countDown, Duration.ofMillis(900));
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - scheduledAt)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        assertThat(wheel.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void firesOnTheTickAfterItsDeadline() throws Exception {
+        int count = 50;
+        long[] lateness = new long[count];
+        CountDownLatch fired = new CountDownLatch(count);
+        long scheduledAt = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(7L * i);
+            wheel.schedule(() -> {
+                lateness[index] = System.nanoTime() - scheduledAt - delayNanos;
+                fired.countDown();
+            }, Duration.ofNanos(delayNanos));
+        }
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long late : lateness) {
+            // Never early, and late by at most a tick plus scheduling jitter
+            assertThat(late).isNotNegative();
+            assertThat(Duration.ofNanos(late)).isLessThan(Duration.ofMillis(10 + 100));
+        }
+    }
+
+    @Test
+    void timeoutInTheSameBucketOneRoundLaterWaitsForItsRound() throws Exception {
+        // A round is 64 ticks of 10 ms, so both deadlines hash to the same bucket
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule(first::countDown, Duration.ofMillis(50));
+        wheel.schedule(second::countDown, Duration.ofMillis(50 + 640));
+
+        assertThat(first.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.getCount()).isEqualTo(1);
+        assertThat(second.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - scheduledAt)).isGreaterThanOrEqualTo(Duration.ofMillis(690));
+    }
+
+    @Test
+    void overdueTimeoutsFireOnTheNextTick() throws Exception {
+        CountDownLatch fired = new CountDownLatch(2);
+
+        wheel.schedule(fired::countDown, Duration.ZERO);
+        wheel.schedule(fired::countDown, Duration.ofMillis(-500));
+
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(wheel.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch kept = new CountDownLatch(TIMEOUTS / 2);
+        List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>(TIMEOUTS);
+        for (int i = 0; i < TIMEOUTS; i++) {
+            boolean cancelled = i % 2 == 0;
+            timeouts.add(wheel.schedule(() -> {
+                fired.incrementAndGet();
+                if (!cancelled) {
+                    kept.countDown();
+                }
+            }, Duration.ofMillis(1_000 + i % 500)));
+        }
+        for (int i = 0; i < TIMEOUTS; i += 2) {
+            assertThat(timeouts.get(i).cancel()).isTrue();
+        }
+
+        assertThat(kept.await(10, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(fired.get()).isEqualTo(TIMEOUTS / 2);
+        assertThat(wheel.pendingTimeouts()).isZero();
+        assertThat(timeouts.get(1).cancel()).isFalse();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.booking.search;
+
+import com.example.booking.availability.AvailabilityIndex;
+import com.example.booking.availability.DayOccupancy;
+import com.example.booking.availability.FreeSlotService;
+import com.example.booking.businesses.BusinessRepository;
+import com.example.booking.events.AppointmentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenSlotIndexTest {
+
+    private static final int HORIZON_DAYS = 7;
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDateTime tomorrow = today.plusDays(1).atStartOfDay();
+    private final Map<Long, DayOccupancy[]> freeTime = new ConcurrentHashMap<>();
+    private final FreeSlotService freeSlotService = mock(FreeSlotService.class);
+    private final BusinessRepository businessRepository = mock(BusinessRepository.class);
+    private final List<String> rebuildThreads = new CopyOnWriteArrayList<>();
+    private OpenSlotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(businessRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(freeSlotService.buildOccupancy(anyLong(), any(LocalDate.class), anyInt()))
+            .thenAnswer(invocation -> {
+                rebuildThreads.add(Thread.currentThread().getName());
+                return freeTime.getOrDefault(invocation.<Long>getArgument(0), closed());
+            });
+
+        // 1: tomorrow 09:00-10:00; 2: only half an hour tomorrow at 08:30; 3: all day the day after tomorrow
+        freeTime.put(1L, open(1, 9 * 60, 10 * 60));
+        freeTime.put(2L, open(1, 8 * 60 + 30, 9 * 60));
+        freeTime.put(3L, open(2, 0, DayOccupancy.MINUTES_PER_DAY));
+
+        index = new OpenSlotIndex(freeSlotService, businessRepository, mock(AvailabilityIndex.class), HORIZON_DAYS, 60, 100, 300);
+        index.refreshBatch();
+    }
+
+    @Test
+    void returnsEarliestFittingStartsInTimeOrder() {
+        List<OpenSlotDto> slots = index.findEarliest(haircuts(45), tomorrow, index.horizonEnd(), 10);
+
+        assertThat(slots).extracting(OpenSlotDto::getBusinessId).containsExactly(1L, 3L);
+        assertThat(slots).extracting(OpenSlotDto::getDateTime)
+            .containsExactly(tomorrow.plusHours(9), tomorrow.plusDays(1));
+        assertThat(index.findEarliest(haircuts(45), tomorrow, index.horizonEnd(), 1))
+            .extracting(OpenSlotDto::getBusinessId).containsExactly(1L);
+    }
+
+    @Test
+    void respectsFromAndToBounds() {
+        assertThat(index.findEarliest(haircuts(30), tomorrow.plusMinutes(8 * 60 + 40), tomorrow.plusDays(1), 10))
+            .extracting(OpenSlotDto::getDateTime)
+            .containsExactly(tomorrow.plusMinutes(9 * 60));
+    }
+
+    @Test
+    void followsChangesAfterRefresh() {
+        // Business 1 gets fully booked tomorrow
+        freeTime.put(1L, closed());
+        AppointmentEvent event = new AppointmentEvent();
+        event.setBusinessId(1L);
+        index.onAppointmentEvent(event);
+        index.refreshBatch();
+
+        assertThat(index.findEarliest(haircuts(45), tomorrow, index.horizonEnd(), 10))
+            .extracting(OpenSlotDto::getBusinessId).containsExactly(3L);
+    }
+
+    @Test
+    void requeuesEveryBusinessAfterTheRequeueInterval() {
+        // A booking made through another instance: no event or availability change reaches this one
+        freeTime.put(1L, closed());
+        index.refreshBatch();
+
+        assertThat(index.findEarliest(haircuts(45), tomorrow, index.horizonEnd(), 10))
+            .extracting(OpenSlotDto::getBusinessId).containsExactly(1L, 3L);
+
+        OpenSlotIndex requeuing = new OpenSlotIndex(freeSlotService, businessRepository, mock(AvailabilityIndex.class), HORIZON_DAYS, 60, 100, 0);
+        requeuing.refreshBatch();
+        freeTime.put(3L, closed());
+        requeuing.refreshBatch();
+
+        assertThat(requeuing.findEarliest(haircuts(45), tomorrow, requeuing.horizonEnd(), 10)).isEmpty();
+    }
+
+    @Test
+    void scheduledRefreshRebuildsOnAWorkerThread() throws Exception {
+        freeTime.put(1L, closed());
+        AppointmentEvent event = new AppointmentEvent();
+        event.setBusinessId(1L);
+        index.onAppointmentEvent(event);
+        rebuildThreads.clear();
+
+        index.refresh();
+        index.refresh();
+        ((Thread) ReflectionTestUtils.getField(index, "worker")).join(5_000);
+
+        assertThat(rebuildThreads).containsExactly("open-slot-refresh");
+        assertThat(index.findEarliest(haircuts(45), tomorrow, index.horizonEnd(), 10))
+            .extracting(OpenSlotDto::getBusinessId).containsExactly(3L);
+    }
+
+    private static List<OpenSlotDto> haircuts(int durationMinutes) {
+        return List.of(1L, 2L, 3L).stream()
+            .map(id -> new OpenSlotDto(id, "Business " + id, "Town", id * 10, "Haircut", durationMinutes, BigDecimal.TEN))
+            .toList();
+    }
+
+    private static DayOccupancy[] closed() {
+        DayOccupancy[] days = new DayOccupancy[HORIZON_DAYS];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = new DayOccupancy();
+        }
+        return days;
+    }
+
+    private static DayOccupancy[] open(int dayIndex, int startMinute, int endMinute) {
+        DayOccupancy[] days = closed();
+        days[dayIndex].open(startMinute, endMinute);
+        return days;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.booking.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServiceNameIndexTest {
+
+    private final SearchCandidateRepository repository = mock(SearchCandidateRepository.class);
+    private final ServiceNameIndex index = new ServiceNameIndex(repository);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAllCandidates()).thenReturn(List.of(
+            service(1L, "Downtown", 10L, "Haircut"),
+            service(1L, "Downtown", 11L, "Beard trim"),
+            service(2L, "Uptown", 20L, "Kids haircut"),
+            service(3L, null, 30L, "Massage")));
+    }
+
+    @Test
+    void matchesSubstringsOfTheNameIgnoringCase() {
+        assertThat(serviceIds(index.find("HAIRCUT", null))).containsExactly(10L, 20L);
+        assertThat(serviceIds(index.find("cut", null))).containsExactly(10L, 20L);
+        assertThat(serviceIds(index.find("d t", null))).containsExactly(11L);
+        assertThat(index.find("haircuts", null)).isEmpty();
+        assertThat(index.find("xyz", null)).isEmpty();
+    }
+
+    @Test
+    void shortTermsCheckEveryService() {
+        assertThat(serviceIds(index.find("a", null))).containsExactly(10L, 11L, 20L, 30L);
+        assertThat(serviceIds(index.find("ag", null))).containsExactly(30L);
+    }
+
+    @Test
+    void filtersOnTheLocationWhenGiven() {
+        assertThat(serviceIds(index.find("haircut", "town"))).containsExactly(10L, 20L);
+        assertThat(serviceIds(index.find("haircut", "UP"))).containsExactly(20L);
+        assertThat(index.find("massage", "town")).isEmpty();
+    }
+
+    @Test
+    void loadsOnFirstSearchAndOnEveryRefresh() {
+        index.find("haircut", null);
+        index.find("massage", null);
+        verify(repository, times(1)).findAllCandidates();
+
+        when(repository.findAllCandidates()).thenReturn(List.of(service(4L, "Midtown", 40L, "Hair colouring")));
+        index.refresh();
+        assertThat(serviceIds(index.find("hair", null))).containsExactly(40L);
+    }
+
+    @Test
+    void failedRefreshKeepsTheLoadedCatalog() {
+        index.refresh();
+        when(repository.findAllCandidates()).thenThrow(new IllegalStateException("database down"));
+        index.refresh();
+        assertThat(serviceIds(index.find("haircut", null))).containsExactly(10L, 20L);
+    }
+
+    private static List<Long> serviceIds(List<OpenSlotDto> services) {
+        return services.stream().map(OpenSlotDto::getServiceId).toList();
+    }
+
+    private static OpenSlotDto service(Long businessId, String location, Long serviceId, String name) {
+        return new OpenSlotDto(businessId, "Business " + businessId, location, serviceId, name, 30, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.booking.waitlist;
+
+import com.example.booking.appointments.AppointmentRepository;
+import com.example.booking.appointments.AppointmentStatus;
+import com.example.booking.appointments.BookingCoordinator;
+import com.example.booking.appointments.SlotHoldService;
+import com.example.booking.appointments.StripedBookingLockProvider;
+import com.example.booking.auth.AuthenticationHelper;
+import com.example.booking.events.AppointmentEvent;
+import com.example.booking.events.AppointmentEventType;
+import com.example.booking.services.ServiceEntity;
+import com.example.booking.services.ServiceRepository;
+import com.example.booking.users.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Promotion runs through a transactional proxy of SlotHoldService, as in the application, with a transaction manager
+ * that tracks rollback-only marks, so a waiter who does not fit cannot spoil the promotion of the next one. The
+ * promoter hands events to its own single-thread executor, so tests wait for the transactions they expect.
+ */
+class WaitlistPromoterTest {
+    
+    private static final Long BUSINESS_ID = 10L;
+    
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    
+    private LocalDateTime freedStart;
+    private SlotHoldService target;
+    private SlotHoldService slotHoldService;
+    private WaitlistPromoter promoter;
+    
+    @BeforeEach
+    void setUp() {
+        freedStart = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        // Another appointment starts an hour after the freed one
+        LocalDateTime nextBooked = freedStart.plusHours(1);
+        when(appointmentRepository.existsOverlappingAppointment(anyLong(), any(), any(), any()))
+            .thenAnswer(invocation -> ((LocalDateTime) invocation.getArgument(3)).isAfter(nextBooked));
+        
+        target = new SlotHoldService(mock(ServiceRepository.class), appointmentRepository,
+            mock(AuthenticationHelper.class), new BookingCoordinator(new StripedBookingLockProvider(8), 8, 5), 5, 15, 3);
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        slotHoldService = (SlotHoldService) proxyFactory.getProxy();
+        
+        promoter = new WaitlistPromoter(waitlistEntryRepository, slotHoldService, transactionManager, 15, 50, 2, 1, 10);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        promoter.shutdown();
+        target.shutdown();
+    }
+    
+    @Test
+    void waiterWhoDoesNotFitIsSkippedAndTheNextOneIsPromoted() {
+        WaitlistEntry tooLong = entry(1L, 90);
+        WaitlistEntry fits = entry(2L, 30);
+        when(waitlistEntryRepository.findWaiting(eq(BUSINESS_ID), eq(freedStart.toLocalDate()), any()))
+            .thenReturn(List.of(tooLong, fits));
+        
+        promoter.onAppointmentEvent(cancelled(freedStart));
+        
+        awaitTransactions(1);
+        verify(waitlistEntryRepository).save(fits);
+        verify(waitlistEntryRepository, never()).save(tooLong);
+        assertThat(tooLong.getStatus()).isEqualTo(WaitlistStatus.WAITING);
+        assertThat(fits.getStatus()).isEqualTo(WaitlistStatus.PROMOTED);
+        assertThat(fits.getHeldDateTime()).isEqualTo(freedStart);
+        assertThat(target.isHeldByOthers(BUSINESS_ID, freedStart, freedStart.plusMinutes(30), 99L)).isTrue();
+        assertThat(transactionManager.commits).hasValue(1);
+        assertThat(transactionManager.rollbacks).hasValue(0);
+    }
+    
+    @Test
+    void failedPromotionIsRetriedAndItsHoldsReleased() {
+        WaitlistEntry fits = entry(2L, 30);
+        when(waitlistEntryRepository.findWaiting(eq(BUSINESS_ID), eq(freedStart.toLocalDate()), any()))
+            .thenReturn(List.of(fits));
+        when(waitlistEntryRepository.save(fits)).thenThrow(new IllegalStateException("database is down"));
+        
+        // The listener returns once the interval is queued; the failure stays with the promoter
+        promoter.onAppointmentEvent(cancelled(freedStart));
+        
+        awaitTransactions(WaitlistPromoter.PROMOTION_ATTEMPTS);
+        verify(waitlistEntryRepository, times(WaitlistPromoter.PROMOTION_ATTEMPTS)).save(fits);
+        assertThat(transactionManager.rollbacks).hasValue(WaitlistPromoter.PROMOTION_ATTEMPTS);
+        assertThat(target.isHeldByOthers(BUSINESS_ID, freedStart, freedStart.plusMinutes(30), 99L)).isFalse();
+    }
+    
+    @Test
+    void intervalsOfOneBusinessArePromotedInTheOrderTheyWereFreed() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<LocalDateTime> offered = new CopyOnWriteArrayList<>();
+        when(waitlistEntryRepository.findWaiting(eq(BUSINESS_ID), any(), any())).thenAnswer(invocation -> {
+            offered.add(freedStart.with((LocalDate) invocation.getArgument(1)));
+            if (offered.size() == 1) {
+                firstStarted.countDown();
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+        
+        promoter.onAppointmentEvent(cancelled(freedStart));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        // While the first promotion runs, two more queue behind it and a third finds the queue full
+        promoter.onAppointmentEvent(cancelled(freedStart.plusDays(1)));
+        promoter.onAppointmentEvent(cancelled(freedStart.plusDays(2)));
+        assertThatThrownBy(() -> promoter.onAppointmentEvent(cancelled(freedStart.plusDays(3))))
+            .isInstanceOf(IllegalStateException.class);
+        releaseFirst.countDown();
+        
+        awaitTransactions(3);
+        assertThat(offered).containsExactly(freedStart, freedStart.plusDays(1), freedStart.plusDays(2));
+    }
+    
+    @Test
+    void eventsThatFreeNothingAreIgnored() {
+        AppointmentEvent confirmed = cancelled(freedStart);
+        confirmed.setStatus(AppointmentStatus.CONFIRMED);
+        
+        promoter.onAppointmentEvent(confirmed);
+        promoter.onAppointmentEvent(cancelled(LocalDateTime.now().minusHours(1)));
+        
+        verify(waitlistEntryRepository, never()).findWaiting(any(), any(), any());
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+    
+    // Promotions run on the promoter's executor; wait for that many of their transactions to end, holds released
+    private void awaitTransactions(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (transactionManager.completed.get() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(transactionManager.completed).hasValue(count);
+    }
+    
+    private AppointmentEvent cancelled(LocalDateTime start) {
+        AppointmentEvent event = new AppointmentEvent();
+        event.setId(1L);
+        event.setEventType(AppointmentEventType.STATUS_CHANGED);
+        event.setStatus(AppointmentStatus.CANCELLED);
+        event.setBusinessId(BUSINESS_ID);
+        event.setDateTime(start);
+        event.setEndTime(start.plusMinutes(60));
+        return event;
+    }
+    
+    private static WaitlistEntry entry(Long customerId, int durationMinutes) {
+        User customer = new User();
+        customer.setId(customerId);
+        ServiceEntity service = new ServiceEntity();
+        service.setId(100L + customerId);
+        service.setDurationMinutes(durationMinutes);
+        
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(customerId);
+        entry.setCustomer(customer);
+        entry.setService(service);
+        entry.setStatus(WaitlistStatus.WAITING);
+        return entry;
+    }
+    
+    // Enough of a real transaction manager for propagation: inner REQUIRED calls join the outer transaction, and a
+    // participant that fails marks the whole transaction rollback-only, failing its commit
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+        // Transactions that have ended, counted after their afterCompletion callbacks ran
+        private final AtomicInteger completed = new AtomicInteger();
+        
+        @Override
+        protected Object doGetTransaction() {
+            return new Transaction((AtomicBoolean) TransactionSynchronizationManager.getResource(this));
+        }
+        
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transaction) transaction).rollbackOnly != null;
+        }
+        
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            AtomicBoolean rollbackOnly = new AtomicBoolean();
+            ((Transaction) transaction).rollbackOnly = rollbackOnly;
+            TransactionSynchronizationManager.bindResource(this, rollbackOnly);
+        }
+        
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+        
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+        
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((Transaction) status.getTransaction()).rollbackOnly.set(true);
+        }
+        
+        @Override
+        protected Object doSuspend(Object transaction) {
+            ((Transaction) transaction).rollbackOnly = null;
+            return TransactionSynchronizationManager.unbindResource(this);
+        }
+        
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            TransactionSynchronizationManager.bindResource(this, suspendedResources);
+        }
+        
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(this);
+            completed.incrementAndGet();
+        }
+        
+        private static class Transaction implements SmartTransactionObject {
+            
+            private AtomicBoolean rollbackOnly;
+            
+            Transaction(AtomicBoolean rollbackOnly) {
+                this.rollbackOnly = rollbackOnly;
+            }
+            
+            @Override
+            public boolean isRollbackOnly() {
+                return rollbackOnly != null && rollbackOnly.get();
+            }
+            
+            @Override
+            public void flush() {
+            }
+        }
+    }
+}
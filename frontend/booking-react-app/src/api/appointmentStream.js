@@ -0,0 +1,77 @@
+import { API_BASE_URL } from './axios';
+
+const MIN_RETRY_MS = 1000;
+const MAX_RETRY_MS = 30000;
+
+// Read one Server-Sent Events response and call onEvent for every event (comments are skipped)
+const readEvents = async (response, onEvent) => {
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) {
+      return;
+    }
+    buffer += value.replace(/\r\n?/g, '\n');
+    let end;
+    while ((end = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      const event = { id: null, type: 'message', data: '' };
+      block.split('\n').forEach((line) => {
+        const colon = line.indexOf(':');
+        if (colon === 0) {
+          return;
+        }
+        const field = colon < 0 ? line : line.slice(0, colon);
+        const text = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+        if (field === 'id') event.id = text;
+        if (field === 'event') event.type = text;
+        if (field === 'data') event.data += (event.data ? '\n' : '') + text;
+      });
+      if (event.data) {
+        onEvent(event);
+      }
+    }
+  }
+};
+
+// Listen for changes to the appointments of the current business owner until the returned function is called.
+// EventSource cannot send the Authorization header, so the stream is read with fetch and reopened when it ends.
+// Events are only hints: onChange should re-sync, which also covers anything missed while disconnected.
+export const subscribeToAppointmentChanges = (onChange) => {
+  const controller = new AbortController();
+  let retryMs = MIN_RETRY_MS;
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const response = await fetch(`${API_BASE_URL}/appointments/stream`, {
+          headers: {
+            Accept: 'text/event-stream',
+            Authorization: `Bearer ${localStorage.getItem('token')}`,
+          },
+          signal: controller.signal,
+        });
+        if (response.status === 401 || response.status === 403) {
+          return;
+        }
+        if (response.ok) {
+          retryMs = MIN_RETRY_MS;
+          // Catch up on whatever changed while the stream was closed
+          onChange();
+          await readEvents(response, (event) => onChange(JSON.parse(event.data)));
+        }
+      } catch {
+        // Network error or aborted; the loop condition decides whether to retry
+      }
+      if (!controller.signal.aborted) {
+        await new Promise((resolve) => setTimeout(resolve, retryMs));
+        retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+      }
+    }
+  };
+
+  connect();
+  return () => controller.abort();
+};
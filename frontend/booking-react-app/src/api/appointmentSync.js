@@ -0,0 +1,50 @@
+import { api } from './axios';
+
+const STORAGE_PREFIX = 'appointmentSync:';
+
+const load = (key) => {
+  try {
+    return JSON.parse(localStorage.getItem(key)) || { token: null, items: {} };
+  } catch {
+    return { token: null, items: {} };
+  }
+};
+
+// Bring the locally stored appointments of a user up to date and return them in date order.
+// Only appointments changed since the last sync are downloaded; the first call downloads everything.
+export const syncAppointments = async (userId) => {
+  const key = STORAGE_PREFIX + userId;
+  let { token, items } = load(key);
+
+  let hasMore = true;
+  while (hasMore) {
+    const { data } = await api.getAppointmentChanges(token);
+    if (data.reset) {
+      items = {};
+    }
+    data.updated.forEach((appointment) => {
+      items[appointment.id] = appointment;
+    });
+    data.deleted.forEach((id) => {
+      delete items[id];
+    });
+    token = data.next;
+    hasMore = data.hasMore;
+  }
+
+  try {
+    localStorage.setItem(key, JSON.stringify({ token, items }));
+  } catch {
+    // Storage full: the next visit simply syncs from scratch
+    localStorage.removeItem(key);
+  }
+  return Object.values(items).sort((a, b) =>
+    a.dateTime === b.dateTime ? a.id - b.id : a.dateTime.localeCompare(b.dateTime));
+};
+
+// Forget every user's synced appointments, e.g. on logout
+export const clearAppointmentSync = () => {
+  Object.keys(localStorage)
+    .filter((key) => key.startsWith(STORAGE_PREFIX))
+    .forEach((key) => localStorage.removeItem(key));
+};
@@ -1,6 +1,6 @@
 import axios from 'axios';
 
-const API_BASE_URL = 'http://localhost:8080/api';
+export const API_BASE_URL = 'http://localhost:8080/api';
 
 // Create axios instance
 const axiosInstance = axios.create({
@@ -61,21 +61,56 @@ export const api = {
   deleteService: (id) => axiosInstance.delete(`/services/${id}`),
   
   // Appointments
-  createAppointment: (data) => axiosInstance.post('/appointments', data),
-  getMyAppointments: () => axiosInstance.get('/appointments/my'),
-  getMyBusinessAppointments: () => axiosInstance.get('/appointments/my-business'),
-  getAppointmentsByBusinessId: (businessId) => 
-    axiosInstance.get(`/appointments/business/${businessId}`),
+  // Retries of one booking attempt must reuse its idempotency key so the server books it only once
+  createAppointment: (data, idempotencyKey) =>
+    axiosInstance.post('/appointments', data, { headers: { 'Idempotency-Key': idempotencyKey } }),
+  // Holds keep a slot free for a few minutes while the customer confirms
+  createSlotHold: (data) => axiosInstance.post('/appointments/holds', data),
+  releaseSlotHold: (holdId) => axiosInstance.delete(`/appointments/holds/${holdId}`),
+  // Appointment listings are paged: pass the `next` cursor of the previous page
+  getMyAppointments: (cursor) => axiosInstance.get('/appointments/my', { params: { cursor } }),
+  getMyBusinessAppointments: (cursor) =>
+    axiosInstance.get('/appointments/my-business', { params: { cursor } }),
+  // Delta sync: appointments changed since the `next` token of the previous call (no token for a full sync)
+  getAppointmentChanges: (since) => axiosInstance.get('/appointments/changes', { params: { since } }),
+  getAppointmentsByBusinessId: (businessId, cursor) => 
+    axiosInstance.get(`/appointments/business/${businessId}`, { params: { cursor } }),
   updateAppointmentStatus: (id, status) => 
     axiosInstance.patch(`/appointments/${id}/status`, { status }),
+  // Applies one status to up to 100 appointments and returns a result per ID
+  bulkUpdateAppointmentStatus: (ids, status) =>
+    axiosInstance.patch('/appointments/status:bulk', { ids, status }),
   deleteAppointment: (id) => axiosInstance.delete(`/appointments/${id}`),
   
+  // Waitlist
+  joinWaitlist: (data) => axiosInstance.post('/waitlist', data),
+  getMyWaitlistEntries: () => axiosInstance.get('/waitlist/my'),
+  leaveWaitlist: (id) => axiosInstance.delete(`/waitlist/${id}`),
+  
   // Availability
   getAvailabilityByBusinessId: (businessId) => 
     axiosInstance.get(`/availability-slots/business/${businessId}`),
   getMyAvailabilitySlots: () => axiosInstance.get('/availability-slots/my'),
+  getFreeSlots: (businessId, serviceId, date) =>
+    axiosInstance.get(`/businesses/${businessId}/free-slots`, { params: { serviceId, date } }),
+  getBusinessCalendar: (businessId, month) =>
+    axiosInstance.get(`/businesses/${businessId}/calendar`, { params: { month } }),
   createAvailabilitySlot: (data) => axiosInstance.post('/availability-slots', data),
   deleteAvailabilitySlot: (id) => axiosInstance.delete(`/availability-slots/${id}`),
+  // Body is the file itself; .ndjson files are sent as NDJSON, anything else as CSV
+  importAvailabilitySlots: (file) =>
+    axiosInstance.post('/availability-slots/import', file, {
+      headers: { 'Content-Type': file.name.endsWith('.ndjson') ? 'application/x-ndjson' : 'text/csv' },
+    }),
+  getMyAvailabilityRules: () => axiosInstance.get('/availability-rules/my'),
+  createAvailabilityRule: (data) => axiosInstance.post('/availability-rules', data),
+  deleteAvailabilityRule: (id) => axiosInstance.delete(`/availability-rules/${id}`),
+  getMyAvailabilityExceptions: () => axiosInstance.get('/availability-exceptions/my'),
+  createAvailabilityException: (data) => axiosInstance.post('/availability-exceptions', data),
+  deleteAvailabilityException: (id) => axiosInstance.delete(`/availability-exceptions/${id}`),
+
+  // Search endpoints
+  searchOpenSlots: (params) => axiosInstance.get('/search/open-slots', { params }),
 };
 
 export default axiosInstance;
@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useMutation, useQueryClient, useQuery } from '@tanstack/react-query';
 import { useNavigate } from 'react-router-dom';
 import { api } from '../api/axios';
@@ -9,6 +9,8 @@ const BookingModal = ({ business, service, onClose }) => {
   const [selectedTimeSlot, setSelectedTimeSlot] = useState('');
   const [error, setError] = useState('');
   const [availableSlots, setAvailableSlots] = useState([]);
+  const [hold, setHold] = useState(null);
+  const holdRef = useRef(null);
   
   const navigate = useNavigate();
   const queryClient = useQueryClient();
@@ -22,25 +24,103 @@ const BookingModal = ({ business, service, onClose }) => {
     },
   });
 
-  // Fetch existing appointments for the business
-  const { data: existingAppointments } = useQuery({
-    queryKey: ['businessAppointments', business.id],
+  // Fetch the bookable start times for the selected date
+  const { data: freeSlots } = useQuery({
+    queryKey: ['freeSlots', business.id, service.id, date],
     queryFn: async () => {
-      const response = await api.getAppointmentsByBusinessId(business.id);
+      const response = await api.getFreeSlots(business.id, service.id, date);
       return response.data;
     },
+    enabled: !!date,
+  });
+
+  // Fetch how full each day of the selected month is
+  const month = date.slice(0, 7);
+  const { data: calendar } = useQuery({
+    queryKey: ['businessCalendar', business.id, month],
+    queryFn: async () => {
+      const response = await api.getBusinessCalendar(business.id, month);
+      return response.data;
+    },
+    enabled: !!month,
+  });
+  const selectedDay = calendar?.days.find((day) => day.date === date);
+
+  // Release a hold the customer no longer needs; it would expire on its own anyway
+  const releaseHold = () => {
+    if (holdRef.current) {
+      api.releaseSlotHold(holdRef.current.id).catch(() => {});
+      holdRef.current = null;
+    }
+    setHold(null);
+  };
+
+  // Release the hold when the modal closes without booking
+  useEffect(() => () => {
+    if (holdRef.current) {
+      api.releaseSlotHold(holdRef.current.id).catch(() => {});
+    }
+  }, []);
+
+  // Hold the chosen slot so nobody else can book it while the customer confirms
+  const holdSlotMutation = useMutation({
+    mutationFn: async (dateTime) => {
+      const response = await api.createSlotHold({
+        businessId: business.id,
+        serviceId: service.id,
+        dateTime,
+      });
+      return response.data;
+    },
+    onSuccess: (newHold) => {
+      holdRef.current = newHold;
+      setHold(newHold);
+    },
+    onError: (err) => {
+      setSelectedTimeSlot('');
+      setError(err.response?.data?.message || err.response?.data?.error || 'This time slot is no longer available');
+      queryClient.invalidateQueries({ queryKey: ['freeSlots', business.id] });
+    },
+  });
+
+  const selectTimeSlot = (slot) => {
+    setError('');
+    releaseHold();
+    setSelectedTimeSlot(slot);
+    holdSlotMutation.mutate(`${date}T${slot}:00`);
+  };
+
+  // Queue for the selected date when it is fully booked
+  const joinWaitlistMutation = useMutation({
+    mutationFn: async () => {
+      const response = await api.joinWaitlist({
+        businessId: business.id,
+        serviceId: service.id,
+        desiredDate: date,
+      });
+      return response.data;
+    },
+    onError: (err) => {
+      setError(err.response?.data?.message || err.response?.data?.error || 'Failed to join the waitlist');
+    },
   });
 
   // Create appointment mutation
   const createAppointmentMutation = useMutation({
-    mutationFn: async (appointmentData) => {
-      const response = await api.createAppointment(appointmentData);
+    mutationFn: async ({ appointmentData, idempotencyKey }) => {
+      const response = await api.createAppointment(appointmentData, idempotencyKey);
       return response.data;
     },
+    // Retry only when the request never got an answer; the shared key makes the retry safe
+    retry: (failureCount, err) => !err.response && failureCount < 3,
     onSuccess: () => {
+      // The hold became the appointment
+      holdRef.current = null;
       // Invalidate appointments query to refetch
       queryClient.invalidateQueries({ queryKey: ['appointments'] });
       queryClient.invalidateQueries({ queryKey: ['businessAppointments', business.id] });
+      queryClient.invalidateQueries({ queryKey: ['freeSlots', business.id] });
+      queryClient.invalidateQueries({ queryKey: ['businessCalendar', business.id] });
       onClose();
       navigate('/customer/appointments', {
         state: { message: 'Appointment booked successfully!' }
@@ -51,70 +131,23 @@ const BookingModal = ({ business, service, onClose }) => {
     },
   });
 
-  // Calculate available time slots when date changes
+  // Show the free slots computed by the server for the selected date
   useEffect(() => {
-    if (!date || !availabilitySlots || !existingAppointments) {
+    if (!date || !freeSlots) {
       setAvailableSlots([]);
       setSelectedTimeSlot('');
       return;
     }
 
-    const selectedDate = new Date(date + 'T00:00:00');
-
-    // Get availability slots that include the selected date
-    const validSlots = availabilitySlots.filter(slot => {
-      const slotStart = new Date(slot.startDate + 'T00:00:00');
-      const slotEnd = new Date(slot.endDate + 'T00:00:00');
-      return selectedDate >= slotStart && selectedDate <= slotEnd;
-    });
+    setAvailableSlots(freeSlots.slots.map((slot) => slot.slice(0, 5)));
+  }, [date, freeSlots]);
 
-    if (validSlots.length === 0) {
-      setAvailableSlots([]);
-      setSelectedTimeSlot('');
-      return;
-    }
-
-    // Generate all possible time slots
-    const slots = [];
-    validSlots.forEach(daySlot => {
-      const [startHour, startMin] = daySlot.startTime.split(':').map(Number);
-      const [endHour, endMin] = daySlot.endTime.split(':').map(Number);
-      
-      const startMinutes = startHour * 60 + startMin;
-      const endMinutes = endHour * 60 + endMin;
-      const serviceDuration = service.durationMinutes;
-
-      // Generate slots in 30-minute intervals (or service duration if smaller)
-      const interval = Math.min(30, serviceDuration);
-      
-      for (let time = startMinutes; time + serviceDuration <= endMinutes; time += interval) {
-        const hours = Math.floor(time / 60);
-        const minutes = time % 60;
-        const timeString = `${hours.toString().padStart(2, '0')}:${minutes.toString().padStart(2, '0')}`;
-        
-        // Check if this time slot conflicts with existing appointments
-        const slotDateTime = `${date}T${timeString}:00`;
-        const hasConflict = existingAppointments.some(apt => {
-          if (apt.status === 'CANCELLED') return false;
-          
-          const aptDateTime = new Date(apt.dateTime);
-          const slotStart = new Date(slotDateTime);
-          const slotEnd = new Date(slotStart.getTime() + serviceDuration * 60000);
-          const aptEnd = new Date(aptDateTime.getTime() + apt.serviceDuration * 60000);
-          
-          // Check for overlap
-          return (slotStart < aptEnd && slotEnd > aptDateTime);
-        });
-
-        if (!hasConflict) {
-          slots.push(timeString);
-        }
-      }
-    });
-
-    setAvailableSlots(slots);
+  // A new date means a new choice of slot
+  useEffect(() => {
+    releaseHold();
+    joinWaitlistMutation.reset();
     setSelectedTimeSlot('');
-  }, [date, availabilitySlots, existingAppointments, service.durationMinutes]);
+  }, [date]);
 
   const handleSubmit = (e) => {
     e.preventDefault();
@@ -129,9 +162,13 @@ const BookingModal = ({ business, service, onClose }) => {
     const dateTime = `${date}T${selectedTimeSlot}:00`;
 
     createAppointmentMutation.mutate({
-      businessId: business.id,
-      serviceId: service.id,
-      dateTime: dateTime,
+      appointmentData: {
+        businessId: business.id,
+        serviceId: service.id,
+        dateTime: dateTime,
+        holdId: hold?.dateTime?.startsWith(dateTime.slice(0, 16)) ? hold.id : undefined,
+      },
+      idempotencyKey: crypto.randomUUID(),
     });
   };
 
@@ -187,6 +224,11 @@ const BookingModal = ({ business, service, onClose }) => {
               required
               className="form-input"
             />
+            {selectedDay && selectedDay.openMinutes > 0 && (
+              <div className="day-occupancy">
+                {selectedDay.freeSlots} free slots · {Math.round((selectedDay.bookedMinutes * 100) / selectedDay.openMinutes)}% booked
+              </div>
+            )}
           </div>
 
           {date && (
@@ -195,6 +237,20 @@ const BookingModal = ({ business, service, onClose }) => {
               {availableSlots.length === 0 ? (
                 <div className="no-slots-message">
                   No available time slots for this date. Please select another date or contact the business.
+                  {joinWaitlistMutation.isSuccess ? (
+                    <div className="waitlist-joined">
+                      You are on the waitlist. If a slot frees up, it will be held for you.
+                    </div>
+                  ) : (
+                    <button
+                      type="button"
+                      className="waitlist-btn"
+                      onClick={() => joinWaitlistMutation.mutate()}
+                      disabled={joinWaitlistMutation.isPending}
+                    >
+                      {joinWaitlistMutation.isPending ? 'Joining...' : 'Join the waitlist'}
+                    </button>
+                  )}
                 </div>
               ) : (
                 <div className="time-slots-grid">
@@ -203,7 +259,7 @@ const BookingModal = ({ business, service, onClose }) => {
                       key={slot}
                       type="button"
                       className={`time-slot-btn ${selectedTimeSlot === slot ? 'selected' : ''}`}
-                      onClick={() => setSelectedTimeSlot(slot)}
+                      onClick={() => selectTimeSlot(slot)}
                     >
                       {formatTime(slot)}
                     </button>
@@ -237,7 +293,7 @@ const BookingModal = ({ business, service, onClose }) => {
             <button 
               type="submit" 
               className="confirm-btn"
-              disabled={createAppointmentMutation.isPending || !selectedTimeSlot}
+              disabled={createAppointmentMutation.isPending || holdSlotMutation.isPending || !selectedTimeSlot}
             >
               {createAppointmentMutation.isPending ? 'Booking...' : 'Confirm Booking'}
             </button>
@@ -1,6 +1,7 @@
 import { createContext, useContext, useState, useEffect } from 'react';
 import { getUserFromToken } from '../utils/jwt';
 import { api } from '../api/axios';
+import { clearAppointmentSync } from '../api/appointmentSync';
 
 const AuthContext = createContext(null);
 
@@ -43,6 +44,7 @@ export const AuthProvider = ({ children }) => {
   const logout = () => {
     localStorage.removeItem('token');
     localStorage.removeItem('user');
+    clearAppointmentSync();
     setUser(null);
     window.location.href = '/login';
   };
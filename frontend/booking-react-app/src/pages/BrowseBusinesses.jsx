@@ -8,6 +8,8 @@ const BrowseBusinesses = () => {
   const [selectedBusiness, setSelectedBusiness] = useState(null);
   const [selectedService, setSelectedService] = useState(null);
   const [showBookingModal, setShowBookingModal] = useState(false);
+  const [searchForm, setSearchForm] = useState({ service: '', location: '' });
+  const [search, setSearch] = useState(null);
 
   // Fetch all businesses
   const { data: businesses, isLoading: loadingBusinesses } = useQuery({
@@ -28,6 +30,37 @@ const BrowseBusinesses = () => {
     enabled: !!selectedBusiness,
   });
 
+  // Earliest open slots across businesses for the submitted search
+  const { data: openSlots, isFetching: searchingSlots, error: searchError } = useQuery({
+    queryKey: ['openSlots', search],
+    queryFn: async () => {
+      const response = await api.searchOpenSlots({
+        service: search.service,
+        location: search.location || undefined,
+      });
+      return response.data;
+    },
+    enabled: !!search,
+  });
+
+  const handleSearchSubmit = (e) => {
+    e.preventDefault();
+    if (searchForm.service.trim()) {
+      setSearch({ service: searchForm.service.trim(), location: searchForm.location.trim() });
+    }
+  };
+
+  const handleOpenSlotClick = (slot) => {
+    setSelectedBusiness({ id: slot.businessId, name: slot.businessName, location: slot.location });
+    setSelectedService({
+      id: slot.serviceId,
+      name: slot.serviceName,
+      durationMinutes: slot.durationMinutes,
+      price: slot.price,
+    });
+    setShowBookingModal(true);
+  };
+
   const handleBusinessClick = (business) => {
     setSelectedBusiness(business);
     setSelectedService(null);
@@ -59,6 +92,56 @@ const BrowseBusinesses = () => {
         <div>
           <h1>Browse Businesses</h1>
           <p className="subtitle">Select a business to view available services</p>
+
+          <form className="open-slot-search" onSubmit={handleSearchSubmit}>
+            <input
+              type="text"
+              placeholder="Service, e.g. haircut"
+              value={searchForm.service}
+              onChange={(e) => setSearchForm({ ...searchForm, service: e.target.value })}
+            />
+            <input
+              type="text"
+              placeholder="Location (optional)"
+              value={searchForm.location}
+              onChange={(e) => setSearchForm({ ...searchForm, location: e.target.value })}
+            />
+            <button type="submit" disabled={!searchForm.service.trim()}>
+              Find earliest slot
+            </button>
+          </form>
+
+          {search && (
+            <div className="open-slot-results">
+              {searchingSlots ? (
+                <div className="loading">Searching...</div>
+              ) : searchError ? (
+                <p className="no-data">{searchError.response?.data?.error || 'Search failed'}</p>
+              ) : openSlots?.length === 0 ? (
+                <p className="no-data">No open slots found for "{search.service}".</p>
+              ) : (
+                openSlots?.map((slot) => (
+                  <div
+                    key={`${slot.serviceId}-${slot.dateTime}`}
+                    className="open-slot-row"
+                    onClick={() => handleOpenSlotClick(slot)}
+                  >
+                    <span className="open-slot-time">
+                      {new Date(slot.dateTime).toLocaleString([], {
+                        weekday: 'short',
+                        month: 'short',
+                        day: 'numeric',
+                        hour: '2-digit',
+                        minute: '2-digit',
+                      })}
+                    </span>
+                    <span>{slot.serviceName} at {slot.businessName}</span>
+                    <span className="business-location">📍 {slot.location}</span>
+                  </div>
+                ))
+              )}
+            </div>
+          )}
           
           {businesses && businesses.length === 0 ? (
             <p className="no-data">No businesses available.</p>
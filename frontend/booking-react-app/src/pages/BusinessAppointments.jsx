@@ -1,6 +1,9 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { api } from '../api/axios';
+import { syncAppointments } from '../api/appointmentSync';
+import { subscribeToAppointmentChanges } from '../api/appointmentStream';
+import { useAuth } from '../contexts/AuthContext';
 import './BusinessAppointments.css';
 
 const BusinessAppointments = () => {
@@ -8,16 +11,24 @@ const BusinessAppointments = () => {
   const [error, setError] = useState('');
   const [filterStatus, setFilterStatus] = useState('ALL');
   const queryClient = useQueryClient();
+  const { user } = useAuth();
 
-  // Fetch business appointments
+  // Appointments are kept locally and refreshed with only what changed since the last visit
   const { data: appointments, isLoading } = useQuery({
-    queryKey: ['businessAppointments'],
-    queryFn: async () => {
-      const response = await api.getMyBusinessAppointments();
-      return response.data;
-    },
+    queryKey: ['businessAppointments', user?.id],
+    queryFn: () => syncAppointments(user.id),
+    enabled: !!user,
   });
 
+  // Re-sync as soon as the server reports a change to one of the business's appointments
+  useEffect(() => {
+    if (!user) {
+      return undefined;
+    }
+    return subscribeToAppointmentChanges(() =>
+      queryClient.invalidateQueries({ queryKey: ['businessAppointments'] }));
+  }, [user, queryClient]);
+
   // Update appointment status mutation
   const updateStatusMutation = useMutation({
     mutationFn: async ({ appointmentId, status }) => {
@@ -34,6 +45,36 @@ const BusinessAppointments = () => {
     },
   });
 
+  // Confirm every loaded pending appointment, 100 per request
+  const confirmAllMutation = useMutation({
+    mutationFn: async (ids) => {
+      const results = [];
+      for (let i = 0; i < ids.length; i += 100) {
+        const response = await api.bulkUpdateAppointmentStatus(ids.slice(i, i + 100), 'CONFIRMED');
+        results.push(...response.data);
+      }
+      return results;
+    },
+    onSuccess: (results) => {
+      queryClient.invalidateQueries({ queryKey: ['businessAppointments'] });
+      const confirmed = results.filter(r => r.outcome === 'UPDATED' || r.outcome === 'UNCHANGED').length;
+      const failed = results.length - confirmed;
+      setSuccess(`${confirmed} appointment(s) confirmed` + (failed > 0 ? `, ${failed} could not be confirmed` : ''));
+      setTimeout(() => setSuccess(''), 5000);
+    },
+    onError: (error) => {
+      setError(error.response?.data?.error || 'Failed to confirm appointments');
+      setTimeout(() => setError(''), 5000);
+    },
+  });
+
+  const handleConfirmAll = () => {
+    const pendingIds = appointments?.filter(a => a.status === 'PENDING').map(a => a.id) || [];
+    if (pendingIds.length > 0 && window.confirm(`Confirm all ${pendingIds.length} pending appointments?`)) {
+      confirmAllMutation.mutate(pendingIds);
+    }
+  };
+
   const handleStatusUpdate = (appointmentId, status, appointmentInfo) => {
     const statusActions = {
       CONFIRMED: 'confirm',
@@ -105,6 +146,17 @@ const BusinessAppointments = () => {
         ))}
       </div>
 
+      {(filterStatus === 'ALL' || filterStatus === 'PENDING') &&
+        appointments?.some(a => a.status === 'PENDING') && (
+        <button
+          className="btn btn-confirm confirm-all-btn"
+          onClick={handleConfirmAll}
+          disabled={confirmAllMutation.isPending}
+        >
+          {confirmAllMutation.isPending ? 'Confirming...' : '✓ Confirm all pending'}
+        </button>
+      )}
+
       {/* Appointments list */}
       {filteredAppointments.length === 0 ? (
         <div className="no-appointments">
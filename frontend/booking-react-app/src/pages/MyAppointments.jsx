@@ -2,12 +2,15 @@ import { useState, useEffect } from 'react';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { useLocation } from 'react-router-dom';
 import { api } from '../api/axios';
+import { syncAppointments } from '../api/appointmentSync';
+import { useAuth } from '../contexts/AuthContext';
 import './MyAppointments.css';
 
 const MyAppointments = () => {
   const [success, setSuccess] = useState('');
   const location = useLocation();
   const queryClient = useQueryClient();
+  const { user } = useAuth();
 
   // Check for success message from booking
   useEffect(() => {
@@ -18,13 +21,11 @@ const MyAppointments = () => {
     }
   }, [location]);
 
-  // Fetch appointments
+  // Appointments are kept locally and refreshed with only what changed since the last visit
   const { data: appointments, isLoading } = useQuery({
-    queryKey: ['appointments'],
-    queryFn: async () => {
-      const response = await api.getMyAppointments();
-      return response.data;
-    },
+    queryKey: ['appointments', user?.id],
+    queryFn: () => syncAppointments(user.id),
+    enabled: !!user,
   });
 
   // Cancel appointment mutation
@@ -3,10 +3,26 @@ import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { api } from '../api/axios';
 import './SetAvailability.css';
 
+const WEEKDAYS = ['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY'];
+
+const emptyRule = () => ({
+  businessId: '',
+  days: ['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY'],
+  startTime: '09:00',
+  endTime: '17:00',
+  validFrom: new Date().toISOString().split('T')[0],
+  validUntil: '',
+});
+
 const SetAvailability = () => {
   const [success, setSuccess] = useState('');
   const [error, setError] = useState('');
   const [showForm, setShowForm] = useState(false);
+  const [showRuleForm, setShowRuleForm] = useState(false);
+  const [ruleData, setRuleData] = useState(emptyRule);
+  const [closure, setClosure] = useState({ businessId: '', startDate: '', endDate: '', startTime: '', endTime: '', reason: '' });
+  const [importFile, setImportFile] = useState(null);
+  const [importResult, setImportResult] = useState(null);
   const queryClient = useQueryClient();
 
   // Form state
@@ -36,6 +52,91 @@ const SetAvailability = () => {
     },
   });
 
+  // Fetch recurring weekly hours
+  const { data: availabilityRules } = useQuery({
+    queryKey: ['myAvailabilityRules'],
+    queryFn: async () => {
+      const response = await api.getMyAvailabilityRules();
+      return response.data;
+    },
+  });
+
+  const createRuleMutation = useMutation({
+    mutationFn: async (data) => {
+      await api.createAvailabilityRule(data);
+    },
+    onSuccess: () => {
+      queryClient.invalidateQueries({ queryKey: ['myAvailabilityRules'] });
+      setSuccess('Weekly hours added successfully');
+      setShowRuleForm(false);
+      setRuleData(emptyRule());
+      setTimeout(() => setSuccess(''), 5000);
+    },
+    onError: (error) => {
+      setError(error.response?.data?.error || 'Failed to add weekly hours');
+      setTimeout(() => setError(''), 5000);
+    },
+  });
+
+  const deleteRuleMutation = useMutation({
+    mutationFn: async (ruleId) => {
+      await api.deleteAvailabilityRule(ruleId);
+    },
+    onSuccess: () => {
+      queryClient.invalidateQueries({ queryKey: ['myAvailabilityRules'] });
+      setSuccess('Weekly hours deleted successfully');
+      setTimeout(() => setSuccess(''), 5000);
+    },
+    onError: (error) => {
+      setError(error.response?.data?.error || 'Failed to delete weekly hours');
+      setTimeout(() => setError(''), 5000);
+    },
+  });
+
+  // Fetch closures and other dated exceptions
+  const { data: availabilityExceptions } = useQuery({
+    queryKey: ['myAvailabilityExceptions'],
+    queryFn: async () => {
+      const response = await api.getMyAvailabilityExceptions();
+      return response.data;
+    },
+  });
+
+  const exceptionMutation = useMutation({
+    mutationFn: async ({ id, data }) => {
+      await (id ? api.deleteAvailabilityException(id) : api.createAvailabilityException(data));
+    },
+    onSuccess: (_, { id }) => {
+      queryClient.invalidateQueries({ queryKey: ['myAvailabilityExceptions'] });
+      setSuccess(id ? 'Closure removed successfully' : 'Closure added successfully');
+      if (!id) {
+        setClosure({ businessId: '', startDate: '', endDate: '', startTime: '', endTime: '', reason: '' });
+      }
+      setTimeout(() => setSuccess(''), 5000);
+    },
+    onError: (error) => {
+      setError(error.response?.data?.error || 'Failed to update closures');
+      setTimeout(() => setError(''), 5000);
+    },
+  });
+
+  // Bulk import of availability slots from a CSV or NDJSON file
+  const importMutation = useMutation({
+    mutationFn: async (file) => {
+      const response = await api.importAvailabilitySlots(file);
+      return response.data;
+    },
+    onSuccess: (result) => {
+      queryClient.invalidateQueries({ queryKey: ['myAvailabilitySlots'] });
+      setImportResult(result);
+      setImportFile(null);
+    },
+    onError: (error) => {
+      setError(error.response?.data?.error || 'Failed to import availability slots');
+      setTimeout(() => setError(''), 5000);
+    },
+  });
+
   // Create availability slot mutation
   const createSlotMutation = useMutation({
     mutationFn: async (data) => {
@@ -102,6 +203,53 @@ const SetAvailability = () => {
     });
   };
 
+  const handleRuleChange = (e) => {
+    const { name, value } = e.target;
+    setRuleData(prev => ({ ...prev, [name]: value }));
+  };
+
+  const toggleRuleDay = (day) => {
+    setRuleData(prev => ({
+      ...prev,
+      days: prev.days.includes(day) ? prev.days.filter(d => d !== day) : [...prev.days, day],
+    }));
+  };
+
+  const handleRuleSubmit = (e) => {
+    e.preventDefault();
+    if (!ruleData.businessId || ruleData.days.length === 0) {
+      setError('Please select a business and at least one day');
+      setTimeout(() => setError(''), 5000);
+      return;
+    }
+    createRuleMutation.mutate({
+      ...ruleData,
+      businessId: parseInt(ruleData.businessId),
+      validUntil: ruleData.validUntil || null,
+    });
+  };
+
+  const handleClosureChange = (e) => {
+    const { name, value } = e.target;
+    setClosure(prev => ({ ...prev, [name]: value }));
+  };
+
+  // Without times the whole days are closed
+  const handleClosureSubmit = (e) => {
+    e.preventDefault();
+    exceptionMutation.mutate({
+      data: {
+        type: 'CLOSED',
+        businessId: parseInt(closure.businessId),
+        startDate: closure.startDate,
+        endDate: closure.endDate || null,
+        startTime: closure.startTime || null,
+        endTime: closure.endTime || null,
+        reason: closure.reason || null,
+      },
+    });
+  };
+
   const handleDelete = (slotId, businessName, dateRange, time) => {
     if (window.confirm(`Are you sure you want to delete ${businessName} availability for ${dateRange} (${time})?`)) {
       deleteSlotMutation.mutate(slotId);
@@ -252,6 +400,219 @@ const SetAvailability = () => {
         </div>
       )}
 
+      {/* Recurring Weekly Hours */}
+      <div className="availability-schedule">
+        <h2>Weekly Hours</h2>
+        {!showRuleForm && (
+          <button className="btn btn-primary add-slot-btn" onClick={() => setShowRuleForm(true)}>
+            + Add Weekly Hours
+          </button>
+        )}
+
+        {showRuleForm && (
+          <div className="add-slot-form">
+            <form onSubmit={handleRuleSubmit}>
+              <div className="form-group">
+                <label htmlFor="ruleBusinessId">Business *</label>
+                <select id="ruleBusinessId" name="businessId" value={ruleData.businessId} onChange={handleRuleChange} required>
+                  <option value="">Select a business</option>
+                  {businesses?.map(business => (
+                    <option key={business.id} value={business.id}>{business.name}</option>
+                  ))}
+                </select>
+              </div>
+
+              <div className="form-group weekday-picker">
+                {WEEKDAYS.map(day => (
+                  <label key={day}>
+                    <input type="checkbox" checked={ruleData.days.includes(day)} onChange={() => toggleRuleDay(day)} />
+                    {day.slice(0, 3)}
+                  </label>
+                ))}
+              </div>
+
+              <div className="form-row">
+                <div className="form-group">
+                  <label htmlFor="ruleStartTime">Start Time *</label>
+                  <input type="time" id="ruleStartTime" name="startTime" value={ruleData.startTime} onChange={handleRuleChange} required />
+                </div>
+                <div className="form-group">
+                  <label htmlFor="ruleEndTime">End Time *</label>
+                  <input type="time" id="ruleEndTime" name="endTime" value={ruleData.endTime} onChange={handleRuleChange} required />
+                </div>
+              </div>
+
+              <div className="form-row">
+                <div className="form-group">
+                  <label htmlFor="validFrom">From *</label>
+                  <input type="date" id="validFrom" name="validFrom" value={ruleData.validFrom} onChange={handleRuleChange} required />
+                </div>
+                <div className="form-group">
+                  <label htmlFor="validUntil">Until (optional)</label>
+                  <input type="date" id="validUntil" name="validUntil" value={ruleData.validUntil} onChange={handleRuleChange} min={ruleData.validFrom} />
+                </div>
+              </div>
+
+              <div className="form-actions">
+                <button type="submit" className="btn btn-primary" disabled={createRuleMutation.isLoading}>
+                  {createRuleMutation.isLoading ? 'Adding...' : 'Add Weekly Hours'}
+                </button>
+                <button type="button" className="btn btn-secondary" onClick={() => setShowRuleForm(false)}>
+                  Cancel
+                </button>
+              </div>
+            </form>
+          </div>
+        )}
+
+        <div className="slots-container">
+          {availabilityRules?.map(rule => (
+            <div key={rule.id} className="slot-card">
+              <div className="slot-info">
+                <div className="slot-business">{rule.businessName}</div>
+                <div className="slot-dates">
+                  {WEEKDAYS.filter(day => rule.days.includes(day)).map(day => day.slice(0, 3)).join(', ')}
+                  {' · '}from {formatDate(rule.validFrom)}{rule.validUntil ? ` until ${formatDate(rule.validUntil)}` : ''}
+                </div>
+                <div className="slot-time">
+                  {formatTime(rule.startTime)} - {formatTime(rule.endTime)}
+                </div>
+              </div>
+              <button
+                className="btn-delete"
+                onClick={() => window.confirm(`Delete these weekly hours of ${rule.businessName}?`) && deleteRuleMutation.mutate(rule.id)}
+                disabled={deleteRuleMutation.isLoading}
+              >
+                🗑️ Delete
+              </button>
+            </div>
+          ))}
+        </div>
+      </div>
+
+      {/* Closures */}
+      <div className="availability-schedule">
+        <h2>Closures</h2>
+        <form className="add-slot-form" onSubmit={handleClosureSubmit}>
+          <div className="form-row">
+            <div className="form-group">
+              <label htmlFor="closureBusinessId">Business *</label>
+              <select id="closureBusinessId" name="businessId" value={closure.businessId} onChange={handleClosureChange} required>
+                <option value="">Select a business</option>
+                {businesses?.map(business => (
+                  <option key={business.id} value={business.id}>{business.name}</option>
+                ))}
+              </select>
+            </div>
+            <div className="form-group">
+              <label htmlFor="closureReason">Reason</label>
+              <input type="text" id="closureReason" name="reason" value={closure.reason} onChange={handleClosureChange} placeholder="e.g. Public holiday" />
+            </div>
+          </div>
+          <div className="form-row">
+            <div className="form-group">
+              <label htmlFor="closureStartDate">From *</label>
+              <input type="date" id="closureStartDate" name="startDate" value={closure.startDate} onChange={handleClosureChange} required />
+            </div>
+            <div className="form-group">
+              <label htmlFor="closureEndDate">Until</label>
+              <input type="date" id="closureEndDate" name="endDate" value={closure.endDate} onChange={handleClosureChange} min={closure.startDate} />
+            </div>
+            <div className="form-group">
+              <label htmlFor="closureStartTime">Closed from (blank for all day)</label>
+              <input type="time" id="closureStartTime" name="startTime" value={closure.startTime} onChange={handleClosureChange} />
+            </div>
+            <div className="form-group">
+              <label htmlFor="closureEndTime">Closed until</label>
+              <input type="time" id="closureEndTime" name="endTime" value={closure.endTime} onChange={handleClosureChange} />
+            </div>
+          </div>
+          <div className="form-actions">
+            <button type="submit" className="btn btn-primary" disabled={exceptionMutation.isLoading}>
+              Add Closure
+            </button>
+          </div>
+        </form>
+
+        <div className="slots-container">
+          {availabilityExceptions?.map(exception => (
+            <div key={exception.id} className="slot-card">
+              <div className="slot-info">
+                <div className="slot-business">{exception.businessName}{exception.reason ? ` · ${exception.reason}` : ''}</div>
+                <div className="slot-dates">
+                  {exception.type === 'OPEN' ? 'Extra hours' : 'Closed'}: {formatDate(exception.startDate)}
+                  {exception.endDate !== exception.startDate ? ` - ${formatDate(exception.endDate)}` : ''}
+                </div>
+                <div className="slot-time">
+                  {exception.startTime ? `${formatTime(exception.startTime)} - ${formatTime(exception.endTime)}` : 'All day'}
+                </div>
+              </div>
+              <button
+                className="btn-delete"
+                onClick={() => exceptionMutation.mutate({ id: exception.id })}
+                disabled={exceptionMutation.isLoading}
+              >
+                🗑️ Delete
+              </button>
+            </div>
+          ))}
+        </div>
+      </div>
+
+      {/* Bulk import */}
+      <div className="availability-schedule">
+        <h2>Import Slots</h2>
+        <p>
+          Upload a CSV file with the columns businessId, startDate, endDate, startTime, endTime
+          (e.g. <code>12,2030-01-01,2030-03-31,09:00,17:00</code>) or an .ndjson file with one slot per line.
+        </p>
+        <form
+          className="add-slot-form"
+          onSubmit={(e) => {
+            e.preventDefault();
+            if (importFile) {
+              setImportResult(null);
+              importMutation.mutate(importFile);
+            }
+          }}
+        >
+          <div className="form-row">
+            <div className="form-group">
+              <label htmlFor="importFile">File *</label>
+              <input
+                type="file"
+                id="importFile"
+                accept=".csv,.ndjson,text/csv"
+                onChange={(e) => setImportFile(e.target.files[0] || null)}
+                required
+              />
+            </div>
+          </div>
+          <div className="form-actions">
+            <button type="submit" className="btn btn-primary" disabled={!importFile || importMutation.isLoading}>
+              {importMutation.isLoading ? 'Importing...' : 'Import'}
+            </button>
+          </div>
+        </form>
+
+        {importResult && (
+          <div className="import-result">
+            <p>
+              Imported {importResult.imported} of {importResult.rows} rows
+              {importResult.rejected > 0 ? `, ${importResult.rejected} rejected` : ''}.
+            </p>
+            {importResult.errors.length > 0 && (
+              <ul>
+                {importResult.errors.map((error) => (
+                  <li key={error.line}>Line {error.line}: {error.error}</li>
+                ))}
+              </ul>
+            )}
+            {importResult.errorsTruncated && <p>Only the first {importResult.errors.length} errors are listed.</p>}
+          </div>
+        )}
+      </div>
+
       {/* Current Availability Slots */}
       <div className="availability-schedule">
         <h2>Current Availability Schedule</h2>